@@ -0,0 +1,35 @@
+// Fills the station datalist from the autocomplete endpoint as the user types
+(function() {
+	var list = document.getElementById("stations");
+	var inputs = document.querySelectorAll("input[list='stations']");
+	var pending;
+
+	function suggest(prefix) {
+		var xhr = new XMLHttpRequest();
+		xhr.open("GET", "stations?limit=10&q=" + encodeURIComponent(prefix));
+		xhr.onload = function() {
+			if (xhr.status !== 200) {
+				return;
+			}
+			var stations = JSON.parse(xhr.responseText);
+			list.innerHTML = "";
+			for (var i = 0; i < stations.length; i++) {
+				var option = document.createElement("option");
+				option.value = stations[i];
+				list.appendChild(option);
+			}
+		};
+		xhr.send();
+	}
+
+	for (var i = 0; i < inputs.length; i++) {
+		inputs[i].setAttribute("autocomplete", "off");
+		inputs[i].addEventListener("input", function(event) {
+			var prefix = event.target.value;
+			clearTimeout(pending);
+			pending = setTimeout(function() {
+				suggest(prefix);
+			}, 100);
+		});
+	}
+})();
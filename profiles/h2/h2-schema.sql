@@ -0,0 +1,124 @@
+-- Schema and demo data for the embedded H2 profile, same tables as Dummy-Database.md.
+-- Run at startup through db.initScript, every statement is safe to repeat against an existing database.
+
+CREATE TABLE IF NOT EXISTS CUSTOMER
+(
+"MAILID" VARCHAR2(40) PRIMARY KEY,
+"PWORD" VARCHAR2(20) NOT NULL,
+"FNAME" VARCHAR2(20) NOT NULL,
+"LNAME" VARCHAR2(20),
+"ADDR" VARCHAR2(100),
+"PHNO" NUMBER(12) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS ADMIN
+(
+"MAILID" VARCHAR2(40) PRIMARY KEY,
+"PWORD" VARCHAR2(20) NOT NULL,
+"FNAME" VARCHAR2(20) NOT NULL,
+"LNAME" VARCHAR2(20),
+"ADDR" VARCHAR2(100),
+"PHNO" NUMBER(12) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS STATION
+(
+"STN_ID" NUMBER(10) PRIMARY KEY,
+"STN_NAME" VARCHAR2(20) NOT NULL UNIQUE
+);
+
+CREATE TABLE IF NOT EXISTS STATION_ALIAS
+(
+"ALIAS" VARCHAR2(20) PRIMARY KEY,
+"STN_ID" NUMBER(10) NOT NULL REFERENCES STATION(STN_ID)
+);
+
+CREATE SEQUENCE IF NOT EXISTS STATION_SEQ START WITH 11;
+
+CREATE TABLE IF NOT EXISTS TRAIN
+(
+"TR_NO" NUMBER(10) PRIMARY KEY,
+"TR_NAME" VARCHAR2(70) NOT NULL,
+"FROM_STN_ID" NUMBER(10) NOT NULL REFERENCES STATION(STN_ID),
+"TO_STN_ID" NUMBER(10) NOT NULL REFERENCES STATION(STN_ID),
+"SEATS" NUMBER(4) NOT NULL,
+"FARE" NUMBER(6,2) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS HISTORY
+(
+"TRANSID" VARCHAR2(36) PRIMARY KEY,
+"MAILID" VARCHAR2(40) REFERENCES CUSTOMER(MAILID),
+"TR_NO" NUMBER(10),
+"DATE" DATE,
+"FROM_STN_ID" NUMBER(10) NOT NULL REFERENCES STATION(STN_ID),
+"TO_STN_ID" NUMBER(10) NOT NULL REFERENCES STATION(STN_ID),
+"SEATS" NUMBER(3) NOT NULL,
+"AMOUNT" NUMBER(8,2) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS SEAT_INVENTORY
+(
+"TR_NO" NUMBER(10) NOT NULL REFERENCES TRAIN(TR_NO) ON DELETE CASCADE,
+"JOURNEY_DATE" DATE NOT NULL,
+"SEAT_CLASS" VARCHAR2(2) NOT NULL,
+"SEATS" NUMBER(4) NOT NULL,
+PRIMARY KEY ("TR_NO", "JOURNEY_DATE", "SEAT_CLASS")
+);
+
+CREATE TABLE IF NOT EXISTS TRAIN_CHANGE
+(
+"CHANGE_ID" NUMBER(19) PRIMARY KEY,
+"TR_NO" NUMBER(10) NOT NULL,
+"CHANGED_AT" TIMESTAMP NOT NULL
+);
+
+CREATE SEQUENCE IF NOT EXISTS TRAIN_CHANGE_SEQ;
+
+CREATE INDEX IF NOT EXISTS TRAIN_CHANGE_AT_IDX ON TRAIN_CHANGE("CHANGED_AT");
+
+CREATE INDEX IF NOT EXISTS HISTORY_MAILID_DATE_IDX ON HISTORY("MAILID", "DATE", "TRANSID");
+
+-- Demo rows go into a table only while it is empty, so a restart never undoes edits or brings back deleted rows
+INSERT INTO ADMIN ("MAILID", "PWORD", "FNAME", "LNAME", "ADDR", "PHNO")
+SELECT * FROM (VALUES ('admin@demo.com','admin','System','Admin','Demo Address 123 colony',9874561230))
+WHERE NOT EXISTS (SELECT 1 FROM ADMIN);
+INSERT INTO CUSTOMER ("MAILID", "PWORD", "FNAME", "LNAME", "ADDR", "PHNO")
+SELECT * FROM (VALUES ('shashi@demo.com','shashi','Shashi','Raj','Kolkata, West Bengal',954745222))
+WHERE NOT EXISTS (SELECT 1 FROM CUSTOMER);
+
+INSERT INTO STATION ("STN_ID", "STN_NAME")
+SELECT * FROM (VALUES
+(1,'HOWRAH'),
+(2,'JODHPUR'),
+(3,'GAYA'),
+(4,'DELHI'),
+(5,'RANCHI'),
+(6,'PATNA'),
+(7,'MUMBAI'),
+(8,'KERALA'),
+(9,'SEALDAH'),
+(10,'AJMER'))
+WHERE NOT EXISTS (SELECT 1 FROM STATION);
+INSERT INTO STATION_ALIAS ("ALIAS", "STN_ID")
+SELECT * FROM (VALUES ('HAWRAH',1))
+WHERE NOT EXISTS (SELECT 1 FROM STATION_ALIAS);
+
+INSERT INTO TRAIN ("TR_NO", "TR_NAME", "FROM_STN_ID", "TO_STN_ID", "SEATS", "FARE")
+SELECT * FROM (VALUES
+(10001,'JODHPUR EXP',1,2, 152, 490.50),
+(10002,'YAMUNA EXP',3,4, 52, 550.50),
+(10003,'NILANCHAL EXP',3,1, 92, 451),
+(10004,'JAN SATABDI EXP',5,6, 182, 550),
+(10005,'GANGE EXP',7,8, 12, 945),
+(10006,'GARIB RATH EXP',6,4, 1, 1450.75),
+(10008,'MUMBAI MAIL',1,7, 100, 2150.75),
+(10007,'AJMER-SEALDAH EXP',9,10, 120, 1000.50))
+WHERE NOT EXISTS (SELECT 1 FROM TRAIN);
+
+INSERT INTO HISTORY ("TRANSID", "MAILID", "TR_NO", "DATE", "FROM_STN_ID", "TO_STN_ID", "SEATS", "AMOUNT")
+SELECT * FROM (VALUES
+('BBC374-NSDF-4673','shashi@demo.com',10001,DATE '2024-02-02', 1, 2, 2, 981),
+('BBC375-NSDF-4675','shashi@demo.com',10004,DATE '2024-01-12', 5, 6, 1, 550),
+('BBC373-NSDF-4674','shashi@demo.com',10006,DATE '2024-07-22', 6, 4, 3, 4352.25))
+WHERE NOT EXISTS (SELECT 1 FROM HISTORY);
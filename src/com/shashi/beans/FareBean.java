@@ -0,0 +1,74 @@
+package com.shashi.beans;
+
+import java.io.Serializable;
+
+//Fare summary of the direct trains between one pair of stations
+public class FareBean implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private String from_stn;
+	private String to_stn;
+	private Integer trains;
+	private Double minFare;
+	private Double maxFare;
+	private Double avgFare;
+	private Long cheapestTrNo;
+
+	public String getFrom_stn() {
+		return from_stn;
+	}
+
+	public void setFrom_stn(String from_stn) {
+		this.from_stn = from_stn;
+	}
+
+	public String getTo_stn() {
+		return to_stn;
+	}
+
+	public void setTo_stn(String to_stn) {
+		this.to_stn = to_stn;
+	}
+
+	public Integer getTrains() {
+		return trains;
+	}
+
+	public void setTrains(Integer trains) {
+		this.trains = trains;
+	}
+
+	public Double getMinFare() {
+		return minFare;
+	}
+
+	public void setMinFare(Double minFare) {
+		this.minFare = minFare;
+	}
+
+	public Double getMaxFare() {
+		return maxFare;
+	}
+
+	public void setMaxFare(Double maxFare) {
+		this.maxFare = maxFare;
+	}
+
+	public Double getAvgFare() {
+		return avgFare;
+	}
+
+	public void setAvgFare(Double avgFare) {
+		this.avgFare = avgFare;
+	}
+
+	public Long getCheapestTrNo() {
+		return cheapestTrNo;
+	}
+
+	public void setCheapestTrNo(Long cheapestTrNo) {
+		this.cheapestTrNo = cheapestTrNo;
+	}
+
+}
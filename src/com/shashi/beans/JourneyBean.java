@@ -0,0 +1,34 @@
+package com.shashi.beans;
+
+import java.io.Serializable;
+import java.util.List;
+
+//One itinerary from the journey planner, the legs are taken in order
+public class JourneyBean implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private List<TrainBean> legs;
+	private Double fare;
+
+	public List<TrainBean> getLegs() {
+		return legs;
+	}
+
+	public void setLegs(List<TrainBean> legs) {
+		this.legs = legs;
+	}
+
+	public Double getFare() {
+		return fare;
+	}
+
+	public void setFare(Double fare) {
+		this.fare = fare;
+	}
+
+	public int getTransfers() {
+		return legs == null || legs.isEmpty() ? 0 : legs.size() - 1;
+	}
+
+}
@@ -0,0 +1,9 @@
+package com.shashi.constant;
+
+//Orders the itineraries returned by the journey planner
+public enum JourneySort {
+	// cheapest total fare first
+	FARE,
+	// fewest changes of train first
+	TRANSFERS
+}
@@ -0,0 +1,13 @@
+package com.shashi.constant;
+
+//Kinds of service statements, each gets its own timeout budget from application.properties
+public enum QueryType {
+	// single row reads by key
+	LOOKUP,
+	// listings and station searches
+	SEARCH,
+	// booking history writes
+	BOOKING,
+	// train and account maintenance
+	ADMIN
+}
@@ -0,0 +1,57 @@
+package com.shashi.constant;
+
+import java.util.Locale;
+
+//Classes a seat can be booked in. Every class gets its share of the train's seats for each journey date,
+//booked separately from the other classes
+public enum SeatClass {
+
+	SLEEPER("SL", "Sleeper(SL)", 50),
+	SECOND_SITTING("2S", "Second Sitting(2S)", 25),
+	AC_TWO_TIER("2A", "AC 2 Tier(2A)", 15),
+	AC_FIRST("1A", "AC First Class(1A)", 10);
+
+	private final String code;
+	private final String label;
+	// percent of TRAIN.SEATS
+	private final int share;
+
+	SeatClass(String code, String label, int share) {
+		this.code = code;
+		this.label = label;
+		this.share = share;
+	}
+
+	// Stored in SEAT_INVENTORY.SEAT_CLASS
+	public String getCode() {
+		return code;
+	}
+
+	// Shown on the booking form
+	public String getLabel() {
+		return label;
+	}
+
+	public int getShare() {
+		return share;
+	}
+
+	// Seats of this class on a train with the given number of seats, before any booking
+	public int quota(int trainSeats) {
+		return trainSeats * share / 100;
+	}
+
+	// The class for a code or form label, case insensitive, null when there is none
+	public static SeatClass of(String value) {
+		if (value == null) {
+			return null;
+		}
+		String key = value.trim().toUpperCase(Locale.ROOT);
+		for (SeatClass seatClass : values()) {
+			if (seatClass.code.equals(key) || seatClass.label.toUpperCase(Locale.ROOT).equals(key)) {
+				return seatClass;
+			}
+		}
+		return null;
+	}
+}
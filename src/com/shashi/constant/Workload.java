@@ -0,0 +1,6 @@
+package com.shashi.constant;
+
+//Workloads of the asynchronous services, each runs on its own bounded executor
+public enum Workload {
+	CATALOG, BOOKING, USER
+}
@@ -0,0 +1,24 @@
+package com.shashi.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import com.shashi.beans.HistoryBean;
+import com.shashi.beans.TrainBean;
+import com.shashi.constant.SeatClass;
+
+//Non-blocking counterpart of BookingService, failures complete the future with a TrainException
+public interface AsyncBookingService {
+
+	public CompletableFuture<List<HistoryBean>> getAllBookingsByCustomerId(String customerEmailId);
+
+	public CompletableFuture<HistoryBean> createHistory(HistoryBean bookingDetails);
+
+	public CompletableFuture<HistoryBean> reserveSeats(String customerEmailId, TrainBean train, String journeyDate,
+			SeatClass seatClass, int seats);
+
+	public CompletableFuture<Map<Long, Map<SeatClass, Integer>>> getAvailableSeats(Map<Long, Integer> trainSeats,
+			String journeyDate);
+
+}
@@ -0,0 +1,28 @@
+package com.shashi.service;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import com.shashi.beans.TrainBean;
+import com.shashi.utility.TrainColumns;
+
+//Non-blocking counterpart of TrainService, failures complete the future with a TrainException
+public interface AsyncTrainService {
+
+	public CompletableFuture<String> addTrain(TrainBean train);
+
+	public CompletableFuture<String> deleteTrainById(String trainNo);
+
+	public CompletableFuture<String> updateTrain(TrainBean train);
+
+	public CompletableFuture<TrainBean> getTrainById(String trainNo);
+
+	public CompletableFuture<List<TrainBean>> getAllTrains();
+
+	public CompletableFuture<List<TrainBean>> getTrainsBetweenStations(String fromStation, String toStation);
+
+	public CompletableFuture<TrainColumns> getTrainColumns();
+
+	public CompletableFuture<Set<String>> matchStations(String fragment);
+}
@@ -0,0 +1,23 @@
+package com.shashi.service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import com.shashi.beans.UserBean;
+
+//Non-blocking counterpart of UserService, failures complete the future with a TrainException
+public interface AsyncUserService {
+
+	public CompletableFuture<UserBean> getUserByEmailId(String userEmailId);
+
+	public CompletableFuture<List<UserBean>> getAllUsers();
+
+	public CompletableFuture<String> updateUser(UserBean customer);
+
+	public CompletableFuture<String> deleteUser(UserBean customer);
+
+	public CompletableFuture<String> registerUser(UserBean customer);
+
+	public CompletableFuture<UserBean> loginUser(String username, String password);
+
+}
@@ -1,14 +1,37 @@
 package com.shashi.service;
 
 import java.util.List;
+import java.util.Map;
 
 import com.shashi.beans.HistoryBean;
+import com.shashi.beans.TrainBean;
 import com.shashi.beans.TrainException;
+import com.shashi.constant.SeatClass;
 
 public interface BookingService {
 
 	public List<HistoryBean> getAllBookingsByCustomerId(String customerEmailId) throws TrainException;
 
+	// Keyset paging over the customer's bookings, newest journey first, keyed by journey date and
+	// transaction id of the last booking shown, pass nulls for the first page. Bookings without journey date
+	// come first and are keyed by an empty date
+	public List<HistoryBean> getBookingsAfter(String customerEmailId, String afterDate, String afterTransId,
+			int pageSize) throws TrainException;
+
+	// The pageSize bookings shown right before the given one, still newest first
+	public List<HistoryBean> getBookingsBefore(String customerEmailId, String beforeDate, String beforeTransId,
+			int pageSize) throws TrainException;
+
 	public HistoryBean createHistory(HistoryBean bookingDetails) throws TrainException;
 
+	// Takes the seats from the train's inventory for the journey date (yyyy-mm-dd) and class and records
+	// the booking in one transaction, the fare and stations come from the given train. Null when the train
+	// has fewer seats left in the class than asked for
+	public HistoryBean reserveSeats(String customerEmailId, TrainBean train, String journeyDate, SeatClass seatClass,
+			int seats) throws TrainException;
+
+	// Seats left per class on the journey date for the trains given with their seat counts, by train number
+	public Map<Long, Map<SeatClass, Integer>> getAvailableSeats(Map<Long, Integer> trainSeats, String journeyDate)
+			throws TrainException;
+
 }
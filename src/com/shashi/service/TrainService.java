@@ -1,9 +1,15 @@
 package com.shashi.service;
 
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
+import com.shashi.beans.FareBean;
+import com.shashi.beans.JourneyBean;
 import com.shashi.beans.TrainBean;
 import com.shashi.beans.TrainException;
+import com.shashi.constant.JourneySort;
+import com.shashi.utility.TrainColumns;
 
 public interface TrainService {
 
@@ -17,5 +23,25 @@ public interface TrainService {
 
 	public List<TrainBean> getAllTrains() throws TrainException;
 
+	// Streams every train to the action while the cursor is open, returns the number of trains
+	public int forEachTrain(Consumer<TrainBean> action) throws TrainException;
+
 	public List<TrainBean> getTrainsBetweenStations(String fromStation, String toStation) throws TrainException;
+
+	// Upper cased station names containing the fragment or within a few typos of it
+	public Set<String> matchStations(String fragment) throws TrainException;
+
+	// Column snapshot of every train by train number, for pages that filter or page over the catalog
+	public TrainColumns getTrainColumns() throws TrainException;
+
+	// Fare summary per station pair whose names contain the fragments, like getTrainsBetweenStations
+	public List<FareBean> getFaresBetweenStations(String fromStation, String toStation) throws TrainException;
+
+	// Itineraries of one or more trains with at most maxTransfers changes, each cheaper or with fewer
+	// changes than the others
+	public List<JourneyBean> planJourney(String fromStation, String toStation, int maxTransfers, JourneySort sort)
+			throws TrainException;
+
+	// Up to limit station names starting with the prefix, the busiest stations first
+	public List<String> suggestStations(String prefix, int limit) throws TrainException;
 }
@@ -0,0 +1,53 @@
+package com.shashi.service.impl;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import com.shashi.beans.HistoryBean;
+import com.shashi.beans.TrainBean;
+import com.shashi.constant.SeatClass;
+import com.shashi.constant.Workload;
+import com.shashi.service.AsyncBookingService;
+import com.shashi.service.BookingService;
+import com.shashi.utility.AsyncExecutors;
+
+//Runs the blocking BookingService calls on the booking executor
+public class AsyncBookingServiceImpl implements AsyncBookingService {
+
+	private final BookingService bookingService;
+
+	public AsyncBookingServiceImpl(BookingService bookingService) {
+		this.bookingService = bookingService;
+	}
+
+	public AsyncBookingServiceImpl() {
+		this(new BookingServiceImpl());
+	}
+
+	@Override
+	public CompletableFuture<List<HistoryBean>> getAllBookingsByCustomerId(String customerEmailId) {
+		return AsyncExecutors.supply(Workload.BOOKING,
+				() -> bookingService.getAllBookingsByCustomerId(customerEmailId));
+	}
+
+	@Override
+	public CompletableFuture<HistoryBean> createHistory(HistoryBean bookingDetails) {
+		return AsyncExecutors.supply(Workload.BOOKING, () -> bookingService.createHistory(bookingDetails));
+	}
+
+	@Override
+	public CompletableFuture<HistoryBean> reserveSeats(String customerEmailId, TrainBean train, String journeyDate,
+			SeatClass seatClass, int seats) {
+		return AsyncExecutors.supply(Workload.BOOKING,
+				() -> bookingService.reserveSeats(customerEmailId, train, journeyDate, seatClass, seats));
+	}
+
+	@Override
+	public CompletableFuture<Map<Long, Map<SeatClass, Integer>>> getAvailableSeats(Map<Long, Integer> trainSeats,
+			String journeyDate) {
+		return AsyncExecutors.supply(Workload.BOOKING,
+				() -> bookingService.getAvailableSeats(trainSeats, journeyDate));
+	}
+
+}
@@ -0,0 +1,68 @@
+package com.shashi.service.impl;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import com.shashi.beans.TrainBean;
+import com.shashi.constant.Workload;
+import com.shashi.service.AsyncTrainService;
+import com.shashi.service.TrainService;
+import com.shashi.utility.AsyncExecutors;
+import com.shashi.utility.TrainColumns;
+
+//Runs the blocking TrainService calls on the catalog executor
+public class AsyncTrainServiceImpl implements AsyncTrainService {
+
+	private final TrainService trainService;
+
+	public AsyncTrainServiceImpl(TrainService trainService) {
+		this.trainService = trainService;
+	}
+
+	public AsyncTrainServiceImpl() {
+		this(new TrainServiceImpl());
+	}
+
+	@Override
+	public CompletableFuture<String> addTrain(TrainBean train) {
+		return AsyncExecutors.supply(Workload.CATALOG, () -> trainService.addTrain(train));
+	}
+
+	@Override
+	public CompletableFuture<String> deleteTrainById(String trainNo) {
+		return AsyncExecutors.supply(Workload.CATALOG, () -> trainService.deleteTrainById(trainNo));
+	}
+
+	@Override
+	public CompletableFuture<String> updateTrain(TrainBean train) {
+		return AsyncExecutors.supply(Workload.CATALOG, () -> trainService.updateTrain(train));
+	}
+
+	@Override
+	public CompletableFuture<TrainBean> getTrainById(String trainNo) {
+		return AsyncExecutors.supply(Workload.CATALOG, () -> trainService.getTrainById(trainNo));
+	}
+
+	@Override
+	public CompletableFuture<List<TrainBean>> getAllTrains() {
+		return AsyncExecutors.supply(Workload.CATALOG, trainService::getAllTrains);
+	}
+
+	@Override
+	public CompletableFuture<List<TrainBean>> getTrainsBetweenStations(String fromStation, String toStation) {
+		return AsyncExecutors.supply(Workload.CATALOG,
+				() -> trainService.getTrainsBetweenStations(fromStation, toStation));
+	}
+
+	@Override
+	public CompletableFuture<TrainColumns> getTrainColumns() {
+		return AsyncExecutors.supply(Workload.CATALOG, trainService::getTrainColumns);
+	}
+
+	@Override
+	public CompletableFuture<Set<String>> matchStations(String fragment) {
+		return AsyncExecutors.supply(Workload.CATALOG, () -> trainService.matchStations(fragment));
+	}
+
+}
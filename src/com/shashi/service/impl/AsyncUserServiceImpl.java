@@ -0,0 +1,56 @@
+package com.shashi.service.impl;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import com.shashi.beans.UserBean;
+import com.shashi.constant.UserRole;
+import com.shashi.constant.Workload;
+import com.shashi.service.AsyncUserService;
+import com.shashi.service.UserService;
+import com.shashi.utility.AsyncExecutors;
+
+//Runs the blocking UserService calls on the user executor
+public class AsyncUserServiceImpl implements AsyncUserService {
+
+	private final UserService userService;
+
+	public AsyncUserServiceImpl(UserService userService) {
+		this.userService = userService;
+	}
+
+	public AsyncUserServiceImpl(UserRole userRole) {
+		this(new UserServiceImpl(userRole));
+	}
+
+	@Override
+	public CompletableFuture<UserBean> getUserByEmailId(String userEmailId) {
+		return AsyncExecutors.supply(Workload.USER, () -> userService.getUserByEmailId(userEmailId));
+	}
+
+	@Override
+	public CompletableFuture<List<UserBean>> getAllUsers() {
+		return AsyncExecutors.supply(Workload.USER, userService::getAllUsers);
+	}
+
+	@Override
+	public CompletableFuture<String> updateUser(UserBean customer) {
+		return AsyncExecutors.supply(Workload.USER, () -> userService.updateUser(customer));
+	}
+
+	@Override
+	public CompletableFuture<String> deleteUser(UserBean customer) {
+		return AsyncExecutors.supply(Workload.USER, () -> userService.deleteUser(customer));
+	}
+
+	@Override
+	public CompletableFuture<String> registerUser(UserBean customer) {
+		return AsyncExecutors.supply(Workload.USER, () -> userService.registerUser(customer));
+	}
+
+	@Override
+	public CompletableFuture<UserBean> loginUser(String username, String password) {
+		return AsyncExecutors.supply(Workload.USER, () -> userService.loginUser(username, password));
+	}
+
+}
@@ -1,83 +1,382 @@
 package com.shashi.service.impl;
 
+import java.sql.CallableStatement;
 import java.sql.Connection;
+import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import com.shashi.beans.HistoryBean;
+import com.shashi.beans.TrainBean;
 import com.shashi.beans.TrainException;
+import com.shashi.constant.QueryType;
 import com.shashi.constant.ResponseCode;
+import com.shashi.constant.SeatClass;
 import com.shashi.service.BookingService;
 import com.shashi.utility.DBUtil;
+import com.shashi.utility.Dialect;
+import com.shashi.utility.QueryTimeouts;
+import com.shashi.utility.HistoryRowMapper;
+import com.shashi.utility.SeatAllocator;
+import com.shashi.utility.StationDirectory;
 
 //Service Implementaion class for booking details of the ticket
 //Creates the booking history and save to database
 public class BookingServiceImpl implements BookingService {
 
+	private static final String RESERVE_HISTORY_QUERY = "INSERT INTO HISTORY (TRANSID, MAILID, TR_NO, \"DATE\", "
+			+ "FROM_STN_ID, TO_STN_ID, SEATS, AMOUNT) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+	// Only takes the seats when they are all still there. Each train, journey date and class has its own
+	// row, so bookings only wait for others on the same bucket
+	private static final String RESERVE_SEATS_QUERY = "UPDATE SEAT_INVENTORY SET SEATS = SEATS - ? "
+			+ "WHERE TR_NO=? AND JOURNEY_DATE=? AND SEAT_CLASS=? AND SEATS >= ?";
+	// A bucket starts with the class's share of the train's seats when it is first booked
+	private static final String OPEN_BUCKET_QUERY = "INSERT INTO SEAT_INVENTORY (TR_NO, JOURNEY_DATE, SEAT_CLASS, SEATS) "
+			+ "SELECT TR_NO, ?, ?, FLOOR(SEATS * ? / 100) FROM TRAIN WHERE TR_NO=? AND NOT EXISTS "
+			+ "(SELECT 1 FROM SEAT_INVENTORY WHERE TR_NO=? AND JOURNEY_DATE=? AND SEAT_CLASS=?)";
+	// The whole booking as one anonymous block on Oracle: decrement, open the bucket and decrement again
+	// when the first one found no seats, then the booking row when the seats were taken. The number of
+	// buckets changed comes back in the last parameter, 0 means the seats ran out
+	private static final String RESERVE_BLOCK = "DECLARE "
+			+ "v_seats NUMBER := ?; v_tr_no NUMBER := ?; v_date DATE := ?; v_class VARCHAR2(2) := ?; "
+			+ "v_share NUMBER := ?; v_trans_id VARCHAR2(36) := ?; v_mail VARCHAR2(40) := ?; "
+			+ "v_from NUMBER := ?; v_to NUMBER := ?; v_amount NUMBER := ?; v_taken NUMBER; "
+			+ "BEGIN "
+			+ "UPDATE SEAT_INVENTORY SET SEATS = SEATS - v_seats "
+			+ "WHERE TR_NO = v_tr_no AND JOURNEY_DATE = v_date AND SEAT_CLASS = v_class AND SEATS >= v_seats; "
+			+ "v_taken := SQL%ROWCOUNT; "
+			+ "IF v_taken = 0 THEN "
+			+ "BEGIN "
+			+ "INSERT INTO SEAT_INVENTORY (TR_NO, JOURNEY_DATE, SEAT_CLASS, SEATS) "
+			+ "SELECT TR_NO, v_date, v_class, FLOOR(SEATS * v_share / 100) FROM TRAIN WHERE TR_NO = v_tr_no; "
+			+ "EXCEPTION WHEN DUP_VAL_ON_INDEX THEN NULL; "
+			+ "END; "
+			+ "UPDATE SEAT_INVENTORY SET SEATS = SEATS - v_seats "
+			+ "WHERE TR_NO = v_tr_no AND JOURNEY_DATE = v_date AND SEAT_CLASS = v_class AND SEATS >= v_seats; "
+			+ "v_taken := SQL%ROWCOUNT; "
+			+ "END IF; "
+			+ "IF v_taken > 0 THEN "
+			+ "INSERT INTO HISTORY (TRANSID, MAILID, TR_NO, \"DATE\", FROM_STN_ID, TO_STN_ID, SEATS, AMOUNT) "
+			+ "VALUES (v_trans_id, v_mail, v_tr_no, v_date, v_from, v_to, v_seats, v_amount); "
+			+ "END IF; "
+			+ "? := v_taken; "
+			+ "END;";
+	private static final String AVAILABLE_SEATS_QUERY = "SELECT TR_NO, SEAT_CLASS, SEATS FROM SEAT_INVENTORY "
+			+ "WHERE JOURNEY_DATE=? AND TR_NO IN ";
+	// Trains per availability query, Oracle takes at most 1000 values in an IN list
+	private static final int MAX_IN_LIST = 500;
+
+	// Books from memory and writes behind when booking.allocator.enabled is set
+	private SeatAllocator allocator = SeatAllocator.getInstance();
+
 	@Override
 	public List<HistoryBean> getAllBookingsByCustomerId(String customerEmailId) throws TrainException {
 		List<HistoryBean> transactions = null;
-		String query = "SELECT * FROM HISTORY WHERE MAILID=?";
-		try {
-			Connection con = DBUtil.getConnection();
-			PreparedStatement ps = con.prepareStatement(query);
+		String query = "SELECT " + HistoryRowMapper.ALL.getColumns() + " FROM HISTORY WHERE MAILID=?";
+		try (Connection con = DBUtil.getConnection(); PreparedStatement ps = con.prepareStatement(query)) {
+			QueryTimeouts.apply(ps, QueryType.SEARCH);
 			ps.setString(1, customerEmailId);
 			ResultSet rs = ps.executeQuery();
-			transactions = new ArrayList<HistoryBean>();
-			while (rs.next()) {
-				HistoryBean transaction = new HistoryBean();
-				transaction.setTransId(rs.getString("transid"));
-				transaction.setFrom_stn(rs.getString("from_stn"));
-				transaction.setTo_stn(rs.getString("to_stn"));
-				transaction.setDate(rs.getString("date"));
-				transaction.setMailId(rs.getString("mailid"));
-				transaction.setSeats(rs.getInt("seats"));
-				transaction.setAmount(rs.getDouble("amount"));
-				transaction.setTr_no(rs.getString("tr_no"));
-				transactions.add(transaction);
-			}
+			transactions = HistoryRowMapper.ALL.mapAll(rs);
+		} catch (SQLException e) {
+			System.out.println(e.getMessage());
+			throw QueryTimeouts.toTrainException(e);
+		}
+		return transactions;
+	}
 
-			ps.close();
+	@Override
+	public List<HistoryBean> getBookingsAfter(String customerEmailId, String afterDate, String afterTransId,
+			int pageSize) throws TrainException {
+		return getBookingsPage(customerEmailId, afterDate, afterTransId, pageSize, true);
+	}
+
+	@Override
+	public List<HistoryBean> getBookingsBefore(String customerEmailId, String beforeDate, String beforeTransId,
+			int pageSize) throws TrainException {
+		return getBookingsPage(customerEmailId, beforeDate, beforeTransId, pageSize, false);
+	}
+
+	// Seeks past the (journey date, transaction id) key instead of skipping rows, so every page costs
+	// the same index range scan no matter how deep it is. Bookings without a journey date sort where
+	// Oracle keeps NULLs in the index, first when newest first, and an empty key date stands for them
+	private List<HistoryBean> getBookingsPage(String customerEmailId, String keyDate, String keyTransId,
+			int pageSize, boolean forward) throws TrainException {
+		List<HistoryBean> transactions = null;
+		boolean firstPage = keyDate == null || keyTransId == null;
+		boolean nullKey = !firstPage && keyDate.trim().isEmpty();
+		String cmp = forward ? "<" : ">";
+		String order = forward ? "DESC NULLS FIRST" : "ASC NULLS LAST";
+		String seek;
+		if (firstPage) {
+			seek = "";
+		} else if (nullKey) {
+			// Past the undated bookings going forward come all dated ones, going back only undated ones
+			seek = " AND (\"DATE\" IS NULL AND TRANSID " + cmp + " ?" + (forward ? " OR \"DATE\" IS NOT NULL)" : ")");
+		} else {
+			seek = " AND (\"DATE\" " + cmp + " ? OR (\"DATE\" = ? AND TRANSID " + cmp + " ?)"
+					+ (forward ? ")" : " OR \"DATE\" IS NULL)");
+		}
+		String query = "SELECT " + HistoryRowMapper.ALL.getColumns() + " FROM HISTORY WHERE MAILID=?" + seek
+				+ " ORDER BY \"DATE\" " + order + ", TRANSID " + (forward ? "DESC" : "ASC") + " FETCH FIRST ? ROWS ONLY";
+		try (Connection con = DBUtil.getConnection(); PreparedStatement ps = con.prepareStatement(query)) {
+			QueryTimeouts.apply(ps, QueryType.SEARCH);
+			int index = 1;
+			ps.setString(index++, customerEmailId);
+			if (!firstPage && !nullKey) {
+				// Bound as DATE like the column, a TIMESTAMP would turn the index seek into a conversion
+				Date date = toKeyDate(keyDate);
+				ps.setDate(index++, date);
+				ps.setDate(index++, date);
+			}
+			if (!firstPage) {
+				ps.setString(index++, keyTransId);
+			}
+			ps.setInt(index, pageSize);
+			ResultSet rs = ps.executeQuery();
+			transactions = HistoryRowMapper.ALL.mapAll(rs);
+			if (!forward) {
+				Collections.reverse(transactions);
+			}
 		} catch (SQLException e) {
+			System.out.println(e.getMessage());
+			throw QueryTimeouts.toTrainException(e);
+		} catch (IllegalArgumentException e) {
 			System.out.println(e.getMessage());
 			throw new TrainException(e.getMessage());
 		}
 		return transactions;
 	}
 
+	// Journey dates come back from the driver either as yyyy-mm-dd or yyyy-mm-dd hh:mm:ss[.f], they never
+	// carry a time of day
+	private static Date toKeyDate(String date) {
+		String value = date.trim();
+		return Date.valueOf(value.length() > 10 ? value.substring(0, 10) : value);
+	}
+
 	@Override
 	public HistoryBean createHistory(HistoryBean details) throws TrainException {
 		HistoryBean history = null;
 		String query = "INSERT INTO HISTORY VALUES(?,?,?,?,?,?,?,?)";
 		try {
-			Connection con = DBUtil.getConnection();
-			PreparedStatement ps = con.prepareStatement(query);
-			String transactionId = UUID.randomUUID().toString();
-			ps.setString(1, transactionId);
-			ps.setString(2, details.getMailId());
-			ps.setString(3, details.getTr_no());
-			ps.setString(4, details.getDate());
-			ps.setString(5, details.getFrom_stn());
-			ps.setString(6, details.getTo_stn());
-			ps.setLong(7, details.getSeats());
-			ps.setDouble(8, details.getAmount());
-			int response = ps.executeUpdate();
-			if (response > 0) {
-				history = (HistoryBean) details;
-				history.setTransId(transactionId);
-			} else {
-				throw new TrainException(ResponseCode.INTERNAL_SERVER_ERROR);
+			// Resolved before borrowing, adding a station takes a connection of its own
+			int fromId = StationDirectory.getInstance().resolve(details.getFrom_stn());
+			int toId = StationDirectory.getInstance().resolve(details.getTo_stn());
+			try (Connection con = DBUtil.getConnection(); PreparedStatement ps = con.prepareStatement(query)) {
+				QueryTimeouts.apply(ps, QueryType.BOOKING);
+				String transactionId = UUID.randomUUID().toString();
+				ps.setString(1, transactionId);
+				ps.setString(2, details.getMailId());
+				ps.setString(3, details.getTr_no());
+				ps.setString(4, details.getDate());
+				ps.setInt(5, fromId);
+				ps.setInt(6, toId);
+				ps.setLong(7, details.getSeats());
+				ps.setDouble(8, details.getAmount());
+				int response = ps.executeUpdate();
+				if (response > 0) {
+					history = (HistoryBean) details;
+					history.setTransId(transactionId);
+				} else {
+					throw new TrainException(ResponseCode.INTERNAL_SERVER_ERROR);
+				}
 			}
-			ps.close();
 		} catch (SQLException e) {
 			System.out.println(e.getMessage());
-			throw new TrainException(e.getMessage());
+			throw QueryTimeouts.toTrainException(e);
 		}
 		return history;
 	}
 
+	// Fare and stations come from the train the caller already loaded. On Oracle the booking is a single
+	// round trip, H2 has no anonymous blocks and runs the insert, the decrement and the commit instead
+	@Override
+	public HistoryBean reserveSeats(String customerEmailId, TrainBean train, String journeyDate,
+			SeatClass seatClass, int seats) throws TrainException {
+		if (train == null || seats <= 0 || seatClass == null) {
+			throw new TrainException(ResponseCode.BAD_REQUEST);
+		}
+		if (allocator.isEnabled()) {
+			return allocator.reserve(customerEmailId, train, journeyDate, seatClass, seats);
+		}
+		try {
+			Date date = toDate(journeyDate);
+			HistoryBean history = new HistoryBean();
+			history.setTransId(UUID.randomUUID().toString());
+			history.setMailId(customerEmailId);
+			history.setTr_no(String.valueOf(train.getTr_no()));
+			history.setDate(date.toString());
+			history.setFrom_stn(train.getFrom_stn());
+			history.setTo_stn(train.getTo_stn());
+			history.setSeats(seats);
+			history.setAmount(train.getFare() * seats);
+			int fromId = StationDirectory.getInstance().resolve(train.getFrom_stn());
+			int toId = StationDirectory.getInstance().resolve(train.getTo_stn());
+			if (DBUtil.getDialect() == Dialect.ORACLE) {
+				return reserveInBlock(history, date, seatClass, fromId, toId) ? history : null;
+			}
+			// The decrement that locks the bucket comes last, a busy bucket stays locked only from the
+			// decrement to the commit
+			try (Connection con = DBUtil.getConnection();
+					PreparedStatement insert = con.prepareStatement(RESERVE_HISTORY_QUERY);
+					PreparedStatement update = con.prepareStatement(RESERVE_SEATS_QUERY)) {
+				QueryTimeouts.apply(insert, QueryType.BOOKING);
+				QueryTimeouts.apply(update, QueryType.BOOKING);
+				con.setAutoCommit(false);
+				insert.setString(1, history.getTransId());
+				insert.setString(2, customerEmailId);
+				insert.setLong(3, train.getTr_no());
+				insert.setDate(4, date);
+				insert.setInt(5, fromId);
+				insert.setInt(6, toId);
+				insert.setInt(7, seats);
+				insert.setDouble(8, history.getAmount());
+				insert.executeUpdate();
+				update.setInt(1, seats);
+				update.setLong(2, train.getTr_no());
+				update.setDate(3, date);
+				update.setString(4, seatClass.getCode());
+				update.setInt(5, seats);
+				int taken = update.executeUpdate();
+				if (taken == 0 && openBucket(con, train.getTr_no(), date, seatClass)) {
+					taken = update.executeUpdate();
+				}
+				if (taken == 0) {
+					con.rollback();
+					return null;
+				}
+				con.commit();
+				return history;
+			}
+		} catch (SQLException e) {
+			System.out.println(e.getMessage());
+			throw QueryTimeouts.toTrainException(e);
+		} catch (IllegalArgumentException e) {
+			System.out.println(e.getMessage());
+			throw new TrainException(e.getMessage());
+		}
+	}
+
+	// Runs RESERVE_BLOCK for the booking, false when the seats ran out and nothing was written
+	private static boolean reserveInBlock(HistoryBean history, Date date, SeatClass seatClass, int fromId, int toId)
+			throws SQLException, TrainException {
+		try (Connection con = DBUtil.getConnection(); CallableStatement cs = con.prepareCall(RESERVE_BLOCK)) {
+			QueryTimeouts.apply(cs, QueryType.BOOKING);
+			cs.setInt(1, history.getSeats());
+			cs.setLong(2, Long.parseLong(history.getTr_no()));
+			cs.setDate(3, date);
+			cs.setString(4, seatClass.getCode());
+			cs.setInt(5, seatClass.getShare());
+			cs.setString(6, history.getTransId());
+			cs.setString(7, history.getMailId());
+			cs.setInt(8, fromId);
+			cs.setInt(9, toId);
+			cs.setDouble(10, history.getAmount());
+			cs.registerOutParameter(11, Types.INTEGER);
+			cs.execute();
+			boolean taken = cs.getInt(11) > 0;
+			if (!con.getAutoCommit()) {
+				if (taken) {
+					con.commit();
+				} else {
+					con.rollback();
+				}
+			}
+			return taken;
+		}
+	}
+
+	// Adds the bucket when nobody booked it yet, false when it was already there
+	private static boolean openBucket(Connection con, long trainNo, Date date, SeatClass seatClass)
+			throws SQLException {
+		try (PreparedStatement ps = con.prepareStatement(OPEN_BUCKET_QUERY)) {
+			QueryTimeouts.apply(ps, QueryType.BOOKING);
+			ps.setDate(1, date);
+			ps.setString(2, seatClass.getCode());
+			ps.setInt(3, seatClass.getShare());
+			ps.setLong(4, trainNo);
+			ps.setLong(5, trainNo);
+			ps.setDate(6, date);
+			ps.setString(7, seatClass.getCode());
+			return ps.executeUpdate() > 0;
+		} catch (SQLException e) {
+			if (!DBUtil.getDialect().isUniqueViolation(e)) {
+				throw e;
+			}
+			// Opened by a booking running at the same moment
+			return true;
+		}
+	}
+
+	@Override
+	public Map<Long, Map<SeatClass, Integer>> getAvailableSeats(Map<Long, Integer> trainSeats, String journeyDate)
+			throws TrainException {
+		// Buckets nobody booked yet are not stored and still hold their full quota
+		Map<Long, Map<SeatClass, Integer>> available = new HashMap<Long, Map<SeatClass, Integer>>();
+		for (Map.Entry<Long, Integer> train : trainSeats.entrySet()) {
+			Map<SeatClass, Integer> classes = new EnumMap<SeatClass, Integer>(SeatClass.class);
+			for (SeatClass seatClass : SeatClass.values()) {
+				classes.put(seatClass, seatClass.quota(train.getValue() == null ? 0 : train.getValue()));
+			}
+			available.put(train.getKey(), classes);
+		}
+		List<Long> trainNos = new ArrayList<Long>(trainSeats.keySet());
+		try {
+			Date date = toDate(journeyDate);
+			for (int from = 0; from < trainNos.size(); from += MAX_IN_LIST) {
+				readAvailableSeats(trainNos.subList(from, Math.min(from + MAX_IN_LIST, trainNos.size())), date,
+						available);
+			}
+		} catch (SQLException e) {
+			System.out.println(e.getMessage());
+			throw QueryTimeouts.toTrainException(e);
+		} catch (IllegalArgumentException e) {
+			System.out.println(e.getMessage());
+			throw new TrainException(e.getMessage());
+		}
+		if (allocator.isEnabled()) {
+			allocator.overlay(available, journeyDate);
+		}
+		return available;
+	}
+
+	private static void readAvailableSeats(List<Long> trainNos, Date date,
+			Map<Long, Map<SeatClass, Integer>> available) throws SQLException, TrainException {
+		StringBuilder query = new StringBuilder(AVAILABLE_SEATS_QUERY).append('(');
+		for (int i = 0; i < trainNos.size(); i++) {
+			query.append(i == 0 ? "?" : ", ?");
+		}
+		query.append(')');
+		try (Connection con = DBUtil.getReadConnection(); PreparedStatement ps = con.prepareStatement(query.toString())) {
+			QueryTimeouts.apply(ps, QueryType.SEARCH);
+			ps.setDate(1, date);
+			for (int i = 0; i < trainNos.size(); i++) {
+				ps.setLong(i + 2, trainNos.get(i));
+			}
+			ResultSet rs = ps.executeQuery();
+			while (rs.next()) {
+				Map<SeatClass, Integer> classes = available.get(rs.getLong(1));
+				SeatClass seatClass = SeatClass.of(rs.getString(2));
+				if (classes != null && seatClass != null) {
+					classes.put(seatClass, rs.getInt(3));
+				}
+			}
+		}
+	}
+
+	// Journey dates are given as yyyy-mm-dd
+	private static Date toDate(String date) {
+		return Date.valueOf(date.trim());
+	}
+
 }
@@ -5,37 +5,108 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
+import com.shashi.beans.FareBean;
+import com.shashi.beans.JourneyBean;
 import com.shashi.beans.TrainBean;
 import com.shashi.beans.TrainException;
+import com.shashi.constant.JourneySort;
+import com.shashi.constant.QueryType;
 import com.shashi.constant.ResponseCode;
 import com.shashi.service.TrainService;
+import com.shashi.utility.AppConfig;
+import com.shashi.utility.ColumnarCatalog;
 import com.shashi.utility.DBUtil;
+import com.shashi.utility.FareMatrix;
+import com.shashi.utility.JourneyPlanner;
+import com.shashi.utility.QueryTimeouts;
+import com.shashi.utility.SingleFlight;
+import com.shashi.utility.StationBkTree;
+import com.shashi.utility.StationDirectory;
+import com.shashi.utility.StationIndex;
+import com.shashi.utility.StationTrie;
+import com.shashi.utility.TrainCatalog;
+import com.shashi.utility.TrainChangeLog;
+import com.shashi.utility.TrainColumns;
+import com.shashi.utility.TrainNumberFilter;
+import com.shashi.utility.TrainRowMapper;
+import com.shashi.utility.TtlCache;
 
 public class TrainServiceImpl implements TrainService {
 
+	// Shared by all instances since every servlet creates its own service
+	private static final TtlCache<Long, TrainBean> trainCache = new TtlCache<Long, TrainBean>(
+			AppConfig.getInt("cache.train.maxSize", 1000), AppConfig.getLong("cache.train.ttlMs", 300000));
+
+	// Concurrent identical lookups and searches wait for the one already running
+	private static final SingleFlight<Long, TrainBean> trainFlights = new SingleFlight<Long, TrainBean>();
+	private static final SingleFlight<String, List<TrainBean>> searchFlights = new SingleFlight<String, List<TrainBean>>();
+	private static final Object CATALOG_LOAD_LOCK = new Object();
+
+	// When each train was last written, a replica may not have the change until maxLagSeconds have
+	// passed so lookups of these trains read from the primary until then
+	private static final ConcurrentHashMap<Long, Long> recentWrites = new ConcurrentHashMap<Long, Long>();
+	private static final long REPLICA_LAG_MS = AppConfig.getInt("replica.maxLagSeconds", 30) * 1000L;
+
+	private static final int MAX_TRANSFERS = AppConfig.getInt("journey.maxTransfers", 3);
+	private static final int FUZZY_MAX_DISTANCE = AppConfig.getInt("search.fuzzy.maxDistance", 2);
+
+	// Tells the other application nodes which trains were written through this one
+	private TrainChangeLog changeLog = TrainChangeLog.getInstance();
+
+	public static TtlCache<Long, TrainBean> getTrainCache() {
+		return trainCache;
+	}
+
+	public static SingleFlight<Long, TrainBean> getTrainFlights() {
+		return trainFlights;
+	}
+
+	public static SingleFlight<String, List<TrainBean>> getSearchFlights() {
+		return searchFlights;
+	}
+
 	@Override
 	public String addTrain(TrainBean train) {
 		String responseCode = ResponseCode.FAILURE.toString();
 		String query = "INSERT INTO TRAIN VALUES(?,?,?,?,?,?)";
 		try {
-			Connection con = DBUtil.getConnection();
-			PreparedStatement ps = con.prepareStatement(query);
-			ps.setLong(1, train.getTr_no());
-			ps.setString(2, train.getTr_name());
-			ps.setString(3, train.getFrom_stn());
-			ps.setString(4, train.getTo_stn());
-			ps.setLong(5, train.getSeats());
-			ps.setDouble(6, train.getFare());
-			ResultSet rs = ps.executeQuery();
-			if (rs.next()) {
-				responseCode = ResponseCode.SUCCESS.toString();
+			// Resolved before borrowing, adding a station takes a connection of its own
+			int fromId = toStationId(train, true);
+			int toId = toStationId(train, false);
+			try (Connection con = DBUtil.getConnection(); PreparedStatement ps = con.prepareStatement(query)) {
+				QueryTimeouts.apply(ps, QueryType.ADMIN);
+				changeLog.begin(con);
+				ps.setLong(1, train.getTr_no());
+				ps.setString(2, train.getTr_name());
+				ps.setInt(3, fromId);
+				ps.setInt(4, toId);
+				ps.setLong(5, train.getSeats());
+				ps.setDouble(6, train.getFare());
+				int response = ps.executeUpdate();
+				if (response > 0) {
+					changeLog.commit(con, train.getTr_no());
+					responseCode = ResponseCode.SUCCESS.toString();
+					TrainCatalog.getInstance().put(train);
+				}
 			}
-			ps.close();
 		} catch (SQLException | TrainException e) {
+			if (QueryTimeouts.isTimeout(e)) {
+				responseCode = ResponseCode.QUERY_TIMEOUT.toString();
+			}
 			responseCode += " : " + e.getMessage();
 		}
+		written(train.getTr_no());
+		if (ResponseCode.SUCCESS.toString().equals(responseCode)) {
+			// The bean holds what was just written, the next lookup needs no query
+			trainCache.put(train.getTr_no(), TrainCatalog.copyOf(train));
+		}
 		return responseCode;
 	}
 
@@ -43,67 +114,108 @@ public class TrainServiceImpl implements TrainService {
 	public String deleteTrainById(String trainNo) {
 		String responseCode = ResponseCode.FAILURE.toString();
 		String query = "DELETE FROM TRAIN WHERE TR_NO=?";
-		try {
-			Connection con = DBUtil.getConnection();
-			PreparedStatement ps = con.prepareStatement(query);
+		try (Connection con = DBUtil.getConnection(); PreparedStatement ps = con.prepareStatement(query)) {
+			QueryTimeouts.apply(ps, QueryType.ADMIN);
+			changeLog.begin(con);
 			ps.setString(1, trainNo);
 			int response = ps.executeUpdate();
 			if (response > 0) {
+				changeLog.commit(con, toKey(trainNo));
 				responseCode = ResponseCode.SUCCESS.toString();
+				TrainCatalog.getInstance().remove(toKey(trainNo));
 			}
-			ps.close();
 		} catch (SQLException | TrainException e) {
+			if (QueryTimeouts.isTimeout(e)) {
+				responseCode = ResponseCode.QUERY_TIMEOUT.toString();
+			}
 			responseCode += " : " + e.getMessage();
 		}
+		if (toKey(trainNo) != null) {
+			written(toKey(trainNo));
+		}
 		return responseCode;
 	}
 
 	@Override
 	public String updateTrain(TrainBean train) {
 		String responseCode = ResponseCode.FAILURE.toString();
-		String query = "UPDATE TRAIN SET TR_NAME=?, FROM_STN=?,TO_STN=?,SEATS=?,FARE=? WHERE TR_NO=?";
+		String query = "UPDATE TRAIN SET TR_NAME=?, FROM_STN_ID=?,TO_STN_ID=?,SEATS=?,FARE=? WHERE TR_NO=?";
 		try {
-			Connection con = DBUtil.getConnection();
-			PreparedStatement ps = con.prepareStatement(query);
-			ps.setString(1, train.getTr_name());
-			ps.setString(2, train.getFrom_stn());
-			ps.setString(3, train.getTo_stn());
-			ps.setLong(4, train.getSeats());
-			ps.setDouble(5, train.getFare());
-			ps.setDouble(6, train.getTr_no());
-			ResultSet rs = ps.executeQuery();
-			if (rs.next()) {
-				responseCode = ResponseCode.SUCCESS.toString();
+			// Resolved before borrowing, adding a station takes a connection of its own
+			int fromId = toStationId(train, true);
+			int toId = toStationId(train, false);
+			try (Connection con = DBUtil.getConnection(); PreparedStatement ps = con.prepareStatement(query)) {
+				QueryTimeouts.apply(ps, QueryType.ADMIN);
+				changeLog.begin(con);
+				ps.setString(1, train.getTr_name());
+				ps.setInt(2, fromId);
+				ps.setInt(3, toId);
+				ps.setLong(4, train.getSeats());
+				ps.setDouble(5, train.getFare());
+				ps.setDouble(6, train.getTr_no());
+				int response = ps.executeUpdate();
+				if (response > 0) {
+					changeLog.commit(con, train.getTr_no());
+					responseCode = ResponseCode.SUCCESS.toString();
+					TrainCatalog.getInstance().put(train);
+				}
 			}
-			ps.close();
 		} catch (SQLException | TrainException e) {
+			if (QueryTimeouts.isTimeout(e)) {
+				responseCode = ResponseCode.QUERY_TIMEOUT.toString();
+			}
 			responseCode += " : " + e.getMessage();
 		}
+		written(train.getTr_no());
+		if (ResponseCode.SUCCESS.toString().equals(responseCode)) {
+			// The bean holds what was just written, the next lookup needs no query
+			trainCache.put(train.getTr_no(), TrainCatalog.copyOf(train));
+		}
 		return responseCode;
 	}
 
 	@Override
 	public TrainBean getTrainById(String trainNo) throws TrainException {
+		Long key = toKey(trainNo);
+		if (key != null) {
+			TrainBean cached = trainCache.get(key);
+			if (cached != null) {
+				return TrainCatalog.copyOf(cached);
+			}
+		}
+		// Once the catalog is loaded the filter knows every train, unknown numbers need no query
+		boolean filtered = key != null && TrainCatalog.getInstance().isLoaded();
+		if (filtered && !TrainNumberFilter.getInstance().mightContain(key)) {
+			return null;
+		}
+		if (key == null) {
+			return loadTrain(trainNo, key, filtered);
+		}
+		// Callers asking for the same train at the same time share one query
+		TrainBean train = trainFlights.execute(key, () -> loadTrain(trainNo, key, filtered));
+		return train == null ? null : TrainCatalog.copyOf(train);
+	}
+
+	private TrainBean loadTrain(String trainNo, Long key, boolean filtered) throws TrainException {
+		long stamp = trainCache.stamp();
 		TrainBean train = null;
-		String query = "SELECT * FROM TRAIN WHERE TR_NO=?";
-		try {
-			Connection con = DBUtil.getConnection();
-			PreparedStatement ps = con.prepareStatement(query);
+		String query = "SELECT " + TrainRowMapper.ALL.getColumns() + " FROM TRAIN WHERE TR_NO=?";
+		try (Connection con = key != null && isRecentlyWritten(key) ? DBUtil.getConnection() : DBUtil.getReadConnection();
+				PreparedStatement ps = con.prepareStatement(query)) {
+			QueryTimeouts.apply(ps, QueryType.LOOKUP);
 			ps.setString(1, trainNo);
 			ResultSet rs = ps.executeQuery();
 			if (rs.next()) {
-				train = new TrainBean();
-				train.setFare(rs.getDouble("fare"));
-				train.setFrom_stn(rs.getString("from_stn"));
-				train.setTo_stn(rs.getString("to_stn"));
-				train.setTr_name(rs.getString("tr_name"));
-				train.setTr_no(rs.getLong("tr_no"));
-				train.setSeats(rs.getInt("seats"));
+				train = TrainRowMapper.ALL.mapRow(rs);
 			}
-			ps.close();
 		} catch (SQLException e) {
 			System.out.println(e.getMessage());
-			throw new TrainException(e.getMessage());
+			throw QueryTimeouts.toTrainException(e);
+		}
+		if (train != null && key != null) {
+			trainCache.putIfCurrent(key, TrainCatalog.copyOf(train), stamp);
+		} else if (filtered) {
+			TrainNumberFilter.getInstance().falsePositive();
 		}
 		return train;
 	}
@@ -111,60 +223,195 @@ public class TrainServiceImpl implements TrainService {
 	@Override
 	public List<TrainBean> getAllTrains() throws TrainException {
 		List<TrainBean> trains = null;
-		String query = "SELECT * FROM TRAIN";
-		try {
-			Connection con = DBUtil.getConnection();
-			PreparedStatement ps = con.prepareStatement(query);
+		String query = "SELECT " + TrainRowMapper.ALL.getColumns() + " FROM TRAIN";
+		try (Connection con = DBUtil.getReadConnection(); PreparedStatement ps = con.prepareStatement(query)) {
+			QueryTimeouts.apply(ps, QueryType.SEARCH);
 			ResultSet rs = ps.executeQuery();
-			trains = new ArrayList<TrainBean>();
-			while (rs.next()) {
-				TrainBean train = new TrainBean();
-				train.setFare(rs.getDouble("fare"));
-				train.setFrom_stn(rs.getString("from_stn"));
-				train.setTo_stn(rs.getString("to_stn"));
-				train.setTr_name(rs.getString("tr_name"));
-				train.setTr_no(rs.getLong("tr_no"));
-				train.setSeats(rs.getInt("seats"));
-				trains.add(train);
-			}
-
-			ps.close();
+			trains = TrainRowMapper.ALL.mapAll(rs);
 		} catch (SQLException e) {
 			System.out.println(e.getMessage());
-			throw new TrainException(e.getMessage());
+			throw QueryTimeouts.toTrainException(e);
 		}
 		return trains;
 	}
 
+	@Override
+	public int forEachTrain(Consumer<TrainBean> action) throws TrainException {
+		String query = "SELECT " + TrainRowMapper.ALL.getColumns() + " FROM TRAIN";
+		try (Connection con = DBUtil.getReadConnection(); PreparedStatement ps = con.prepareStatement(query)) {
+			QueryTimeouts.apply(ps, QueryType.SEARCH);
+			ps.setFetchSize(DBUtil.getFetchSize());
+			ResultSet rs = ps.executeQuery();
+			return TrainRowMapper.ALL.forEach(rs, action);
+		} catch (SQLException e) {
+			System.out.println(e.getMessage());
+			throw QueryTimeouts.toTrainException(e);
+		}
+	}
+
 	@Override
 	public List<TrainBean> getTrainsBetweenStations(String fromStation, String toStation) throws TrainException {
-		List<TrainBean> trains = null;
-		String query = "SELECT * FROM TRAIN WHERE UPPER(FROM_STN) LIKE UPPER(?) AND UPPER(TO_STN) LIKE UPPER(?)";
+		// Served by the station index, a LIKE '%x%' on TRAIN cannot use an index and scans the whole table
+		String key = String.valueOf(fromStation).toUpperCase(Locale.ROOT) + "\n"
+				+ String.valueOf(toStation).toUpperCase(Locale.ROOT);
+		List<TrainBean> shared = searchFlights.execute(key, () -> {
+			TrainCatalog catalog = loadCatalog();
+			StationIndex index = StationIndex.getInstance();
+			Set<Long> trainNos = index.findBetween(fromStation, toStation);
+			if (trainNos.isEmpty()) {
+				// Nothing under the names as typed, try again with the stations a few typos away
+				trainNos = index.findBetweenStations(matchStations(fromStation), matchStations(toStation));
+			}
+			return catalog.getTrains(trainNos);
+		});
+		// Every caller of a shared search gets its own beans
+		List<TrainBean> trains = new ArrayList<TrainBean>(shared.size());
+		for (TrainBean train : shared) {
+			trains.add(TrainCatalog.copyOf(train));
+		}
+		return trains;
+	}
 
+	@Override
+	public Set<String> matchStations(String fragment) throws TrainException {
+		loadCatalog();
+		Set<String> names = StationIndex.getInstance().findStations(fragment);
 		try {
-			Connection con = DBUtil.getConnection();
-			PreparedStatement ps = con.prepareStatement(query);
-			ps.setString(1, "%" + fromStation + "%");
-			ps.setString(2, "%" + toStation + "%");
-			ResultSet rs = ps.executeQuery();
-			trains = new ArrayList<TrainBean>();
-			while (rs.next()) {
-				TrainBean train = new TrainBean();
-				train.setFare(rs.getDouble("fare"));
-				train.setFrom_stn(rs.getString("from_stn"));
-				train.setTo_stn(rs.getString("to_stn"));
-				train.setTr_name(rs.getString("tr_name"));
-				train.setTr_no(rs.getLong("tr_no"));
-				train.setSeats(rs.getInt("seats"));
-				trains.add(train);
+			// An alias names its station exactly, like HAWRAH for HOWRAH
+			StationDirectory stations = StationDirectory.getInstance();
+			Integer aliased = stations.find(fragment);
+			if (aliased != null) {
+				names.add(stations.nameOf(aliased).toUpperCase(Locale.ROOT));
 			}
-
-			ps.close();
 		} catch (SQLException e) {
 			System.out.println(e.getMessage());
-			throw new TrainException(e.getMessage());
+			throw QueryTimeouts.toTrainException(e);
 		}
-		return trains;
+		String typed = fragment == null ? "" : fragment.trim();
+		// One typo per four letters, so short names do not match every other short name
+		int typos = Math.min(FUZZY_MAX_DISTANCE, typed.length() / 4);
+		if (typos > 0) {
+			names.addAll(StationBkTree.getInstance().within(typed, typos));
+		}
+		return names;
 	}
-	
+
+	@Override
+	public TrainColumns getTrainColumns() throws TrainException {
+		loadCatalog();
+		return ColumnarCatalog.getInstance().getColumns();
+	}
+
+	@Override
+	public List<FareBean> getFaresBetweenStations(String fromStation, String toStation) throws TrainException {
+		// Served by the fare matrix, the station index turns the fragments into station names
+		loadCatalog();
+		StationIndex index = StationIndex.getInstance();
+		List<FareBean> fares = FareMatrix.getInstance().getFares(index.findStations(fromStation),
+				index.findStations(toStation));
+		if (fares.isEmpty()) {
+			fares = FareMatrix.getInstance().getFares(matchStations(fromStation), matchStations(toStation));
+		}
+		fares.sort(Comparator.comparing(FareBean::getFrom_stn).thenComparing(FareBean::getTo_stn));
+		return fares;
+	}
+
+	@Override
+	public List<JourneyBean> planJourney(String fromStation, String toStation, int maxTransfers, JourneySort sort)
+			throws TrainException {
+		loadCatalog();
+		return JourneyPlanner.getInstance().plan(fromStation, toStation, Math.min(maxTransfers, MAX_TRANSFERS), sort);
+	}
+
+	@Override
+	public List<String> suggestStations(String prefix, int limit) throws TrainException {
+		loadCatalog();
+		return StationTrie.getInstance().complete(prefix, limit);
+	}
+
+	// Brings this node up to date after another node wrote the train, reads from the primary since a
+	// replica may not have the change yet
+	public static void refreshTrain(Long trainNo) {
+		written(trainNo);
+		TrainCatalog catalog = TrainCatalog.getInstance();
+		if (!catalog.isLoaded()) {
+			// Still counts as a write, a load running now reads the table again
+			catalog.remove(trainNo);
+			return;
+		}
+		String query = "SELECT " + TrainRowMapper.ALL.getColumns() + " FROM TRAIN WHERE TR_NO=?";
+		try (Connection con = DBUtil.getConnection(); PreparedStatement ps = con.prepareStatement(query)) {
+			QueryTimeouts.apply(ps, QueryType.LOOKUP);
+			ps.setLong(1, trainNo);
+			ResultSet rs = ps.executeQuery();
+			if (rs.next()) {
+				TrainBean train = TrainRowMapper.ALL.mapRow(rs);
+				catalog.put(train);
+				trainCache.put(trainNo, TrainCatalog.copyOf(train));
+			} else {
+				catalog.remove(trainNo);
+			}
+		} catch (SQLException | TrainException e) {
+			// The catalog may now be behind, drop it so the next reader loads it again
+			System.out.println("Unable to refresh train " + trainNo + ": " + e.getMessage());
+			catalog.clear();
+		}
+	}
+
+	// Drops the cached copy of a train that was just written here or on another node
+	private static void written(Long trainNo) {
+		long now = System.currentTimeMillis();
+		// Admin writes are rare, forgetting the old ones here keeps the map small
+		recentWrites.values().removeIf(at -> now - at > REPLICA_LAG_MS);
+		recentWrites.put(trainNo, now);
+		trainCache.invalidate(trainNo);
+		trainFlights.forget(trainNo);
+	}
+
+	private static boolean isRecentlyWritten(Long trainNo) {
+		Long at = recentWrites.get(trainNo);
+		return at != null && System.currentTimeMillis() - at <= REPLICA_LAG_MS;
+	}
+
+	// Lets tests start without trains that earlier tests wrote
+	static void forgetRecentWrites() {
+		recentWrites.clear();
+	}
+
+	// Reads the whole TRAIN table into the catalog the first time it is needed
+	private TrainCatalog loadCatalog() throws TrainException {
+		TrainCatalog catalog = TrainCatalog.getInstance();
+		if (!catalog.isLoaded()) {
+			synchronized (CATALOG_LOAD_LOCK) {
+				// A write during the read makes load refuse the stale rows, read again
+				while (!catalog.isLoaded()) {
+					long stamp = catalog.stamp();
+					catalog.load(getAllTrains(), stamp);
+				}
+			}
+		}
+		return catalog;
+	}
+
+	// Id of the train's origin or destination, the bean is given the canonical name so the catalog
+	// holds what a reload would read
+	private static int toStationId(TrainBean train, boolean from) throws SQLException {
+		StationDirectory stations = StationDirectory.getInstance();
+		int id = stations.resolve(from ? train.getFrom_stn() : train.getTo_stn());
+		if (from) {
+			train.setFrom_stn(stations.nameOf(id));
+		} else {
+			train.setTo_stn(stations.nameOf(id));
+		}
+		return id;
+	}
+
+	private static Long toKey(String trainNo) {
+		try {
+			return trainNo == null ? null : Long.valueOf(trainNo.trim());
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
 }
@@ -4,15 +4,17 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.ArrayList;
 import java.util.List;
 
 import com.shashi.beans.TrainException;
 import com.shashi.beans.UserBean;
+import com.shashi.constant.QueryType;
 import com.shashi.constant.ResponseCode;
 import com.shashi.constant.UserRole;
 import com.shashi.service.UserService;
 import com.shashi.utility.DBUtil;
+import com.shashi.utility.QueryTimeouts;
+import com.shashi.utility.UserRowMapper;
 
 public class UserServiceImpl implements UserService {
 
@@ -28,26 +30,19 @@ public class UserServiceImpl implements UserService {
 	@Override
 	public UserBean getUserByEmailId(String customerEmailId) throws TrainException {
 		UserBean customer = null;
-		String query = "SELECT * FROM " + TABLE_NAME + " WHERE MAILID=?";
-		try {
-			Connection con = DBUtil.getConnection();
-			PreparedStatement ps = con.prepareStatement(query);
+		String query = "SELECT " + UserRowMapper.PROFILE.getColumns() + " FROM " + TABLE_NAME + " WHERE MAILID=?";
+		try (Connection con = DBUtil.getConnection(); PreparedStatement ps = con.prepareStatement(query)) {
+			QueryTimeouts.apply(ps, QueryType.LOOKUP);
 			ps.setString(1, customerEmailId);
 			ResultSet rs = ps.executeQuery();
 			if (rs.next()) {
-				customer = new UserBean();
-				customer.setFName(rs.getString("fname"));
-				customer.setLName(rs.getString("lname"));
-				customer.setAddr(rs.getString("addr"));
-				customer.setMailId(rs.getString("mailid"));
-				customer.setPhNo(rs.getLong("phno"));
+				customer = UserRowMapper.PROFILE.mapRow(rs);
 			} else {
 				throw new TrainException(ResponseCode.NO_CONTENT);
 			}
-			ps.close();
 		} catch (SQLException e) {
 			System.out.println(e.getMessage());
-			throw new TrainException(e.getMessage());
+			throw QueryTimeouts.toTrainException(e);
 		}
 		return customer;
 	}
@@ -55,29 +50,18 @@ public class UserServiceImpl implements UserService {
 	@Override
 	public List<UserBean> getAllUsers() throws TrainException {
 		List<UserBean> customers = null;
-		String query = "SELECT * FROM  " + TABLE_NAME;
-		try {
-			Connection con = DBUtil.getConnection();
-			PreparedStatement ps = con.prepareStatement(query);
+		String query = "SELECT " + UserRowMapper.PROFILE.getColumns() + " FROM " + TABLE_NAME;
+		try (Connection con = DBUtil.getConnection(); PreparedStatement ps = con.prepareStatement(query)) {
+			QueryTimeouts.apply(ps, QueryType.ADMIN);
 			ResultSet rs = ps.executeQuery();
-			customers = new ArrayList<UserBean>();
-			while (rs.next()) {
-				UserBean customer = new UserBean();
-				customer.setFName(rs.getString("fname"));
-				customer.setLName(rs.getString("lname"));
-				customer.setAddr(rs.getString("addr"));
-				customer.setMailId(rs.getString("mailid"));
-				customer.setPhNo(rs.getLong("phno"));
-				customers.add(customer);
-			}
+			customers = UserRowMapper.PROFILE.mapAll(rs);
 
 			if (customers.isEmpty()) {
 				throw new TrainException(ResponseCode.NO_CONTENT);
 			}
-			ps.close();
 		} catch (SQLException e) {
 			System.out.println(e.getMessage());
-			throw new TrainException(e.getMessage());
+			throw QueryTimeouts.toTrainException(e);
 		}
 		return customers;
 	}
@@ -86,9 +70,8 @@ public class UserServiceImpl implements UserService {
 	public String updateUser(UserBean customer) {
 		String responseCode = ResponseCode.FAILURE.toString();
 		String query = "UPDATE  " + TABLE_NAME + " SET FNAME=?,LNAME=?,ADDR=?,PHNO=? WHERE MAILID=?";
-		try {
-			Connection con = DBUtil.getConnection();
-			PreparedStatement ps = con.prepareStatement(query);
+		try (Connection con = DBUtil.getConnection(); PreparedStatement ps = con.prepareStatement(query)) {
+			QueryTimeouts.apply(ps, QueryType.ADMIN);
 			ps.setString(1, customer.getFName());
 			ps.setString(2, customer.getLName());
 			ps.setString(3, customer.getAddr());
@@ -98,8 +81,10 @@ public class UserServiceImpl implements UserService {
 			if (response > 0) {
 				responseCode = ResponseCode.SUCCESS.toString();
 			}
-			ps.close();
 		} catch (SQLException | TrainException e) {
+			if (QueryTimeouts.isTimeout(e)) {
+				responseCode = ResponseCode.QUERY_TIMEOUT.toString();
+			}
 			responseCode += " : " + e.getMessage();
 		}
 		return responseCode;
@@ -109,17 +94,18 @@ public class UserServiceImpl implements UserService {
 	public String deleteUser(UserBean customer) {
 		String responseCode = ResponseCode.FAILURE.toString();
 		String query = "DELETE FROM " + TABLE_NAME + " WHERE MAILID=?";
-		try {
-			Connection con = DBUtil.getConnection();
-			PreparedStatement ps = con.prepareStatement(query);
+		try (Connection con = DBUtil.getConnection(); PreparedStatement ps = con.prepareStatement(query)) {
+			QueryTimeouts.apply(ps, QueryType.ADMIN);
 			ps.setString(1, customer.getMailId());
 
 			int response = ps.executeUpdate();
 			if (response > 0) {
 				responseCode = ResponseCode.SUCCESS.toString();
 			}
-			ps.close();
 		} catch (SQLException | TrainException e) {
+			if (QueryTimeouts.isTimeout(e)) {
+				responseCode = ResponseCode.QUERY_TIMEOUT.toString();
+			}
 			responseCode += " : " + e.getMessage();
 		}
 		return responseCode;
@@ -129,26 +115,28 @@ public class UserServiceImpl implements UserService {
 	public String registerUser(UserBean customer) {
 		String responseCode = ResponseCode.FAILURE.toString();
 		String query = "INSERT INTO " + TABLE_NAME + " VALUES(?,?,?,?,?,?)";
-		try {
-			Connection con = DBUtil.getConnection();
-			PreparedStatement ps = con.prepareStatement(query);
+		try (Connection con = DBUtil.getConnection(); PreparedStatement ps = con.prepareStatement(query)) {
+			QueryTimeouts.apply(ps, QueryType.ADMIN);
 			ps.setString(1, customer.getMailId());
 			ps.setString(2, customer.getPWord());
 			ps.setString(3, customer.getFName());
 			ps.setString(4, customer.getLName());
 			ps.setString(5, customer.getAddr());
 			ps.setLong(6, customer.getPhNo());
-			ResultSet rs = ps.executeQuery();
-			if (rs.next()) {
+			int response = ps.executeUpdate();
+			if (response > 0) {
 				responseCode = ResponseCode.SUCCESS.toString();
 			}
-			ps.close();
-		} catch (SQLException | TrainException e) {
-			if (e.getMessage().toUpperCase().contains("ORA-00001")) {
+		} catch (SQLException e) {
+			if (QueryTimeouts.isTimeout(e)) {
+				responseCode = ResponseCode.QUERY_TIMEOUT.toString() + " : " + e.getMessage();
+			} else if (DBUtil.getDialect().isUniqueViolation(e)) {
 				responseCode += " : " + "User With Id: " + customer.getMailId() + " is already registered ";
 			} else {
 				responseCode += " : " + e.getMessage();
 			}
+		} catch (TrainException e) {
+			responseCode += " : " + e.getMessage();
 		}
 		return responseCode;
 	}
@@ -156,28 +144,21 @@ public class UserServiceImpl implements UserService {
 	@Override
 	public UserBean loginUser(String username, String password) throws TrainException {
 		UserBean customer = null;
-		String query = "SELECT * FROM " + TABLE_NAME + " WHERE MAILID=? AND PWORD=?";
-		try {
-			Connection con = DBUtil.getConnection();
-			PreparedStatement ps = con.prepareStatement(query);
+		String query = "SELECT " + UserRowMapper.LOGIN.getColumns() + " FROM " + TABLE_NAME
+				+ " WHERE MAILID=? AND PWORD=?";
+		try (Connection con = DBUtil.getConnection(); PreparedStatement ps = con.prepareStatement(query)) {
+			QueryTimeouts.apply(ps, QueryType.LOOKUP);
 			ps.setString(1, username);
 			ps.setString(2, password);
 			ResultSet rs = ps.executeQuery();
 			if (rs.next()) {
-				customer = new UserBean();
-				customer.setFName(rs.getString("fname"));
-				customer.setLName(rs.getString("lname"));
-				customer.setAddr(rs.getString("addr"));
-				customer.setMailId(rs.getString("mailid"));
-				customer.setPhNo(rs.getLong("phno"));
-				customer.setPWord(rs.getString("pword"));
+				customer = UserRowMapper.LOGIN.mapRow(rs);
 			} else {
 				throw new TrainException(ResponseCode.UNAUTHORIZED);
 			}
-			ps.close();
 		} catch (SQLException e) {
 			System.out.println(e.getMessage());
-			throw new TrainException(e.getMessage());
+			throw QueryTimeouts.toTrainException(e);
 		}
 		return customer;
 	}
@@ -2,7 +2,6 @@ package com.shashi.servlets;
 
 import java.io.IOException;
 import java.io.PrintWriter;
-import java.util.List;
 
 import javax.servlet.RequestDispatcher;
 import javax.servlet.ServletException;
@@ -11,17 +10,19 @@ import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-import com.shashi.beans.TrainBean;
 import com.shashi.beans.TrainException;
 import com.shashi.constant.UserRole;
 import com.shashi.service.TrainService;
 import com.shashi.service.impl.TrainServiceImpl;
+import com.shashi.utility.TrainColumns;
 import com.shashi.utility.TrainUtil;
 
 @SuppressWarnings("serial")
 @WebServlet("/adminviewtrainfwd")
 public class AdminViewTrainFwd extends HttpServlet {
 
+	private static final int PAGE_SIZE = 20;
+
 	private TrainService trainService = new TrainServiceImpl();
 
 	protected void doGet(HttpServletRequest req, HttpServletResponse res) throws IOException, ServletException {
@@ -29,27 +30,46 @@ public class AdminViewTrainFwd extends HttpServlet {
 		PrintWriter pw = res.getWriter();
 		TrainUtil.validateUserAuthorization(req, UserRole.ADMIN);
 		try {
-			List<TrainBean> trains = trainService.getAllTrains();
-			if (trains != null && !trains.isEmpty()) {
-				RequestDispatcher rd = req.getRequestDispatcher("ViewTrains.html");
-				rd.include(req, res);
+			String after = req.getParameter("after");
+			String before = req.getParameter("before");
+			// Paged by binary search over the train numbers of the column snapshot
+			TrainColumns columns = trainService.getTrainColumns();
+			int start;
+			int end;
+			if (before != null) {
+				end = columns.rowFrom(Long.parseLong(before));
+				start = Math.max(0, end - PAGE_SIZE);
+			} else {
+				start = after == null ? 0 : columns.rowAfter(Long.parseLong(after));
+				end = Math.min(columns.size(), start + PAGE_SIZE);
+			}
+			boolean hasPrevious = start > 0;
+			boolean hasNext = end < columns.size();
+			RequestDispatcher rd = req.getRequestDispatcher("ViewTrains.html");
+			rd.include(req, res);
+			if (start < end) {
 				pw.println("<div class='main'><p1 class='menu'>Running Trains</p1></div>");
 				pw.println("<div class='tab'><table><tr><th>Train Name</th><th>Train Number</th>"
-						+ "<th>From Station</th><th>To Station</th><th>Seats Available</th><th>Fare (INR)</th><th>Action</th></tr>");
+						+ "<th>From Station</th><th>To Station</th><th>Capacity</th><th>Fare (INR)</th><th>Action</th></tr>");
 
-				for (TrainBean train : trains) {
+				for (int row = start; row < end; row++) {
 
-					pw.println("" + "<tr> " + "" + "<td><a href='viewadmin?trainNo=" + train.getTr_no() + "&fromStn="
-							+ train.getFrom_stn() + "&toStn=" + train.getTo_stn() + "'>" + train.getTr_name()
-							+ "</a></td>" + "<td>" + train.getTr_no() + "</td>" + "<td>" + train.getFrom_stn() + "</td>"
-							+ "<td>" + train.getTo_stn() + "</td>" + "<td>" + train.getSeats() + "</td>" + "<td>"
-							+ train.getFare() + " RS</td>" + "<td><a href='adminupdatetrain?trainnumber="
-							+ train.getTr_no() + "'>Update</a></td>" + "</tr>");
+					pw.println("" + "<tr> " + "" + "<td><a href='viewadmin?trainNo=" + columns.getTrainNo(row)
+							+ "&fromStn=" + columns.getFromStation(row) + "&toStn=" + columns.getToStation(row) + "'>"
+							+ columns.getName(row) + "</a></td>" + "<td>" + columns.getTrainNo(row) + "</td>" + "<td>"
+							+ columns.getFromStation(row) + "</td>" + "<td>" + columns.getToStation(row) + "</td>"
+							+ "<td>" + columns.getSeats(row) + "</td>" + "<td>" + columns.getFare(row) + " RS</td>"
+							+ "<td><a href='adminupdatetrain?trainnumber=" + columns.getTrainNo(row)
+							+ "'>Update</a></td>" + "</tr>");
 				}
 				pw.println("</table></div>");
+				pw.println("<div class='tab'>"
+						+ (hasPrevious ? "<a href='adminviewtrainfwd?before=" + columns.getTrainNo(start)
+								+ "'>&laquo; Previous</a> " : "")
+						+ (hasNext ? "<a href='adminviewtrainfwd?after=" + columns.getTrainNo(end - 1)
+								+ "'>Next &raquo;</a>" : "")
+						+ "</div>");
 			} else {
-				RequestDispatcher rd = req.getRequestDispatcher("ViewTrains.html");
-				rd.include(req, res);
 				pw.println("<div class='main'><p1 class='menu red'> No Running Trains</p1></div>");
 			}
 		} catch (Exception e) {
@@ -11,6 +11,7 @@ import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import com.shashi.constant.SeatClass;
 import com.shashi.constant.UserRole;
 import com.shashi.utility.TrainUtil;
 
@@ -27,6 +28,11 @@ public class BookTrainByRef extends HttpServlet {
 		int seat = 1;
 		String fromStn = req.getParameter("fromStn");
 		String toStn = req.getParameter("toStn");
+		String journeyDate = req.getParameter("journeyDate");
+		StringBuilder classes = new StringBuilder();
+		for (SeatClass seatClass : SeatClass.values()) {
+			classes.append("<option value='" + seatClass.getLabel() + "'>" + seatClass.getLabel() + "</option>");
+		}
 		RequestDispatcher rd = req.getRequestDispatcher("UserViewTrains.html");
 		rd.include(req, res);
 		pw.println("<div class='main'><p1 class='menu'>Your Ticket Booking Information</p1></div>");
@@ -35,10 +41,11 @@ public class BookTrainByRef extends HttpServlet {
 				+ "<tr><td>USER ID:</td><td>" + emailId + "</td>" + "<td>Train NO:</td><td>" + trainNo + "</td></tr>"
 				+ "<tr><td>From Station:</td><td>" + fromStn + "</td>" + "<td>To Station :</td><td>" + toStn + "</tr>"
 				+ "<tr><td>Journey Date:</td><td>" + "<input type='hidden' name='trainnumber' value='" + trainNo + "'>"
-				+ "<input type='date' name='journeydate' value='" + LocalDate.now() + "'></td>"
+				+ "<input type='date' name='journeydate' value='" + (journeyDate == null ? LocalDate.now() : journeyDate)
+				+ "'></td>"
 				+ "<td>No of Seats:</td><td><input type='number' name='seats' value='" + seat + "'></td></tr>"
 				+ "<tr><td>Select Class</td><td>" + "<select name='class'  required>"
-				+ "<option value='Sleeper(SL)'>Sleeper(SL)</option><option value='Second Sitting(2S)'>Second Sitting(2S)</option><option value='AC First Class(1A)'>AC First Class(1A)</option><option value='AC 2 Tier(2A)'>AC 2 Tier(2A)</option>"
+				+ classes
 				+ "</select>" + "</td>" + "<td>Berth Preference</td><td>"
 				+ "<select name='berth'><option value='NO'>No Preference</option><option value='LB'>Lower Berth(LB)</option><option value='UB'>Lower Berth(UB)</option><option value='C'>Cabin</option></select>"
 				+ "</td></tr>" + "</table></div>"
@@ -4,6 +4,7 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.text.SimpleDateFormat;
 import java.time.LocalDate;
+import java.util.Collections;
 
 import javax.servlet.RequestDispatcher;
 import javax.servlet.ServletContext;
@@ -16,7 +17,7 @@ import javax.servlet.http.HttpServletResponse;
 import com.shashi.beans.HistoryBean;
 import com.shashi.beans.TrainBean;
 import com.shashi.beans.TrainException;
-import com.shashi.constant.ResponseCode;
+import com.shashi.constant.SeatClass;
 import com.shashi.constant.UserRole;
 import com.shashi.service.BookingService;
 import com.shashi.service.TrainService;
@@ -67,31 +68,18 @@ public class BookTrains extends HttpServlet {
 			utilDate = inputFormat.parse(journeyDate);
 			date = outputFormat.format(utilDate);
 
+			SeatClass bookedClass = SeatClass.of(seatClass);
 			TrainBean train = trainService.getTrainById(trainNo);
 
 			if (train != null) {
-				int avail = train.getSeats();
-				if (seat > avail) {
-					pw.println("<div class='tab'><p1 class='menu red'>Only " + avail
-							+ " Seats are Available in this Train!</p1></div>");
-
-				} else if (seat <= avail) {
-					avail = avail - seat;
-					train.setSeats(avail);
-					String responseCode = trainService.updateTrain(train);
-					if (ResponseCode.SUCCESS.toString().equalsIgnoreCase(responseCode)) {
-
-						HistoryBean bookingDetails = new HistoryBean();
-						Double totalAmount = train.getFare() * seat;
-						bookingDetails.setAmount(totalAmount);
-						bookingDetails.setFrom_stn(train.getFrom_stn());
-						bookingDetails.setTo_stn(train.getTo_stn());
-						bookingDetails.setTr_no(trainNo);
-						bookingDetails.setSeats(seat);
-						bookingDetails.setMailId(userMailId);
-						bookingDetails.setDate(date);
-
-						HistoryBean transaction = bookingService.createHistory(bookingDetails);
+				if (bookedClass == null) {
+					pw.println("<div class='tab'><p1 class='menu red'>Invalid Class " + seatClass + " !</p1></div>");
+
+				} else {
+					// Taken from the class's seats for the journey date, only while they are all still left
+					HistoryBean transaction = bookingService.reserveSeats(userMailId, train, journeyDate,
+							bookedClass, seat);
+					if (transaction != null) {
 						pw.println("<div class='tab'><p class='menu green'>" + seat
 								+ " Seats Booked Successfully!<br/><br/> Your Transaction Id is: "
 								+ transaction.getTransId() + "</p>" + "</div>");
@@ -101,15 +89,18 @@ public class BookTrains extends HttpServlet {
 								+ "</td><td>Train No: </td><td>" + transaction.getTr_no()
 								+ "</td></tr><tr><td>Booked From: </td><td>" + transaction.getFrom_stn()
 								+ "</td><td>To Station: </td><td>" + transaction.getTo_stn() + "</td></tr>"
-								+ "<tr><td>Date Of Journey:</td><td>" + transaction.getDate()
+								+ "<tr><td>Date Of Journey:</td><td>" + date
 								+ "</td><td>Time(HH:MM):</td><td>11:23</td></tr><tr><td>Passangers: </td><td>"
-								+ transaction.getSeats() + "</td><td>Class: </td><td>" + seatClass + "</td></tr>"
+								+ transaction.getSeats() + "</td><td>Class: </td><td>" + bookedClass.getLabel() + "</td></tr>"
 								+ "<tr><td>Booking Status: </td><td style='color:green;'>CNF/S10/35</td><td>Amount Paid:</td><td>&#8377; "
 								+ transaction.getAmount() + "</td></tr>" + "</table>" + "</p></div>");
 
 					} else {
-						pw.println(
-								"<div class='tab'><p1 class='menu red'>Transaction Declined. Try Again !</p1></div>");
+						int avail = bookingService
+								.getAvailableSeats(Collections.singletonMap(train.getTr_no(), train.getSeats()), journeyDate)
+								.get(train.getTr_no()).get(bookedClass);
+						pw.println("<div class='tab'><p1 class='menu red'>Only " + avail + " Seats are Available in "
+								+ bookedClass.getLabel() + " on " + date + "!</p1></div>");
 
 					}
 				}
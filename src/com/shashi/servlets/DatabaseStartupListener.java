@@ -0,0 +1,36 @@
+package com.shashi.servlets;
+
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+
+import com.shashi.service.impl.TrainServiceImpl;
+import com.shashi.utility.AsyncExecutors;
+import com.shashi.utility.ConnectionManager;
+import com.shashi.utility.SeatAllocator;
+import com.shashi.utility.TrainChangeLog;
+
+//Opens the database connection pools when the application is deployed and closes them on undeploy
+@WebListener
+public class DatabaseStartupListener implements ServletContextListener {
+
+	@Override
+	public void contextInitialized(ServletContextEvent sce) {
+		// Warms up in the background, /ready reports when the pools are usable
+		ConnectionManager.getInstance().start();
+		// Picks up train changes made through the other nodes, does nothing unless cluster.changeLog.enabled
+		TrainChangeLog.getInstance().start(TrainServiceImpl::refreshTrain);
+		// Writes in-memory bookings behind, does nothing unless booking.allocator.enabled
+		SeatAllocator.getInstance().start();
+	}
+
+	@Override
+	public void contextDestroyed(ServletContextEvent sce) {
+		// Before the pools close, the bookings still queued are written on the way out
+		SeatAllocator.getInstance().stop();
+		TrainChangeLog.getInstance().stop();
+		// The service pools would otherwise outlive a redeploy and keep this webapp's classes loaded
+		AsyncExecutors.shutdown();
+		ConnectionManager.getInstance().stop();
+	}
+}
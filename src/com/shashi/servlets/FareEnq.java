@@ -2,6 +2,7 @@ package com.shashi.servlets;
 
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.net.URLEncoder;
 import java.util.List;
 
 import javax.servlet.RequestDispatcher;
@@ -11,7 +12,7 @@ import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-import com.shashi.beans.TrainBean;
+import com.shashi.beans.FareBean;
 import com.shashi.beans.TrainException;
 import com.shashi.constant.UserRole;
 import com.shashi.service.TrainService;
@@ -32,24 +33,22 @@ public class FareEnq extends HttpServlet {
 		try {
 			String fromStation = req.getParameter("fromstation");
 			String toStation = req.getParameter("tostation");
-			List<TrainBean> trains = trainService.getTrainsBetweenStations(fromStation, toStation);
-			if (trains != null && !trains.isEmpty()) {
+			// Answered from the in-memory fare matrix, one row per station pair
+			List<FareBean> fares = trainService.getFaresBetweenStations(fromStation, toStation);
+			if (fares != null && !fares.isEmpty()) {
 				RequestDispatcher rd = req.getRequestDispatcher("UserHome.html");
 				rd.include(req, res);
 				pw.println("<div class='main'><p1 class='menu'>Fare for Trains BetWeen Station " + fromStation + " and "
 						+ toStation + " is as below</p1></div>");
-				pw.println("<div class='tab'><table><tr><th>Train Name</th><th>Train No</th>"
-						+ "<th>From Stn</th><th>To Stn</th><th>Time</th><th>Seats</th><th>Fare (INR)</th><th>Action</th></tr>");
-				for (TrainBean train : trains) {
-					int hr = (int) (Math.random() * 24);
-					int min = (int) (Math.random() * 60);
-					String time = (hr < 10 ? ("0" + hr) : hr) + ":" + ((min < 10) ? "0" + min : min);
-
-					pw.println("" + "<tr><td>" + train.getTr_name() + "</td>" + "<td>" + train.getTr_no() + "</td>"
-							+ "<td>" + train.getFrom_stn() + "</td>" + "<td>" + train.getTo_stn() + "</td>" + "<td>"
-							+ time + "</td>" + "<td>" + train.getSeats() + "</td>" + "<td>" + train.getFare()
-							+ " RS</td><td><a href='booktrainbyref?trainNo=" + train.getTr_no() + "&fromStn="
-							+ train.getFrom_stn() + "&toStn=" + train.getTo_stn()
+				pw.println("<div class='tab'><table><tr><th>From Stn</th><th>To Stn</th><th>Trains</th>"
+						+ "<th>Lowest Fare (INR)</th><th>Highest Fare (INR)</th><th>Average Fare (INR)</th>"
+						+ "<th>Cheapest Train</th><th>Action</th></tr>");
+				for (FareBean fare : fares) {
+					pw.println("" + "<tr><td>" + fare.getFrom_stn() + "</td>" + "<td>" + fare.getTo_stn() + "</td>"
+							+ "<td>" + fare.getTrains() + "</td>" + "<td>" + fare.getMinFare() + " RS</td>" + "<td>"
+							+ fare.getMaxFare() + " RS</td>" + "<td>" + fare.getAvgFare() + " RS</td>" + "<td>"
+							+ fare.getCheapestTrNo() + "</td><td><a href='booktrainbyref?trainNo="
+							+ fare.getCheapestTrNo() + "&fromStn=" + fare.getFrom_stn() + "&toStn=" + fare.getTo_stn()
 							+ "'><div class='red'>Book Now</div></a></td>" + "</tr>");
 				}
 				pw.println("</table></div>");
@@ -58,6 +57,10 @@ public class FareEnq extends HttpServlet {
 				rd.include(req, res);
 				pw.println("<div class='tab'><p1 class='menu'>There are no trains Between " + fromStation + " and "
 						+ toStation + "</p1></div>");
+				pw.println("<div class='tab'><a href='journeyplan?fromstation="
+						+ URLEncoder.encode(String.valueOf(fromStation), "UTF-8") + "&tostation="
+						+ URLEncoder.encode(String.valueOf(toStation), "UTF-8")
+						+ "'><div class='red'>Find Connecting Trains</div></a></div>");
 			}
 		} catch (Exception e) {
 			throw new TrainException(422, this.getClass().getName() + "_FAILED", e.getMessage());
@@ -0,0 +1,64 @@
+package com.shashi.servlets;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
+
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.shashi.beans.FareBean;
+import com.shashi.beans.TrainException;
+import com.shashi.constant.UserRole;
+import com.shashi.service.TrainService;
+import com.shashi.service.impl.TrainServiceImpl;
+import com.shashi.utility.JsonUtil;
+import com.shashi.utility.TrainUtil;
+
+//Fare summary between stations as JSON, the station parameters match like the fare enquiry form
+//e.g. GET fares?fromstation=GAYA&tostation=DELHI
+//Needs a customer login like the fare enquiry it mirrors
+@WebServlet("/fares")
+public class FareMatrixServlet extends HttpServlet {
+
+	private static final long serialVersionUID = 1L;
+
+	private TrainService trainService = new TrainServiceImpl();
+
+	protected void doGet(HttpServletRequest req, HttpServletResponse res) throws IOException, ServletException {
+		TrainUtil.validateUserAuthorization(req, UserRole.CUSTOMER);
+
+		List<FareBean> fares;
+		try {
+			fares = trainService.getFaresBetweenStations(req.getParameter("fromstation"),
+					req.getParameter("tostation"));
+		} catch (TrainException e) {
+			throw new TrainException(422, this.getClass().getName() + "_FAILED", e.getMessage());
+		}
+		res.setContentType("application/json");
+		res.setCharacterEncoding("UTF-8");
+		res.setHeader("Cache-Control", "private, max-age=60");
+		PrintWriter pw = res.getWriter();
+		StringBuilder json = new StringBuilder("[");
+		for (FareBean fare : fares) {
+			if (json.length() > 1) {
+				json.append(',');
+			}
+			json.append('{');
+			JsonUtil.appendName(json, "from_stn");
+			JsonUtil.appendString(json, fare.getFrom_stn()).append(',');
+			JsonUtil.appendName(json, "to_stn");
+			JsonUtil.appendString(json, fare.getTo_stn()).append(',');
+			JsonUtil.appendName(json, "trains").append(fare.getTrains()).append(',');
+			JsonUtil.appendName(json, "minFare").append(fare.getMinFare()).append(',');
+			JsonUtil.appendName(json, "maxFare").append(fare.getMaxFare()).append(',');
+			JsonUtil.appendName(json, "avgFare").append(fare.getAvgFare()).append(',');
+			JsonUtil.appendName(json, "cheapestTrNo").append(fare.getCheapestTrNo());
+			json.append('}');
+		}
+		pw.print(json.append(']'));
+	}
+}
@@ -0,0 +1,82 @@
+package com.shashi.servlets;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
+
+import javax.servlet.RequestDispatcher;
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.shashi.beans.JourneyBean;
+import com.shashi.beans.TrainBean;
+import com.shashi.beans.TrainException;
+import com.shashi.constant.JourneySort;
+import com.shashi.constant.UserRole;
+import com.shashi.service.TrainService;
+import com.shashi.service.impl.TrainServiceImpl;
+import com.shashi.utility.TrainUtil;
+
+//Connecting journeys between two stations, linked from the searches when there is no direct train
+@SuppressWarnings("serial")
+@WebServlet("/journeyplan")
+public class JourneyPlan extends HttpServlet {
+	TrainService trainService = new TrainServiceImpl();
+
+	protected void doGet(HttpServletRequest req, HttpServletResponse res) throws IOException, ServletException {
+		res.setContentType("text/html");
+		PrintWriter pw = res.getWriter();
+
+		TrainUtil.validateUserAuthorization(req, UserRole.CUSTOMER);
+
+		try {
+			String fromStation = req.getParameter("fromstation");
+			String toStation = req.getParameter("tostation");
+			int transfers = getTransfers(req.getParameter("transfers"));
+			JourneySort sort = "transfers".equalsIgnoreCase(req.getParameter("sort")) ? JourneySort.TRANSFERS
+					: JourneySort.FARE;
+			List<JourneyBean> journeys = trainService.planJourney(fromStation, toStation, transfers, sort);
+			if (journeys != null && !journeys.isEmpty()) {
+				RequestDispatcher rd = req.getRequestDispatcher("UserHome.html");
+				rd.include(req, res);
+				pw.println("<div class='main'><p1 class='menu'>Journeys from " + fromStation + " to " + toStation
+						+ "</p1></div>");
+				pw.println("<div class='tab'><table><tr><th>Option</th><th>Train Name</th><th>Train No</th>"
+						+ "<th>From Stn</th><th>To Stn</th><th>Seats</th><th>Fare (INR)</th><th>Action</th></tr>");
+				int option = 1;
+				for (JourneyBean journey : journeys) {
+					for (TrainBean train : journey.getLegs()) {
+						pw.println("<tr><td>" + option + "</td><td>" + train.getTr_name() + "</td>" + "<td>"
+								+ train.getTr_no() + "</td>" + "<td>" + train.getFrom_stn() + "</td>" + "<td>"
+								+ train.getTo_stn() + "</td>" + "<td>" + train.getSeats() + "</td>" + "<td>"
+								+ train.getFare() + " RS</td><td><a href='booktrainbyref?trainNo=" + train.getTr_no()
+								+ "&fromStn=" + train.getFrom_stn() + "&toStn=" + train.getTo_stn()
+								+ "'><div class='red'>Book Now</div></a></td>" + "</tr>");
+					}
+					pw.println("<tr><th colspan='6'>Option " + option + ": " + journey.getTransfers()
+							+ " change(s)</th><th>" + journey.getFare() + " RS</th><th></th></tr>");
+					option++;
+				}
+				pw.println("</table></div>");
+			} else {
+				RequestDispatcher rd = req.getRequestDispatcher("TrainBwStn.html");
+				rd.include(req, res);
+				pw.println("<div class='tab'><p1 class='menu'>There are no journeys from " + fromStation + " to "
+						+ toStation + " with up to " + transfers + " change(s)</p1></div>");
+			}
+		} catch (Exception e) {
+			throw new TrainException(422, this.getClass().getName() + "_FAILED", e.getMessage());
+		}
+	}
+
+	private static int getTransfers(String transfers) {
+		try {
+			return transfers == null ? 2 : Math.max(0, Integer.parseInt(transfers.trim()));
+		} catch (NumberFormatException e) {
+			return 2;
+		}
+	}
+}
@@ -0,0 +1,71 @@
+package com.shashi.servlets;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
+
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.shashi.beans.TrainBean;
+import com.shashi.constant.UserRole;
+import com.shashi.service.impl.TrainServiceImpl;
+import com.shashi.utility.ConnectionManager;
+import com.shashi.utility.ConnectionPool;
+import com.shashi.utility.SeatAllocator;
+import com.shashi.utility.SingleFlight;
+import com.shashi.utility.TrainNumberFilter;
+import com.shashi.utility.TrainUtil;
+import com.shashi.utility.TtlCache;
+
+//Counters of the in-process caches and filters, one "name value" pair per line for scrapers
+//Only for admins, the numbers describe the load and internals of this node
+@WebServlet("/metrics")
+public class MetricsServlet extends HttpServlet {
+
+	private static final long serialVersionUID = 1L;
+
+	protected void doGet(HttpServletRequest req, HttpServletResponse res) throws IOException, ServletException {
+		TrainUtil.validateUserAuthorization(req, UserRole.ADMIN);
+
+		res.setContentType("text/plain");
+		res.setHeader("Cache-Control", "no-store");
+		PrintWriter pw = res.getWriter();
+
+		TrainNumberFilter filter = TrainNumberFilter.getInstance();
+		pw.println("train_filter_rejected_total " + filter.getRejected());
+		pw.println("train_filter_passed_total " + filter.getPassed());
+		pw.println("train_filter_false_positives_total " + filter.getFalsePositives());
+		pw.println("train_filter_false_positive_rate " + filter.getObservedFalsePositiveRate());
+		pw.println("train_filter_estimated_false_positive_rate " + filter.getEstimatedFalsePositiveRate());
+
+		TtlCache<Long, TrainBean> trainCache = TrainServiceImpl.getTrainCache();
+		pw.println("train_cache_hits_total " + trainCache.getHits());
+		pw.println("train_cache_misses_total " + trainCache.getMisses());
+		pw.println("train_cache_evictions_total " + trainCache.getEvictions());
+		pw.println("train_cache_size " + trainCache.size());
+
+		SingleFlight<Long, TrainBean> trainFlights = TrainServiceImpl.getTrainFlights();
+		pw.println("train_lookup_queries_total " + trainFlights.getCalls());
+		pw.println("train_lookup_coalesced_total " + trainFlights.getShared());
+		SingleFlight<String, List<TrainBean>> searchFlights = TrainServiceImpl.getSearchFlights();
+		pw.println("train_search_runs_total " + searchFlights.getCalls());
+		pw.println("train_search_coalesced_total " + searchFlights.getShared());
+
+		ConnectionPool pool = ConnectionManager.getInstance().getPool();
+		pw.println("db_pool_active " + pool.getActiveCount());
+		pw.println("db_pool_idle " + pool.getIdleCount());
+		pw.println("db_pool_statement_cache_hits_total " + pool.getStatementCacheHits());
+		pw.println("db_pool_statement_cache_misses_total " + pool.getStatementCacheMisses());
+
+		SeatAllocator allocator = SeatAllocator.getInstance();
+		pw.println("seat_allocator_confirmed_total " + allocator.getConfirmed());
+		pw.println("seat_allocator_persisted_total " + allocator.getPersisted());
+		pw.println("seat_allocator_pending " + allocator.getPending());
+		pw.println("seat_allocator_flush_failures_total " + allocator.getFailedFlushes());
+		pw.println("seat_allocator_dead_letters_total " + allocator.getDeadLettered());
+	}
+}
@@ -0,0 +1,33 @@
+package com.shashi.servlets;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.shashi.constant.ResponseCode;
+import com.shashi.utility.ConnectionManager;
+
+//Readiness probe for load balancers: 200 once the connection pools are warm, 503 until then
+@WebServlet("/ready")
+public class ReadinessCheck extends HttpServlet {
+
+	private static final long serialVersionUID = 1L;
+
+	protected void doGet(HttpServletRequest req, HttpServletResponse res) throws IOException, ServletException {
+		res.setContentType("text/plain");
+		res.setHeader("Cache-Control", "no-store");
+		PrintWriter pw = res.getWriter();
+		if (ConnectionManager.getInstance().isReady()) {
+			res.setStatus(ResponseCode.SUCCESS.getCode());
+			pw.println("READY");
+		} else {
+			res.setStatus(ResponseCode.SERVICE_UNAVAILABLE.getCode());
+			pw.println("WARMING_UP");
+		}
+	}
+}
@@ -0,0 +1,65 @@
+package com.shashi.servlets;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
+
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.shashi.beans.TrainException;
+import com.shashi.constant.UserRole;
+import com.shashi.service.TrainService;
+import com.shashi.service.impl.TrainServiceImpl;
+import com.shashi.utility.JsonUtil;
+import com.shashi.utility.TrainUtil;
+
+//Station name autocomplete for the search forms, answers with a JSON array of names
+//e.g. GET stations?q=HO&limit=5 -> ["HOWRAH"]
+//Needs a customer login, the forms using it are only shown to logged in customers
+@WebServlet("/stations")
+public class StationSuggest extends HttpServlet {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final int DEFAULT_LIMIT = 10;
+	private static final int MAX_LIMIT = 50;
+
+	private TrainService trainService = new TrainServiceImpl();
+
+	protected void doGet(HttpServletRequest req, HttpServletResponse res) throws IOException, ServletException {
+		TrainUtil.validateUserAuthorization(req, UserRole.CUSTOMER);
+
+		List<String> stations;
+		try {
+			stations = trainService.suggestStations(req.getParameter("q"), getLimit(req.getParameter("limit")));
+		} catch (TrainException e) {
+			throw new TrainException(422, this.getClass().getName() + "_FAILED", e.getMessage());
+		}
+		res.setContentType("application/json");
+		res.setCharacterEncoding("UTF-8");
+		// Stations only change with the TRAIN table, browsers may reuse an answer briefly
+		res.setHeader("Cache-Control", "private, max-age=60");
+		PrintWriter pw = res.getWriter();
+		StringBuilder json = new StringBuilder("[");
+		for (String station : stations) {
+			if (json.length() > 1) {
+				json.append(',');
+			}
+			JsonUtil.appendString(json, station);
+		}
+		pw.print(json.append(']'));
+	}
+
+	private static int getLimit(String limit) {
+		try {
+			int requested = limit == null ? DEFAULT_LIMIT : Integer.parseInt(limit.trim());
+			return Math.max(1, Math.min(requested, MAX_LIMIT));
+		} catch (NumberFormatException e) {
+			return DEFAULT_LIMIT;
+		}
+	}
+}
@@ -2,6 +2,7 @@ package com.shashi.servlets;
 
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.net.URLEncoder;
 import java.util.List;
 
 import javax.servlet.RequestDispatcher;
@@ -22,6 +23,8 @@ import com.shashi.utility.TrainUtil;
 @WebServlet("/bookingdetails")
 public class TicketBookingHistory extends HttpServlet {
 
+	private static final int PAGE_SIZE = 20;
+
 	BookingService bookingService = new BookingServiceImpl();
 
 	protected void doGet(HttpServletRequest req, HttpServletResponse res) throws IOException, ServletException {
@@ -30,10 +33,32 @@ public class TicketBookingHistory extends HttpServlet {
 		TrainUtil.validateUserAuthorization(req, UserRole.CUSTOMER);
 		try {
 			String customerId = TrainUtil.getCurrentUserEmail(req);
-			List<HistoryBean> details = bookingService.getAllBookingsByCustomerId(customerId);
-			if (details != null && !details.isEmpty()) {
-				RequestDispatcher rd = req.getRequestDispatcher("UserViewTrains.html");
-				rd.include(req, res);
+			String beforeDate = req.getParameter("beforeDate");
+			String beforeId = req.getParameter("beforeId");
+			String afterDate = req.getParameter("afterDate");
+			String afterId = req.getParameter("afterId");
+			// One extra row tells whether there is a page beyond this one
+			List<HistoryBean> details;
+			boolean hasNext;
+			boolean hasPrevious;
+			if (beforeDate != null && beforeId != null) {
+				details = bookingService.getBookingsBefore(customerId, beforeDate, beforeId, PAGE_SIZE + 1);
+				hasPrevious = details.size() > PAGE_SIZE;
+				hasNext = true;
+				if (hasPrevious) {
+					details = details.subList(1, details.size());
+				}
+			} else {
+				details = bookingService.getBookingsAfter(customerId, afterDate, afterId, PAGE_SIZE + 1);
+				hasNext = details.size() > PAGE_SIZE;
+				hasPrevious = afterDate != null && afterId != null;
+				if (hasNext) {
+					details = details.subList(0, PAGE_SIZE);
+				}
+			}
+			RequestDispatcher rd = req.getRequestDispatcher("UserViewTrains.html");
+			rd.include(req, res);
+			if (!details.isEmpty()) {
 				pw.println("<div class='main'><p1 class='menu'>Booked Ticket History</p1></div>");
 				pw.println("<div class='tab'><table><tr><th>Transaction ID</th><th>Train Number</th>"
 						+ "<th>From Station</th><th>To Station</th><th>Journey Date</th><th>Seat</th><th>Amount Paid</th></tr>");
@@ -46,9 +71,15 @@ public class TicketBookingHistory extends HttpServlet {
 							+ trans.getAmount() + "</td>" + "</tr>");
 				}
 				pw.println("</table></div>");
+				HistoryBean first = details.get(0);
+				HistoryBean last = details.get(details.size() - 1);
+				pw.println("<div class='tab'>"
+						+ (hasPrevious ? "<a href='bookingdetails?beforeDate=" + encode(first.getDate()) + "&beforeId="
+								+ encode(first.getTransId()) + "'>&laquo; Previous</a> " : "")
+						+ (hasNext ? "<a href='bookingdetails?afterDate=" + encode(last.getDate()) + "&afterId="
+								+ encode(last.getTransId()) + "'>Next &raquo;</a>" : "")
+						+ "</div>");
 			} else {
-				RequestDispatcher rd = req.getRequestDispatcher("UserViewTrains.html");
-				rd.include(req, res);
 				pw.println("<div class='main'><p1 class='menu red'> No any ticket booked, book your first ticket now!!</p1></div>");
 			}
 		} catch (Exception e) {
@@ -57,4 +88,9 @@ public class TicketBookingHistory extends HttpServlet {
 
 	}
 
+	// A booking without journey date is keyed by an empty date
+	private static String encode(String value) throws IOException {
+		return value == null ? "" : URLEncoder.encode(value, "UTF-8");
+	}
+
 }
@@ -2,8 +2,15 @@ package com.shashi.servlets;
 
 import java.io.IOException;
 import java.io.PrintWriter;
-import java.util.List;
+import java.net.URLEncoder;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
+import javax.servlet.AsyncContext;
 import javax.servlet.RequestDispatcher;
 import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
@@ -11,55 +18,134 @@ import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-import com.shashi.beans.TrainBean;
 import com.shashi.beans.TrainException;
+import com.shashi.constant.SeatClass;
 import com.shashi.constant.UserRole;
-import com.shashi.service.TrainService;
-import com.shashi.service.impl.TrainServiceImpl;
+import com.shashi.service.AsyncBookingService;
+import com.shashi.service.AsyncTrainService;
+import com.shashi.service.impl.AsyncBookingServiceImpl;
+import com.shashi.service.impl.AsyncTrainServiceImpl;
+import com.shashi.utility.TrainColumns;
 import com.shashi.utility.TrainUtil;
 
 @SuppressWarnings("serial")
-@WebServlet("/trainbwstn")
+@WebServlet(urlPatterns = "/trainbwstn", asyncSupported = true)
 public class TrainBwStn extends HttpServlet {
-	private TrainService trainService = new TrainServiceImpl();
+	private AsyncTrainService trainService = new AsyncTrainServiceImpl();
+	private AsyncBookingService bookingService = new AsyncBookingServiceImpl();
 
 	protected void doPost(HttpServletRequest req, HttpServletResponse res) throws IOException, ServletException {
 		res.setContentType("text/html");
-		PrintWriter pw = res.getWriter();
 		TrainUtil.validateUserAuthorization(req, UserRole.CUSTOMER);
-		try {
-			String fromStation = req.getParameter("fromstation");
-			String toStation = req.getParameter("tostation");
-			List<TrainBean> trains = trainService.getTrainsBetweenStations(fromStation, toStation);
-			if (trains != null && !trains.isEmpty()) {
-				RequestDispatcher rd = req.getRequestDispatcher("UserHome.html");
-				rd.include(req, res);
-				pw.println("<div class='main'><p1 class='menu'>Trains BetWeen Station "
-						+ req.getParameter("fromstation") + " and " + req.getParameter("tostation") + "</p1></div>");
-				pw.println("<div class='tab'><table><tr><th>Train Name</th><th>Train No</th>"
-						+ "<th>From Stn</th><th>To Stn</th><th>Time</th><th>Seats</th><th>Fare (INR)</th><th>Action</th></tr>");
-				for (TrainBean train : trains) {
-					int hr = (int) (Math.random() * 24);
-					int min = (int) (Math.random() * 60);
-					String time = (hr < 10 ? ("0" + hr) : hr) + ":" + ((min < 10) ? "0" + min : min);
 
-					pw.println("" + "<tr><td>" + train.getTr_name() + "</td>" + "<td>" + train.getTr_no() + "</td>"
-							+ "<td>" + train.getFrom_stn() + "</td>" + "<td>" + train.getTo_stn() + "</td>" + "<td>"
-							+ time + "</td>" + "<td>" + train.getSeats() + "</td>" + "<td>" + train.getFare()
-							+ " RS</td><td><a href='booktrainbyref?trainNo=" + train.getTr_no() + "&fromStn="
-							+ train.getFrom_stn() + "&toStn=" + train.getTo_stn()
-							+ "'><div class='red'>Book Now</div></a></td>" + "</tr>");
+		String fromStation = req.getParameter("fromstation");
+		String toStation = req.getParameter("tostation");
+		String dateParam = req.getParameter("journeydate");
+		String journeyDate = dateParam == null || dateParam.trim().isEmpty() ? LocalDate.now().toString() : dateParam;
+
+		// The request thread goes back to the container while the search runs on the catalog executor
+		AsyncContext asyncContext = req.startAsync();
+		trainService.getTrainColumns().thenCompose(columns -> {
+			// Filtered over the column snapshot, the matching rows are read straight from its arrays
+			int[] rows = columns.findBetween(fromStation, toStation);
+			if (rows.length > 0) {
+				return CompletableFuture.completedFuture(new Matches(columns, rows));
+			}
+			// Nothing under the names as typed, try again with the stations a few typos away
+			return trainService.matchStations(fromStation).thenCombine(trainService.matchStations(toStation),
+					(from, to) -> new Matches(columns, columns.findBetween(from, to)));
+		}).thenCompose(matches -> {
+			if (matches.rows.length == 0) {
+				return CompletableFuture.completedFuture(matches);
+			}
+			// Seats left per class on the journey date, one inventory read for all the matching trains
+			Map<Long, Integer> trainSeats = new LinkedHashMap<Long, Integer>();
+			for (int row : matches.rows) {
+				trainSeats.put(matches.columns.getTrainNo(row), matches.columns.getSeats(row));
+			}
+			return bookingService.getAvailableSeats(trainSeats, journeyDate).thenApply(available -> {
+				matches.available = available;
+				return matches;
+			});
+		}).whenComplete((matches, error) -> {
+			try {
+				if (error != null) {
+					Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+					throw new TrainException(422, this.getClass().getName() + "_FAILED", cause.getMessage());
 				}
-				pw.println("</table></div>");
-			} else {
-				RequestDispatcher rd = req.getRequestDispatcher("TrainBwStn.html");
-				rd.include(req, res);
-				pw.println("<div class='tab'><p1 class='menu'>There are no trains Between "
-						+ req.getParameter("fromstation") + " and " + req.getParameter("tostation") + "</p1></div>");
+				render(req, res, fromStation, toStation, journeyDate, matches);
+				asyncContext.complete();
+			} catch (Exception e) {
+				// Hand the failure to the error page like a synchronous servlet exception
+				req.setAttribute("javax.servlet.error.exception", e);
+				req.setAttribute("javax.servlet.error.status_code", 422);
+				req.setAttribute("javax.servlet.error.servlet_name", getServletName());
+				req.setAttribute("javax.servlet.error.request_uri", req.getRequestURI());
+				asyncContext.dispatch("/error");
 			}
-		} catch (Exception e) {
-			throw new TrainException(422, this.getClass().getName() + "_FAILED", e.getMessage());
+		});
+	}
+
+	private void render(HttpServletRequest req, HttpServletResponse res, String fromStation, String toStation,
+			String journeyDate, Matches matches) throws IOException, ServletException {
+		PrintWriter pw = res.getWriter();
+		TrainColumns columns = matches.columns;
+		int[] rows = matches.rows;
+		if (rows.length > 0) {
+			RequestDispatcher rd = req.getRequestDispatcher("UserHome.html");
+			rd.include(req, res);
+			pw.println("<div class='main'><p1 class='menu'>Trains BetWeen Station " + fromStation + " and "
+					+ toStation + " on " + journeyDate + "</p1></div>");
+			pw.println("<div class='tab'><table><tr><th>Train Name</th><th>Train No</th>"
+					+ "<th>From Stn</th><th>To Stn</th><th>Time</th><th>Seats</th><th>Fare (INR)</th><th>Action</th></tr>");
+			for (int row : rows) {
+				int hr = (int) (Math.random() * 24);
+				int min = (int) (Math.random() * 60);
+				String time = (hr < 10 ? ("0" + hr) : hr) + ":" + ((min < 10) ? "0" + min : min);
+
+				pw.println("" + "<tr><td>" + columns.getName(row) + "</td>" + "<td>" + columns.getTrainNo(row)
+						+ "</td>" + "<td>" + columns.getFromStation(row) + "</td>" + "<td>" + columns.getToStation(row)
+						+ "</td>" + "<td>" + time + "</td>" + "<td>" + seats(matches.available, columns.getTrainNo(row))
+						+ "</td>" + "<td>"
+						+ columns.getFare(row) + " RS</td><td><a href='booktrainbyref?trainNo=" + columns.getTrainNo(row)
+						+ "&fromStn=" + columns.getFromStation(row) + "&toStn=" + columns.getToStation(row)
+						+ "&journeyDate=" + URLEncoder.encode(journeyDate, "UTF-8")
+						+ "'><div class='red'>Book Now</div></a></td>" + "</tr>");
+			}
+			pw.println("</table></div>");
+		} else {
+			RequestDispatcher rd = req.getRequestDispatcher("TrainBwStn.html");
+			rd.include(req, res);
+			pw.println("<div class='tab'><p1 class='menu'>There are no trains Between " + fromStation + " and "
+					+ toStation + "</p1></div>");
+			pw.println("<div class='tab'><a href='journeyplan?fromstation="
+					+ URLEncoder.encode(String.valueOf(fromStation), "UTF-8") + "&tostation="
+					+ URLEncoder.encode(String.valueOf(toStation), "UTF-8")
+					+ "'><div class='red'>Find Connecting Trains</div></a></div>");
+		}
+	}
+
+	// Seats left per class as code and count, SL 76 | 2S 38 | 2A 22 | 1A 15
+	private static String seats(Map<Long, Map<SeatClass, Integer>> available, long trainNo) {
+		Map<SeatClass, Integer> classes = available.getOrDefault(trainNo, Collections.<SeatClass, Integer>emptyMap());
+		StringBuilder seats = new StringBuilder();
+		for (Map.Entry<SeatClass, Integer> seatClass : classes.entrySet()) {
+			seats.append(seats.length() == 0 ? "" : " | ").append(seatClass.getKey().getCode()).append(' ')
+					.append(seatClass.getValue());
 		}
+		return seats.toString();
+	}
+
+	private static class Matches {
 
+		private final TrainColumns columns;
+		private final int[] rows;
+		// Filled in once the matching trains are known
+		private Map<Long, Map<SeatClass, Integer>> available = Collections.emptyMap();
+
+		private Matches(TrainColumns columns, int[] rows) {
+			this.columns = columns;
+			this.rows = rows;
+		}
 	}
 }
@@ -2,6 +2,9 @@ package com.shashi.servlets;
 
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Map;
 
 import javax.servlet.RequestDispatcher;
 import javax.servlet.ServletException;
@@ -12,8 +15,11 @@ import javax.servlet.http.HttpServletResponse;
 
 import com.shashi.beans.TrainBean;
 import com.shashi.beans.TrainException;
+import com.shashi.constant.SeatClass;
 import com.shashi.constant.UserRole;
+import com.shashi.service.BookingService;
 import com.shashi.service.TrainService;
+import com.shashi.service.impl.BookingServiceImpl;
 import com.shashi.service.impl.TrainServiceImpl;
 import com.shashi.utility.TrainUtil;
 
@@ -21,6 +27,7 @@ import com.shashi.utility.TrainUtil;
 @WebServlet("/useravail")
 public class UserAvailServlet extends HttpServlet {
 	private TrainService trainService = new TrainServiceImpl();
+	private BookingService bookingService = new BookingServiceImpl();
 
 	protected void doPost(HttpServletRequest req, HttpServletResponse res) throws IOException, ServletException {
 		res.setContentType("text/html");
@@ -31,21 +38,35 @@ public class UserAvailServlet extends HttpServlet {
 		try {
 
 			String trainNo = req.getParameter("trainno");
+			String journeyDate = req.getParameter("journeydate");
+			if (journeyDate == null || journeyDate.trim().isEmpty()) {
+				journeyDate = LocalDate.now().toString();
+			}
 			TrainBean train = trainService.getTrainById(trainNo);
 			if (train != null) {
+				// Read from the inventory of the date alone, bookings on other dates are not waited for
+				Map<SeatClass, Integer> available = bookingService
+						.getAvailableSeats(Collections.singletonMap(train.getTr_no(), train.getSeats()), journeyDate)
+						.get(train.getTr_no());
+				int total = 0;
+				StringBuilder classes = new StringBuilder();
+				for (Map.Entry<SeatClass, Integer> seats : available.entrySet()) {
+					total += seats.getValue();
+					classes.append("<tr><td class='blue'>" + seats.getKey().getLabel() + " :</td><td>"
+							+ seats.getValue() + "</td></tr>");
+				}
 				RequestDispatcher rd = req.getRequestDispatcher("UserHome.html");
 				rd.include(req, res);
 				pw.println(
 						"<div class='tab'>" + "		<p1 class='menu'>" + "	Hello " + TrainUtil.getCurrentUserName(req)
 								+ " ! Welcome to our new NITRTC Website" + "		</p1>" + "	</div>");
-				pw.println("<div class='main'><p1 class='menu'>Available Seats are <p2 class=\"red\"> "
-						+ train.getSeats() + " Seats</p2></p1></div>");
+				pw.println("<div class='main'><p1 class='menu'>Available Seats on " + journeyDate
+						+ " are <p2 class=\"red\"> " + total + " Seats</p2></p1></div>");
 				pw.println("<div class='tab'>" + "<table>" + "<tr><td class='blue'>Train Name :</td><td>"
 						+ train.getTr_name() + "</td></tr>" + "<tr><td class='blue'>Train Number :</td><td>"
 						+ train.getTr_no() + "</td></tr>" + "<tr><td class='blue'>From Station :</td><td>"
 						+ train.getFrom_stn() + "</td></tr>" + "<tr><td class='blue'>To Station :</td><td>"
-						+ train.getTo_stn() + "</td></tr>" + "<tr><td class='blue'>Available Seats:</td><td>"
-						+ train.getSeats() + "</td></tr>" + "<tr><td class='blue'>Fare (INR) :</td><td>"
+						+ train.getTo_stn() + "</td></tr>" + classes + "<tr><td class='blue'>Fare (INR) :</td><td>"
 						+ train.getFare() + " RS</td></tr>" + "</table>" + "</div>");
 			} else {
 				RequestDispatcher rd = req.getRequestDispatcher("Availability.html");
@@ -2,7 +2,7 @@ package com.shashi.servlets;
 
 import java.io.IOException;
 import java.io.PrintWriter;
-import java.util.List;
+import java.util.function.Consumer;
 
 import javax.servlet.RequestDispatcher;
 import javax.servlet.ServletException;
@@ -29,15 +29,20 @@ public class UserViewTrainFwd extends HttpServlet {
 		PrintWriter pw = res.getWriter();
 		TrainUtil.validateUserAuthorization(req, UserRole.CUSTOMER);
 		try {
-			List<TrainBean> trains = trainService.getAllTrains();
-			if (trains != null && !trains.isEmpty()) {
-				RequestDispatcher rd = req.getRequestDispatcher("UserViewTrains.html");
-				rd.include(req, res);
-				pw.println("<div class='main'><p1 class='menu'>Running Trains</p1></div>");
-				pw.println("<div class='tab'><table><tr><th>Train Name</th><th>Train Number</th>"
-						+ "<th>From Station</th><th>To Station</th><th>Time</th><th>Seats Available</th><th>Fare (INR)</th><th>Booking</th></tr>");
+			RequestDispatcher rd = req.getRequestDispatcher("UserViewTrains.html");
+			rd.include(req, res);
+			// Rows are written while the cursor is still open, the table header goes out with the first one
+			int count = trainService.forEachTrain(new Consumer<TrainBean>() {
+				private boolean headerWritten;
 
-				for (TrainBean train : trains) {
+				@Override
+				public void accept(TrainBean train) {
+					if (!headerWritten) {
+						pw.println("<div class='main'><p1 class='menu'>Running Trains</p1></div>");
+						pw.println("<div class='tab'><table><tr><th>Train Name</th><th>Train Number</th>"
+								+ "<th>From Station</th><th>To Station</th><th>Time</th><th>Capacity</th><th>Fare (INR)</th><th>Booking</th></tr>");
+						headerWritten = true;
+					}
 					int hr = (int) (Math.random() * 24);
 					int min = (int) (Math.random() * 60);
 					String time = (hr < 10 ? ("0" + hr) : hr) + ":" + ((min < 10) ? "0" + min : min);
@@ -49,10 +54,10 @@ public class UserViewTrainFwd extends HttpServlet {
 							+ train.getTr_no() + "&fromStn=" + train.getFrom_stn() + "&toStn=" + train.getTo_stn()
 							+ "'><div class='red'>Book Now</div></a></td></tr>");
 				}
+			});
+			if (count > 0) {
 				pw.println("</table></div>");
 			} else {
-				RequestDispatcher rd = req.getRequestDispatcher("UserViewTrains.html");
-				rd.include(req, res);
 				pw.println("<div class='main'><p1 class='menu red'> No Running Trains</p1></div>");
 			}
 		} catch (Exception e) {
@@ -0,0 +1,33 @@
+package com.shashi.utility;
+
+import java.util.MissingResourceException;
+import java.util.ResourceBundle;
+
+//Optional settings from application.properties, falling back to a default when a key is missing or empty
+//A JVM system property with the same name wins, e.g. java -DconnectionString=... to run several nodes from one build
+public class AppConfig {
+
+	private static final ResourceBundle rb = ResourceBundle.getBundle("application");
+
+	public static String getString(String key, String defaultValue) {
+		String override = System.getProperty(key);
+		if (override != null) {
+			return override.trim();
+		}
+		try {
+			return rb.getString(key).trim();
+		} catch (MissingResourceException e) {
+			return defaultValue;
+		}
+	}
+
+	public static int getInt(String key, int defaultValue) {
+		String value = getString(key, null);
+		return value == null || value.isEmpty() ? defaultValue : Integer.parseInt(value);
+	}
+
+	public static long getLong(String key, long defaultValue) {
+		String value = getString(key, null);
+		return value == null || value.isEmpty() ? defaultValue : Long.parseLong(value);
+	}
+}
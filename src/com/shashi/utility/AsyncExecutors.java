@@ -0,0 +1,73 @@
+package com.shashi.utility;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.shashi.beans.TrainException;
+import com.shashi.constant.ResponseCode;
+import com.shashi.constant.Workload;
+
+//Bounded executors for the asynchronous services, one per workload so a burst of
+//slow bookings cannot starve catalog lookups and the other way round
+public class AsyncExecutors {
+
+	// Blocking service call that may fail with a TrainException
+	@FunctionalInterface
+	public interface ServiceCall<T> {
+		T call() throws TrainException;
+	}
+
+	private static final Map<Workload, ThreadPoolExecutor> executors = new EnumMap<Workload, ThreadPoolExecutor>(
+			Workload.class);
+
+	static {
+		for (Workload workload : Workload.values()) {
+			String prefix = "async." + workload.name().toLowerCase();
+			executors.put(workload, newExecutor(workload, AppConfig.getInt(prefix + ".threads", 4),
+					AppConfig.getInt(prefix + ".queueSize", 100)));
+		}
+	}
+
+	// Runs the call on the workload's executor, a full queue fails the future with SERVICE_UNAVAILABLE
+	public static <T> CompletableFuture<T> supply(Workload workload, ServiceCall<T> call) {
+		CompletableFuture<T> future = new CompletableFuture<T>();
+		try {
+			executors.get(workload).execute(() -> {
+				try {
+					future.complete(call.call());
+				} catch (Throwable e) {
+					future.completeExceptionally(e);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			future.completeExceptionally(new TrainException(ResponseCode.SERVICE_UNAVAILABLE));
+		}
+		return future;
+	}
+
+	public static ThreadPoolExecutor getExecutor(Workload workload) {
+		return executors.get(workload);
+	}
+
+	public static void shutdown() {
+		for (ThreadPoolExecutor executor : executors.values()) {
+			executor.shutdown();
+		}
+	}
+
+	private static ThreadPoolExecutor newExecutor(Workload workload, int threads, int queueSize) {
+		AtomicInteger count = new AtomicInteger();
+		return new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<Runnable>(queueSize), r -> {
+					Thread t = new Thread(r, "async-" + workload.name().toLowerCase() + "-" + count.incrementAndGet());
+					t.setDaemon(true);
+					return t;
+				}, new ThreadPoolExecutor.AbortPolicy());
+	}
+}
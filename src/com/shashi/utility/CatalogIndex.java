@@ -0,0 +1,63 @@
+package com.shashi.utility;
+
+import java.util.Collection;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.shashi.beans.TrainBean;
+
+//Base of the lookup structures derived from the train catalog. Subclasses say how to empty themselves
+//and how to add or remove one train, the catalog changes are applied under the write lock and readers
+//take the read lock. Only the instance handed to attach is told about changes, tests build their own.
+public abstract class CatalogIndex implements CatalogListener {
+
+	protected final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	// Registers the shared instance with the catalog
+	protected static <T extends CatalogIndex> T attach(T index) {
+		TrainCatalog.getInstance().addListener(index);
+		return index;
+	}
+
+	protected abstract void clear();
+
+	protected abstract void add(TrainBean train);
+
+	protected abstract void remove(TrainBean train);
+
+	@Override
+	public final void catalogLoaded(Collection<TrainBean> trains) {
+		lock.writeLock().lock();
+		try {
+			clear();
+			for (TrainBean train : trains) {
+				add(train);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public final void trainSaved(TrainBean previous, TrainBean train) {
+		lock.writeLock().lock();
+		try {
+			if (previous != null) {
+				remove(previous);
+			}
+			add(train);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public final void trainRemoved(TrainBean previous) {
+		lock.writeLock().lock();
+		try {
+			remove(previous);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+}
@@ -0,0 +1,18 @@
+package com.shashi.utility;
+
+import java.util.Collection;
+
+import com.shashi.beans.TrainBean;
+
+//Receives changes to the in-memory train catalog so derived structures can update incrementally
+//The beans passed in belong to the catalog and must not be modified
+public interface CatalogListener {
+
+	// The whole catalog was (re)loaded from the database
+	public void catalogLoaded(Collection<TrainBean> trains);
+
+	// A train was added or changed, previous is null for a new train
+	public void trainSaved(TrainBean previous, TrainBean train);
+
+	public void trainRemoved(TrainBean previous);
+}
@@ -0,0 +1,83 @@
+package com.shashi.utility;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import com.shashi.beans.TrainBean;
+
+//One immutable version of the train catalog. Writers publish a new snapshot instead of changing this
+//one, so a reader sees the same trains for as long as it holds on to it.
+public final class CatalogSnapshot {
+
+	static final CatalogSnapshot EMPTY = new CatalogSnapshot(0, false,
+			Collections.unmodifiableNavigableMap(new TreeMap<Long, TrainBean>()));
+
+	private final long version;
+	private final boolean loaded;
+	private final NavigableMap<Long, TrainBean> trains;
+
+	private CatalogSnapshot(long version, boolean loaded, NavigableMap<Long, TrainBean> trains) {
+		this.version = version;
+		this.loaded = loaded;
+		this.trains = trains;
+	}
+
+	// Goes up with every write, equal versions hold the same trains
+	public long getVersion() {
+		return version;
+	}
+
+	public boolean isLoaded() {
+		return loaded;
+	}
+
+	public int size() {
+		return trains.size();
+	}
+
+	public boolean contains(Long trainNo) {
+		return trains.containsKey(trainNo);
+	}
+
+	// Copy of the train, null when unknown
+	public TrainBean getTrain(Long trainNo) {
+		TrainBean train = trains.get(trainNo);
+		return train == null ? null : TrainCatalog.copyOf(train);
+	}
+
+	// Copies of the trains in the order given, unknown numbers are skipped
+	public List<TrainBean> getTrains(Collection<Long> trainNos) {
+		List<TrainBean> result = new ArrayList<TrainBean>(trainNos.size());
+		for (Long trainNo : trainNos) {
+			TrainBean train = trains.get(trainNo);
+			if (train != null) {
+				result.add(TrainCatalog.copyOf(train));
+			}
+		}
+		return result;
+	}
+
+	// Every train by train number, these beans are shared by all readers and must not be modified
+	public Collection<TrainBean> trains() {
+		return trains.values();
+	}
+
+	// The next version with the given trains, the map must not be touched once handed over
+	CatalogSnapshot next(boolean loaded, NavigableMap<Long, TrainBean> trains) {
+		return new CatalogSnapshot(version + 1, loaded, Collections.unmodifiableNavigableMap(trains));
+	}
+
+	// The next version with the same trains, marks a write the catalog did not keep
+	CatalogSnapshot touch() {
+		return new CatalogSnapshot(version + 1, loaded, trains);
+	}
+
+	// A private copy of the trains for the writer building the next version
+	NavigableMap<Long, TrainBean> copyTrains() {
+		return new TreeMap<Long, TrainBean>(trains);
+	}
+}
@@ -0,0 +1,48 @@
+package com.shashi.utility;
+
+//Keeps a TrainColumns copy of the latest catalog snapshot for the search pages. It is built for one
+//snapshot version, a newer version is noticed on the next read and the columns are built again.
+public class ColumnarCatalog {
+
+	private static final ColumnarCatalog INSTANCE = new ColumnarCatalog(TrainCatalog.getInstance());
+
+	private final TrainCatalog catalog;
+	private volatile Built built;
+
+	// Instances other than the shared one can follow their own catalog
+	ColumnarCatalog(TrainCatalog catalog) {
+		this.catalog = catalog;
+	}
+
+	public static ColumnarCatalog getInstance() {
+		return INSTANCE;
+	}
+
+	public TrainColumns getColumns() {
+		CatalogSnapshot snapshot = catalog.getSnapshot();
+		Built current = built;
+		if (current != null && current.version >= snapshot.getVersion()) {
+			return current.columns;
+		}
+		synchronized (this) {
+			// Edits come in bursts, one rebuild serves all the readers that queued behind it
+			current = built;
+			if (current == null || current.version < snapshot.getVersion()) {
+				snapshot = catalog.getSnapshot();
+				current = new Built(snapshot.getVersion(), TrainColumns.of(snapshot.trains()));
+				built = current;
+			}
+			return current.columns;
+		}
+	}
+
+	private static final class Built {
+		private final long version;
+		private final TrainColumns columns;
+
+		private Built(long version, TrainColumns columns) {
+			this.version = version;
+			this.columns = columns;
+		}
+	}
+}
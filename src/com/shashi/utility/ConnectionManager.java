@@ -0,0 +1,201 @@
+package com.shashi.utility;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+//Owns the connection pools for the application: opens them at startup, keeps them at their
+//minimum size and reports whether the database is ready to serve requests
+public class ConnectionManager {
+
+	private static final ConnectionManager INSTANCE = new ConnectionManager();
+
+	private volatile ConnectionPool pool;
+	private volatile ConnectionPool replicaPool;
+	private volatile ReplicaRouter router;
+	private volatile boolean warm;
+	private volatile String initScript;
+	private ScheduledExecutorService keeper;
+
+	public static ConnectionManager getInstance() {
+		return INSTANCE;
+	}
+
+	// Builds the pools and starts warming them in the background, later calls do nothing
+	public synchronized void start() {
+		if (router != null) {
+			return;
+		}
+		try {
+			Class.forName(AppConfig.getString("driverName", null));
+		} catch (ClassNotFoundException e) {
+			e.printStackTrace();
+		}
+
+		String connectionString = AppConfig.getString("connectionString", null);
+		String username = AppConfig.getString("username", null);
+		String password = AppConfig.getString("password", "");
+		System.out.println(connectionString);
+		System.out.println(username);
+		pool = createPool(connectionString, username, password);
+
+		// Reads stay on the primary unless a replica is configured
+		String replicaConnectionString = AppConfig.getString("replica.connectionString", null);
+		if (replicaConnectionString != null && !replicaConnectionString.isEmpty()) {
+			try {
+				Class.forName(AppConfig.getString("replica.driverName", AppConfig.getString("driverName", null)));
+			} catch (ClassNotFoundException e) {
+				e.printStackTrace();
+			}
+			System.out.println(replicaConnectionString);
+			replicaPool = createPool(replicaConnectionString,
+					AppConfig.getString("replica.username", username),
+					AppConfig.getString("replica.password", password));
+		}
+		router = new ReplicaRouter(pool, replicaPool, AppConfig.getString("replica.lagQuery", null),
+				AppConfig.getInt("replica.maxLagSeconds", 30), AppConfig.getInt("replica.healthCheckIntervalMs", 10000));
+
+		initScript = AppConfig.getString("db.initScript", null);
+
+		keeper = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "db-connection-keeper");
+			t.setDaemon(true);
+			return t;
+		});
+		long keepAliveMs = AppConfig.getInt("pool.keepAliveIntervalMs", 1000);
+		keeper.execute(this::warmUp);
+		keeper.scheduleWithFixedDelay(this::keepWarm, keepAliveMs, keepAliveMs, TimeUnit.MILLISECONDS);
+	}
+
+	// Ready once the primary pool has been warmed and is not refusing connects after an outage
+	public boolean isReady() {
+		ConnectionPool primary = pool;
+		return warm && primary != null && !primary.isBackingOff();
+	}
+
+	public ReplicaRouter getRouter() {
+		ReplicaRouter current = router;
+		if (current == null) {
+			// Used outside the web container, connect on first use
+			start();
+			current = router;
+		}
+		return current;
+	}
+
+	public ConnectionPool getPool() {
+		getRouter();
+		return pool;
+	}
+
+	public ConnectionPool getReplicaPool() {
+		getRouter();
+		return replicaPool;
+	}
+
+	public synchronized void stop() {
+		if (router == null) {
+			return;
+		}
+		keeper.shutdownNow();
+		router.close();
+		pool.close();
+		if (replicaPool != null) {
+			replicaPool.close();
+		}
+		warm = false;
+		router = null;
+		pool = null;
+		replicaPool = null;
+	}
+
+	private void warmUp() {
+		ConnectionPool primary = pool;
+		ConnectionPool replica = replicaPool;
+		ReplicaRouter current = router;
+		if (current == null) {
+			return;
+		}
+		try {
+			if (initScript != null && !initScript.isEmpty()) {
+				runScript(primary, initScript);
+				initScript = null;
+			}
+			primary.fill();
+			if (!warm) {
+				System.out.println("Connection Success!!");
+			}
+			warm = true;
+		} catch (SQLException e) {
+			System.out.println("Database not reachable yet, retrying: " + e.getMessage());
+		}
+		if (replica != null) {
+			try {
+				replica.fill();
+			} catch (SQLException e) {
+				System.out.println("Replica not reachable yet: " + e.getMessage());
+			}
+			current.checkReplica();
+		}
+	}
+
+	// Re-opens connections lost to an outage, the pool's backoff spaces out the attempts
+	private void keepWarm() {
+		ConnectionPool primary = pool;
+		ConnectionPool replica = replicaPool;
+		if (primary == null) {
+			return;
+		}
+		boolean primaryDone = primary.isWarm() || primary.isBackingOff();
+		boolean replicaDone = replica == null || replica.isWarm() || replica.isBackingOff();
+		if (!primaryDone || !replicaDone) {
+			warmUp();
+		}
+	}
+
+	// Executes a classpath SQL script, statements end with a semicolon at the end of a line
+	private static void runScript(ConnectionPool target, String resource) throws SQLException {
+		InputStream in = ConnectionManager.class.getClassLoader().getResourceAsStream(resource);
+		if (in == null) {
+			throw new SQLException("Init script not found on the classpath: " + resource);
+		}
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+				Connection con = target.getConnection();
+				Statement st = con.createStatement()) {
+			StringBuilder sql = new StringBuilder();
+			String line;
+			while ((line = reader.readLine()) != null) {
+				String trimmed = line.trim();
+				if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+					continue;
+				}
+				sql.append(line).append('\n');
+				if (trimmed.endsWith(";")) {
+					st.execute(sql.substring(0, sql.lastIndexOf(";")));
+					sql.setLength(0);
+				}
+			}
+			System.out.println("Applied init script " + resource);
+		} catch (IOException e) {
+			throw new SQLException("Unable to read init script " + resource, e);
+		}
+	}
+
+	private static ConnectionPool createPool(String url, String username, String password) {
+		ConnectionPool created = new ConnectionPool(url, username, password, AppConfig.getInt("pool.minSize", 2),
+				AppConfig.getInt("pool.maxSize", 20), AppConfig.getInt("pool.acquireTimeoutMs", 5000),
+				AppConfig.getInt("pool.idleTimeoutMs", 600000), AppConfig.getString("pool.validationQuery", Dialect.forUrl(url).getValidationQuery()),
+				AppConfig.getInt("pool.statementCacheSize", 50));
+		created.setReconnectBackoff(AppConfig.getInt("pool.reconnectInitialBackoffMs", 500),
+				AppConfig.getInt("pool.reconnectMaxBackoffMs", 30000));
+		return created;
+	}
+}
@@ -0,0 +1,438 @@
+package com.shashi.utility;
+
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLRecoverableException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+//Bounded pool of physical JDBC connections handed out as DataSource connections
+//Calling close() on a borrowed connection returns it to the pool instead of closing it
+public class ConnectionPool implements DataSource {
+
+	private static final long VALIDATION_INTERVAL_MS = 5000;
+
+	private final String url;
+	private final String username;
+	private final String password;
+	private final int minSize;
+	private final int maxSize;
+	private final long acquireTimeoutMs;
+	private final long idleTimeoutMs;
+	private final String validationQuery;
+	private final int statementCacheSize;
+
+	// Permits bound the number of connections handed out at the same time
+	private final Semaphore permits;
+	// Most recently returned connection sits at the head so warm connections are reused first
+	private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<PooledConnection>();
+	private final AtomicInteger totalConnections = new AtomicInteger();
+	private final ScheduledExecutorService evictor;
+	private final AtomicLong statementCacheHits = new AtomicLong();
+	private final AtomicLong statementCacheMisses = new AtomicLong();
+
+	// After a failed connect, new connects fail fast until nextConnectAttempt, doubling the wait each time
+	private long reconnectInitialBackoffMs = 500;
+	private long reconnectMaxBackoffMs = 30000;
+	private long reconnectBackoffMs;
+	private final Object backoffLock = new Object();
+	private volatile long nextConnectAttempt;
+
+	private volatile boolean closed;
+
+	public ConnectionPool(String url, String username, String password, int minSize, int maxSize,
+			long acquireTimeoutMs, long idleTimeoutMs, String validationQuery, int statementCacheSize) {
+		if (maxSize < 1 || minSize < 0 || minSize > maxSize) {
+			throw new IllegalArgumentException("Invalid pool size min=" + minSize + " max=" + maxSize);
+		}
+		this.url = url;
+		this.username = username;
+		this.password = password;
+		this.minSize = minSize;
+		this.maxSize = maxSize;
+		this.acquireTimeoutMs = acquireTimeoutMs;
+		this.idleTimeoutMs = idleTimeoutMs;
+		this.validationQuery = validationQuery;
+		this.statementCacheSize = statementCacheSize;
+		this.permits = new Semaphore(maxSize, true);
+		this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "db-pool-evictor");
+			t.setDaemon(true);
+			return t;
+		});
+		if (idleTimeoutMs > 0) {
+			long period = Math.max(1000, idleTimeoutMs / 2);
+			evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	public void setReconnectBackoff(long initialBackoffMs, long maxBackoffMs) {
+		this.reconnectInitialBackoffMs = initialBackoffMs;
+		this.reconnectMaxBackoffMs = Math.max(initialBackoffMs, maxBackoffMs);
+	}
+
+	// Opens connections in parallel until the pool holds at least minSize of them
+	public synchronized void fill() throws SQLException {
+		int missing = minSize - totalConnections.get();
+		if (closed || missing <= 0) {
+			return;
+		}
+		ExecutorService openers = Executors.newFixedThreadPool(missing, r -> {
+			Thread t = new Thread(r, "db-pool-warmup");
+			t.setDaemon(true);
+			return t;
+		});
+		try {
+			List<CompletableFuture<Void>> opens = new ArrayList<CompletableFuture<Void>>();
+			for (int i = 0; i < missing; i++) {
+				opens.add(CompletableFuture.runAsync(() -> {
+					try {
+						idle.offerLast(openConnection());
+					} catch (SQLException e) {
+						throw new CompletionException(e);
+					}
+				}, openers));
+			}
+			CompletableFuture.allOf(opens.toArray(new CompletableFuture<?>[0])).join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof SQLException) {
+				throw (SQLException) e.getCause();
+			}
+			throw e;
+		} finally {
+			openers.shutdown();
+		}
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		if (closed) {
+			throw new SQLException("Connection pool is closed");
+		}
+		try {
+			if (!permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+				throw new SQLException("Timed out after " + acquireTimeoutMs + "ms waiting for a database connection"
+						+ " (active=" + getActiveCount() + ", max=" + maxSize + ")");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("Interrupted while waiting for a database connection", e);
+		}
+		try {
+			PooledConnection pooled;
+			while ((pooled = idle.pollFirst()) != null) {
+				if (isUsable(pooled)) {
+					return pooled.borrow();
+				}
+				discard(pooled);
+			}
+			return openConnection().borrow();
+		} catch (SQLException | RuntimeException e) {
+			permits.release();
+			throw e;
+		}
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		throw new SQLFeatureNotSupportedException("Pooled connections always use the configured credentials");
+	}
+
+	public int getTotalCount() {
+		return totalConnections.get();
+	}
+
+	public int getIdleCount() {
+		return idle.size();
+	}
+
+	public int getActiveCount() {
+		return maxSize - permits.availablePermits();
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	public int getMinSize() {
+		return minSize;
+	}
+
+	// True once at least minSize connections are open
+	public boolean isWarm() {
+		return !closed && totalConnections.get() >= minSize;
+	}
+
+	// True while connects are being refused after a failure
+	public boolean isBackingOff() {
+		return System.currentTimeMillis() < nextConnectAttempt;
+	}
+
+	public long getStatementCacheHits() {
+		return statementCacheHits.get();
+	}
+
+	public long getStatementCacheMisses() {
+		return statementCacheMisses.get();
+	}
+
+	public void close() {
+		closed = true;
+		evictor.shutdownNow();
+		PooledConnection pooled;
+		while ((pooled = idle.pollFirst()) != null) {
+			discard(pooled);
+		}
+	}
+
+	private PooledConnection openConnection() throws SQLException {
+		long retryIn = nextConnectAttempt - System.currentTimeMillis();
+		if (retryIn > 0) {
+			// Fail fast instead of making every request wait out a connect timeout during an outage
+			throw new SQLException("Database unavailable, next reconnect attempt in " + retryIn + "ms", "08001");
+		}
+		Connection physical;
+		try {
+			physical = DriverManager.getConnection(url, username, password);
+		} catch (SQLException e) {
+			backOff();
+			throw e;
+		}
+		reconnected();
+		totalConnections.incrementAndGet();
+		return new PooledConnection(physical);
+	}
+
+	private void backOff() {
+		synchronized (backoffLock) {
+			reconnectBackoffMs = reconnectBackoffMs == 0 ? reconnectInitialBackoffMs
+					: Math.min(reconnectMaxBackoffMs, reconnectBackoffMs * 2);
+			nextConnectAttempt = System.currentTimeMillis() + reconnectBackoffMs;
+		}
+	}
+
+	private void reconnected() {
+		synchronized (backoffLock) {
+			if (reconnectBackoffMs != 0) {
+				System.out.println("Database connection re-established");
+			}
+			reconnectBackoffMs = 0;
+			nextConnectAttempt = 0;
+		}
+	}
+
+	private boolean isUsable(PooledConnection pooled) {
+		// Connections handed back moments ago are trusted, only ones left idle pay for a validation round trip
+		if (validationQuery == null || validationQuery.trim().isEmpty()
+				|| System.currentTimeMillis() - pooled.lastUsed < VALIDATION_INTERVAL_MS) {
+			return true;
+		}
+		try (Statement st = pooled.physical.createStatement()) {
+			st.setQueryTimeout(5);
+			st.execute(validationQuery);
+			return true;
+		} catch (SQLException e) {
+			System.out.println("Discarding broken pooled connection: " + e.getMessage());
+			return false;
+		}
+	}
+
+	private void discard(PooledConnection pooled) {
+		totalConnections.decrementAndGet();
+		try {
+			pooled.physical.close();
+		} catch (SQLException e) {
+			// the connection is being thrown away anyway
+		}
+	}
+
+	private void release(PooledConnection pooled, boolean broken) {
+		try {
+			if (broken || closed) {
+				discard(pooled);
+			} else {
+				pooled.lastUsed = System.currentTimeMillis();
+				idle.offerFirst(pooled);
+			}
+		} finally {
+			permits.release();
+		}
+	}
+
+	// Closes connections idle longer than idleTimeoutMs, never going below minSize
+	private void evictIdle() {
+		long now = System.currentTimeMillis();
+		Iterator<PooledConnection> it = idle.descendingIterator();
+		while (it.hasNext() && totalConnections.get() > minSize) {
+			PooledConnection pooled = it.next();
+			if (now - pooled.lastUsed > idleTimeoutMs && idle.remove(pooled)) {
+				discard(pooled);
+			}
+		}
+		try {
+			fill();
+		} catch (SQLException e) {
+			System.out.println("Unable to top up connection pool: " + e.getMessage());
+		}
+	}
+
+	// Physical connection owned by the pool, lent out behind a proxy whose close() returns it
+	private class PooledConnection implements InvocationHandler {
+
+		private final Connection physical;
+		private final StatementCache statements;
+		private volatile long lastUsed = System.currentTimeMillis();
+		private Connection proxy;
+		private boolean broken;
+
+		PooledConnection(Connection physical) {
+			this.physical = physical;
+			this.statements = statementCacheSize > 0
+					? new StatementCache(physical, statementCacheSize, statementCacheHits, statementCacheMisses)
+					: null;
+		}
+
+		Connection borrow() {
+			broken = false;
+			proxy = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+					new Class<?>[] { Connection.class }, this);
+			return proxy;
+		}
+
+		@Override
+		public Object invoke(Object proxyInstance, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+			switch (name) {
+			case "equals":
+				return proxyInstance == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxyInstance);
+			case "toString":
+				return "Pooled" + physical.toString();
+			default:
+				break;
+			}
+			if (proxyInstance != proxy) {
+				// A stale handle kept after close() must not reach a connection lent to someone else
+				if ("close".equals(name)) {
+					return null;
+				}
+				if ("isClosed".equals(name)) {
+					return Boolean.TRUE;
+				}
+				throw new SQLException("Connection has already been returned to the pool");
+			}
+			switch (name) {
+			case "close":
+				proxy = null;
+				release(this, !resetState());
+				return null;
+			case "isClosed":
+				return Boolean.FALSE;
+			case "prepareStatement":
+				if (statements != null && args.length == 1) {
+					return statements.prepareStatement((String) args[0]);
+				}
+				// The variants taking result set or key options are not cached
+				return invokePhysical(method, args);
+			default:
+				return invokePhysical(method, args);
+			}
+		}
+
+		private Object invokePhysical(Method method, Object[] args) throws Throwable {
+			try {
+				return method.invoke(physical, args);
+			} catch (InvocationTargetException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof SQLException && isFatal((SQLException) cause)) {
+					broken = true;
+				}
+				throw cause;
+			}
+		}
+
+		// Undo whatever the borrower changed so the next borrower gets a clean connection
+		private boolean resetState() {
+			if (broken) {
+				return false;
+			}
+			try {
+				if (!physical.getAutoCommit()) {
+					physical.rollback();
+					physical.setAutoCommit(true);
+				}
+				physical.clearWarnings();
+				return true;
+			} catch (SQLException e) {
+				return false;
+			}
+		}
+
+		private boolean isFatal(SQLException e) {
+			// SQLState class 08 is a connection exception
+			String state = e.getSQLState();
+			return e instanceof SQLRecoverableException || state != null && state.startsWith("08");
+		}
+	}
+
+	@Override
+	public PrintWriter getLogWriter() throws SQLException {
+		return null;
+	}
+
+	@Override
+	public void setLogWriter(PrintWriter out) throws SQLException {
+		// logging goes to the console like the rest of the application
+	}
+
+	@Override
+	public void setLoginTimeout(int seconds) throws SQLException {
+		DriverManager.setLoginTimeout(seconds);
+	}
+
+	@Override
+	public int getLoginTimeout() throws SQLException {
+		return DriverManager.getLoginTimeout();
+	}
+
+	@Override
+	public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	@Override
+	public <T> T unwrap(Class<T> iface) throws SQLException {
+		if (iface.isInstance(this)) {
+			return iface.cast(this);
+		}
+		throw new SQLException("Not a wrapper for " + iface.getName());
+	}
+
+	@Override
+	public boolean isWrapperFor(Class<?> iface) throws SQLException {
+		return iface.isInstance(this);
+	}
+}
@@ -1,42 +1,55 @@
 package com.shashi.utility;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
-import java.util.ResourceBundle;
+
+import javax.sql.DataSource;
 
 import com.shashi.beans.TrainException;
 import com.shashi.constant.ResponseCode;
 
 public class DBUtil {
-	private static Connection con;
+	private static int fetchSize;
 
 	static {
+		fetchSize = AppConfig.getInt("jdbc.fetchSize", 0);
+	}
 
-		ResourceBundle rb = ResourceBundle.getBundle("application");
-
+	// Borrows a connection to the primary database, closing it hands it back
+	public static Connection getConnection() throws TrainException {
 		try {
-			Class.forName(rb.getString("driverName"));
-		} catch (ClassNotFoundException e) {
-			e.printStackTrace();
+			return ConnectionManager.getInstance().getRouter().getWriteConnection();
+		} catch (SQLException e) {
+			System.out.println(e.getMessage());
+			throw new TrainException(ResponseCode.DATABASE_CONNECTION_FAILURE);
 		}
+	}
 
+	// Borrows a connection for read-only queries, from the replica when it is healthy
+	public static Connection getReadConnection() throws TrainException {
 		try {
-			System.out.println(rb.getString("connectionString"));
-			System.out.println(rb.getString("username"));
-			System.out.println(rb.getString("password"));
-			con = DriverManager.getConnection(rb.getString("connectionString"), rb.getString("username"),
-					rb.getString("password"));
-			System.out.println("Connection Success!!");
+			return ConnectionManager.getInstance().getRouter().getReadConnection();
 		} catch (SQLException e) {
-
-			e.printStackTrace();
+			System.out.println(e.getMessage());
+			throw new TrainException(ResponseCode.DATABASE_CONNECTION_FAILURE);
 		}
 	}
 
-	public static Connection getConnection() throws TrainException {
-		if (con == null)
-			throw new TrainException(ResponseCode.DATABASE_CONNECTION_FAILURE);
-		return con;
+	// Rows fetched per round trip by the streaming listings, 0 keeps the driver default
+	public static int getFetchSize() {
+		return fetchSize;
+	}
+
+	public static Dialect getDialect() {
+		return Dialect.current();
+	}
+
+	public static DataSource getDataSource() {
+		return ConnectionManager.getInstance().getPool();
+	}
+
+	public static DataSource getReadDataSource() {
+		ConnectionManager manager = ConnectionManager.getInstance();
+		return manager.getReplicaPool() != null ? manager.getReplicaPool() : manager.getPool();
 	}
 }
@@ -0,0 +1,56 @@
+package com.shashi.utility;
+
+import java.sql.SQLException;
+
+//Differences between the databases the application can run on, picked from the db.dialect
+//property or, when that is not set, from the JDBC url
+public enum Dialect {
+
+	ORACLE("SELECT 1 FROM DUAL") {
+		@Override
+		public boolean isUniqueViolation(SQLException e) {
+			// ORA-00001: unique constraint violated
+			return e.getErrorCode() == 1 || e.getMessage() != null && e.getMessage().toUpperCase().contains("ORA-00001");
+		}
+	},
+
+	H2("SELECT 1") {
+		@Override
+		public boolean isUniqueViolation(SQLException e) {
+			return "23505".equals(e.getSQLState());
+		}
+	};
+
+	private static Dialect current;
+
+	private final String validationQuery;
+
+	Dialect(String validationQuery) {
+		this.validationQuery = validationQuery;
+	}
+
+	// True when the statement failed because the row's key already exists
+	public abstract boolean isUniqueViolation(SQLException e);
+
+	public String getValidationQuery() {
+		return validationQuery;
+	}
+
+	public static Dialect forUrl(String url) {
+		if (url != null && url.startsWith("jdbc:h2:")) {
+			return H2;
+		}
+		return ORACLE;
+	}
+
+	// Dialect of the configured primary database
+	public static synchronized Dialect current() {
+		if (current == null) {
+			String configured = AppConfig.getString("db.dialect", null);
+			current = configured == null || configured.isEmpty()
+					? forUrl(AppConfig.getString("connectionString", null))
+					: valueOf(configured.toUpperCase());
+		}
+		return current;
+	}
+}
@@ -0,0 +1,212 @@
+package com.shashi.utility;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.shashi.beans.FareBean;
+import com.shashi.beans.TrainBean;
+
+//Origin-destination fare table built from the train catalog: trains, min/max/average fare and the
+//cheapest train for every pair of stations with a direct train. Station names are numbered and a pair
+//is the two numbers packed into one long key.
+public class FareMatrix extends CatalogIndex {
+
+	private static final FareMatrix INSTANCE = attach(new FareMatrix());
+
+	private final Map<String, Integer> stationIds = new HashMap<String, Integer>();
+	private final List<String> stationNames = new ArrayList<String>();
+	private final LongHashMap<PairFares> pairs = new LongHashMap<PairFares>();
+
+	FareMatrix() {
+	}
+
+	public static FareMatrix getInstance() {
+		return INSTANCE;
+	}
+
+	// Fares between one pair of stations, null when no direct train runs between them
+	public FareBean getFare(String fromStation, String toStation) {
+		lock.readLock().lock();
+		try {
+			Integer from = stationIds.get(normalize(fromStation));
+			Integer to = stationIds.get(normalize(toStation));
+			if (from == null || to == null) {
+				return null;
+			}
+			PairFares fares = pairs.get(pairKey(from, to));
+			return fares == null ? null : fares.toBean(stationNames.get(from), stationNames.get(to));
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	// Fares for every pair made of one of the origins and one of the destinations, in no particular order
+	public List<FareBean> getFares(Collection<String> fromStations, Collection<String> toStations) {
+		List<FareBean> result = new ArrayList<FareBean>();
+		lock.readLock().lock();
+		try {
+			Set<Integer> from = idsOf(fromStations);
+			Set<Integer> to = idsOf(toStations);
+			if ((long) from.size() * to.size() <= pairs.size()) {
+				for (Integer origin : from) {
+					for (Integer destination : to) {
+						PairFares fares = pairs.get(pairKey(origin, destination));
+						if (fares != null) {
+							result.add(fares.toBean(stationNames.get(origin), stationNames.get(destination)));
+						}
+					}
+				}
+			} else {
+				// Broad fragments match more combinations than there are pairs, check the pairs instead
+				pairs.forEach((key, fares) -> {
+					int origin = (int) (key >>> 32);
+					int destination = (int) key;
+					if (from.contains(origin) && to.contains(destination)) {
+						result.add(fares.toBean(stationNames.get(origin), stationNames.get(destination)));
+					}
+				});
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		return result;
+	}
+
+	@Override
+	protected void clear() {
+		stationIds.clear();
+		stationNames.clear();
+		pairs.clear();
+	}
+
+	@Override
+	protected void add(TrainBean train) {
+		long key = pairKey(idOf(train.getFrom_stn()), idOf(train.getTo_stn()));
+		PairFares fares = pairs.get(key);
+		if (fares == null) {
+			fares = new PairFares();
+			pairs.put(key, fares);
+		}
+		fares.add(train.getTr_no(), train.getFare() == null ? 0 : train.getFare());
+	}
+
+	@Override
+	protected void remove(TrainBean train) {
+		Integer from = stationIds.get(normalize(train.getFrom_stn()));
+		Integer to = stationIds.get(normalize(train.getTo_stn()));
+		if (from == null || to == null) {
+			return;
+		}
+		long key = pairKey(from, to);
+		PairFares fares = pairs.get(key);
+		if (fares != null && fares.remove(train.getTr_no()) && fares.count == 0) {
+			pairs.remove(key);
+		}
+	}
+
+	// Numbers are only handed out, a name stays numbered until the catalog is reloaded
+	private int idOf(String station) {
+		String name = normalize(station);
+		Integer id = stationIds.get(name);
+		if (id == null) {
+			id = stationNames.size();
+			stationIds.put(name, id);
+			stationNames.add(name);
+		}
+		return id;
+	}
+
+	private Set<Integer> idsOf(Collection<String> stations) {
+		Set<Integer> ids = new HashSet<Integer>();
+		for (String station : stations) {
+			Integer id = stationIds.get(normalize(station));
+			if (id != null) {
+				ids.add(id);
+			}
+		}
+		return ids;
+	}
+
+	private static long pairKey(int from, int to) {
+		return ((long) from << 32) | (to & 0xFFFFFFFFL);
+	}
+
+	private static String normalize(String station) {
+		return station == null ? "" : StationIndex.normalize(station.trim());
+	}
+
+	// Trains of one pair in parallel arrays, a removal rescans the few trains left
+	private static class PairFares {
+
+		private long[] trainNos = new long[2];
+		private double[] fares = new double[2];
+		private int count;
+		private double sum;
+		private int cheapest = -1;
+		private int dearest = -1;
+
+		void add(long trainNo, double fare) {
+			if (count == trainNos.length) {
+				trainNos = Arrays.copyOf(trainNos, count * 2);
+				fares = Arrays.copyOf(fares, count * 2);
+			}
+			trainNos[count] = trainNo;
+			fares[count] = fare;
+			sum += fare;
+			if (cheapest < 0 || fare < fares[cheapest]) {
+				cheapest = count;
+			}
+			if (dearest < 0 || fare > fares[dearest]) {
+				dearest = count;
+			}
+			count++;
+		}
+
+		boolean remove(long trainNo) {
+			for (int i = 0; i < count; i++) {
+				if (trainNos[i] == trainNo) {
+					count--;
+					trainNos[i] = trainNos[count];
+					fares[i] = fares[count];
+					rescan();
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private void rescan() {
+			cheapest = -1;
+			dearest = -1;
+			sum = 0;
+			for (int i = 0; i < count; i++) {
+				sum += fares[i];
+				if (cheapest < 0 || fares[i] < fares[cheapest]) {
+					cheapest = i;
+				}
+				if (dearest < 0 || fares[i] > fares[dearest]) {
+					dearest = i;
+				}
+			}
+		}
+
+		FareBean toBean(String from, String to) {
+			FareBean fare = new FareBean();
+			fare.setFrom_stn(from);
+			fare.setTo_stn(to);
+			fare.setTrains(count);
+			fare.setMinFare(fares[cheapest]);
+			fare.setMaxFare(fares[dearest]);
+			// Rounded to paise like the stored fares
+			fare.setAvgFare(Math.round(sum / count * 100) / 100.0);
+			fare.setCheapestTrNo(trainNos[cheapest]);
+			return fare;
+		}
+	}
+}
@@ -0,0 +1,56 @@
+package com.shashi.utility;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import com.shashi.beans.HistoryBean;
+
+public class HistoryRowMapper extends RowMapper<HistoryBean> {
+
+	// DATE is a reserved word, the column was created quoted. Stations are named through the StationDirectory
+	public static final HistoryRowMapper ALL = new HistoryRowMapper(
+			"TRANSID, MAILID, TR_NO, \"DATE\", FROM_STN_ID, TO_STN_ID, SEATS, AMOUNT");
+
+	private final int transId;
+	private final int mailId;
+	private final int trNo;
+	private final int date;
+	private final int fromStn;
+	private final int toStn;
+	private final int seats;
+	private final int amount;
+
+	public HistoryRowMapper(String columns) {
+		super(columns);
+		this.transId = position("TRANSID");
+		this.mailId = position("MAILID");
+		this.trNo = position("TR_NO");
+		this.date = position("DATE");
+		this.fromStn = position("FROM_STN_ID");
+		this.toStn = position("TO_STN_ID");
+		this.seats = position("SEATS");
+		this.amount = position("AMOUNT");
+	}
+
+	@Override
+	public HistoryBean mapRow(ResultSet rs) throws SQLException {
+		HistoryBean transaction = new HistoryBean();
+		if (transId > 0)
+			transaction.setTransId(rs.getString(transId));
+		if (mailId > 0)
+			transaction.setMailId(rs.getString(mailId));
+		if (trNo > 0)
+			transaction.setTr_no(rs.getString(trNo));
+		if (date > 0)
+			transaction.setDate(rs.getString(date));
+		if (fromStn > 0)
+			transaction.setFrom_stn(stationName(rs, fromStn));
+		if (toStn > 0)
+			transaction.setTo_stn(stationName(rs, toStn));
+		if (seats > 0)
+			transaction.setSeats(rs.getInt(seats));
+		if (amount > 0)
+			transaction.setAmount(rs.getDouble(amount));
+		return transaction;
+	}
+}
@@ -0,0 +1,145 @@
+package com.shashi.utility;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.shashi.beans.JourneyBean;
+import com.shashi.beans.TrainBean;
+import com.shashi.constant.JourneySort;
+
+//Station graph built from the train catalog, every train is an edge from its FROM_STN to its TO_STN.
+//Journeys are found in rounds like RAPTOR: round r knows the cheapest fare to each station using
+//r trains, and only stations that got cheaper in a round are expanded in the next one.
+public class JourneyPlanner extends CatalogIndex {
+
+	private static final JourneyPlanner INSTANCE = attach(new JourneyPlanner());
+
+	// Normalized station name to the trains leaving it, by train number
+	private final Map<String, Map<Long, TrainBean>> departures = new HashMap<String, Map<Long, TrainBean>>();
+
+	JourneyPlanner() {
+	}
+
+	public static JourneyPlanner getInstance() {
+		return INSTANCE;
+	}
+
+	// Itineraries with at most maxTransfers changes, each one either cheaper or with fewer changes than
+	// every other, station names must match exactly apart from case
+	public List<JourneyBean> plan(String fromStation, String toStation, int maxTransfers, JourneySort sort) {
+		List<JourneyBean> journeys = new ArrayList<JourneyBean>();
+		String origin = key(fromStation);
+		String destination = key(toStation);
+		if (origin.isEmpty() || destination.isEmpty() || origin.equals(destination) || maxTransfers < 0) {
+			return journeys;
+		}
+		lock.readLock().lock();
+		try {
+			Label start = new Label(origin, 0, null, null);
+			Map<String, Label> best = new HashMap<String, Label>();
+			best.put(origin, start);
+			Map<String, Label> improved = Collections.singletonMap(origin, start);
+			for (int round = 0; round <= maxTransfers && !improved.isEmpty(); round++) {
+				Map<String, Label> next = new HashMap<String, Label>();
+				for (Label label : improved.values()) {
+					Map<Long, TrainBean> leaving = departures.get(label.station);
+					if (leaving == null) {
+						continue;
+					}
+					for (TrainBean train : leaving.values()) {
+						double fare = label.fare + fareOf(train);
+						Label arrival = best.get(destination);
+						if (arrival != null && fare >= arrival.fare) {
+							// Cannot beat the best way in already found
+							continue;
+						}
+						String station = key(train.getTo_stn());
+						Label known = best.get(station);
+						if (known == null || fare < known.fare) {
+							Label reached = new Label(station, fare, train, label);
+							best.put(station, reached);
+							next.put(station, reached);
+						}
+					}
+				}
+				Label arrival = next.get(destination);
+				if (arrival != null) {
+					journeys.add(toJourney(arrival));
+				}
+				improved = next;
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		// Found with increasing transfers and each one cheaper than the last
+		if (sort == JourneySort.FARE) {
+			Collections.sort(journeys, Comparator.comparing(JourneyBean::getFare));
+		}
+		return journeys;
+	}
+
+	@Override
+	protected void clear() {
+		departures.clear();
+	}
+
+	@Override
+	protected void add(TrainBean train) {
+		String station = key(train.getFrom_stn());
+		Map<Long, TrainBean> leaving = departures.get(station);
+		if (leaving == null) {
+			leaving = new HashMap<Long, TrainBean>();
+			departures.put(station, leaving);
+		}
+		leaving.put(train.getTr_no(), train);
+	}
+
+	@Override
+	protected void remove(TrainBean train) {
+		String station = key(train.getFrom_stn());
+		Map<Long, TrainBean> leaving = departures.get(station);
+		if (leaving != null && leaving.remove(train.getTr_no()) != null && leaving.isEmpty()) {
+			departures.remove(station);
+		}
+	}
+
+	private static JourneyBean toJourney(Label arrival) {
+		List<TrainBean> legs = new ArrayList<TrainBean>();
+		for (Label label = arrival; label.train != null; label = label.previous) {
+			legs.add(TrainCatalog.copyOf(label.train));
+		}
+		Collections.reverse(legs);
+		JourneyBean journey = new JourneyBean();
+		journey.setLegs(legs);
+		journey.setFare(arrival.fare);
+		return journey;
+	}
+
+	private static double fareOf(TrainBean train) {
+		return train.getFare() == null ? 0 : train.getFare();
+	}
+
+	private static String key(String station) {
+		return station == null ? "" : StationIndex.normalize(station.trim());
+	}
+
+	// Cheapest known way to reach a station, linked back to the origin one train at a time
+	private static class Label {
+
+		private final String station;
+		private final double fare;
+		private final TrainBean train;
+		private final Label previous;
+
+		Label(String station, double fare, TrainBean train, Label previous) {
+			this.station = station;
+			this.fare = fare;
+			this.train = train;
+			this.previous = previous;
+		}
+	}
+}
@@ -0,0 +1,37 @@
+package com.shashi.utility;
+
+//Helpers for the small JSON responses written by hand in the servlets
+public class JsonUtil {
+
+	// Appends the value as a quoted JSON string, null becomes null
+	// <, > and & are escaped too so the output is safe to embed in a page
+	public static StringBuilder appendString(StringBuilder json, String value) {
+		if (value == null) {
+			return json.append("null");
+		}
+		json.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+			case '"':
+				json.append("\\\"");
+				break;
+			case '\\':
+				json.append("\\\\");
+				break;
+			default:
+				if (c < 0x20 || c == '<' || c == '>' || c == '&') {
+					json.append(String.format("\\u%04x", (int) c));
+				} else {
+					json.append(c);
+				}
+			}
+		}
+		return json.append('"');
+	}
+
+	// Appends "name": for the next member of an object
+	public static StringBuilder appendName(StringBuilder json, String name) {
+		return appendString(json, name).append(':');
+	}
+}
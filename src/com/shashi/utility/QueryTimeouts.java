@@ -0,0 +1,54 @@
+package com.shashi.utility;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.EnumMap;
+import java.util.Map;
+
+import com.shashi.beans.TrainException;
+import com.shashi.constant.QueryType;
+import com.shashi.constant.ResponseCode;
+
+//Per-operation statement timeouts, the driver cancels a statement that runs past its budget
+//so a locked row or a slow scan cannot hold a request thread indefinitely
+public class QueryTimeouts {
+
+	private static final Map<QueryType, Integer> timeouts = new EnumMap<QueryType, Integer>(QueryType.class);
+
+	static {
+		timeouts.put(QueryType.LOOKUP, AppConfig.getInt("query.timeout.lookup", 5));
+		timeouts.put(QueryType.SEARCH, AppConfig.getInt("query.timeout.search", 10));
+		timeouts.put(QueryType.BOOKING, AppConfig.getInt("query.timeout.booking", 15));
+		timeouts.put(QueryType.ADMIN, AppConfig.getInt("query.timeout.admin", 30));
+	}
+
+	// Timeout in seconds, 0 means no limit
+	public static int getTimeout(QueryType type) {
+		return timeouts.get(type);
+	}
+
+	public static void apply(Statement st, QueryType type) throws SQLException {
+		st.setQueryTimeout(getTimeout(type));
+	}
+
+	// True when the statement was cancelled for running past its timeout
+	public static boolean isTimeout(Exception e) {
+		if (e instanceof SQLTimeoutException) {
+			return true;
+		}
+		if (!(e instanceof SQLException)) {
+			return false;
+		}
+		SQLException sqlException = (SQLException) e;
+		// 57014 is the standard query canceled state, ORA-01013 is Oracle's user requested cancel
+		return "57014".equals(sqlException.getSQLState()) || sqlException.getErrorCode() == 1013;
+	}
+
+	public static TrainException toTrainException(SQLException e) {
+		if (isTimeout(e)) {
+			return new TrainException(ResponseCode.QUERY_TIMEOUT);
+		}
+		return new TrainException(e.getMessage());
+	}
+}
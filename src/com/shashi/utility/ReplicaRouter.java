@@ -0,0 +1,107 @@
+package com.shashi.utility;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+//Routes read-only work to the replica data source and everything else to the primary
+//Reads fall back to the primary while the replica is unreachable or lagging too far behind
+public class ReplicaRouter {
+
+	private final DataSource primary;
+	private final DataSource replica;
+	private final String lagQuery;
+	private final int maxLagSeconds;
+	private final ScheduledExecutorService healthChecker;
+
+	private volatile boolean replicaHealthy;
+
+	public ReplicaRouter(DataSource primary, DataSource replica, String lagQuery, int maxLagSeconds,
+			long healthCheckIntervalMs) {
+		this.primary = primary;
+		this.replica = replica;
+		this.lagQuery = lagQuery;
+		this.maxLagSeconds = maxLagSeconds;
+		if (replica == null) {
+			healthChecker = null;
+			return;
+		}
+		replicaHealthy = true;
+		healthChecker = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "db-replica-health");
+			t.setDaemon(true);
+			return t;
+		});
+		if (healthCheckIntervalMs > 0) {
+			healthChecker.scheduleWithFixedDelay(this::checkReplica, healthCheckIntervalMs, healthCheckIntervalMs,
+					TimeUnit.MILLISECONDS);
+		}
+	}
+
+	public Connection getWriteConnection() throws SQLException {
+		return primary.getConnection();
+	}
+
+	public Connection getReadConnection() throws SQLException {
+		if (replica != null && replicaHealthy) {
+			try {
+				return replica.getConnection();
+			} catch (SQLException e) {
+				// Stay on the primary until the health check sees the replica come back
+				System.out.println("Replica unavailable, routing reads to primary: " + e.getMessage());
+				replicaHealthy = false;
+			}
+		}
+		return primary.getConnection();
+	}
+
+	public boolean isReplicaConfigured() {
+		return replica != null;
+	}
+
+	public boolean isReplicaHealthy() {
+		return replica != null && replicaHealthy;
+	}
+
+	// Marks the replica healthy only if it answers and, when a lag query is set, is recent enough
+	public boolean checkReplica() {
+		if (replica == null) {
+			return false;
+		}
+		boolean healthy;
+		try (Connection con = replica.getConnection()) {
+			healthy = con.isValid(5) && getLagSeconds(con) <= maxLagSeconds;
+		} catch (SQLException e) {
+			healthy = false;
+		}
+		if (healthy != replicaHealthy) {
+			System.out.println("Replica is now " + (healthy ? "healthy" : "unhealthy") + ", reads go to the "
+					+ (healthy ? "replica" : "primary"));
+		}
+		replicaHealthy = healthy;
+		return healthy;
+	}
+
+	public void close() {
+		if (healthChecker != null) {
+			healthChecker.shutdownNow();
+		}
+	}
+
+	private double getLagSeconds(Connection con) throws SQLException {
+		if (lagQuery == null || lagQuery.trim().isEmpty()) {
+			return 0;
+		}
+		try (PreparedStatement ps = con.prepareStatement(lagQuery)) {
+			ps.setQueryTimeout(5);
+			ResultSet rs = ps.executeQuery();
+			return rs.next() ? rs.getDouble(1) : 0;
+		}
+	}
+}
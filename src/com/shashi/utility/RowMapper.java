@@ -0,0 +1,63 @@
+package com.shashi.utility;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+//Maps rows of a query selecting an explicit column list into beans
+//Column positions are resolved once from that list, so rows are read by index instead of by name
+public abstract class RowMapper<T> {
+
+	private final String columns;
+	private final List<String> columnNames;
+
+	protected RowMapper(String columns) {
+		this.columns = columns;
+		this.columnNames = new ArrayList<String>();
+		for (String column : columns.split(",")) {
+			columnNames.add(column.trim().replace("\"", "").toUpperCase());
+		}
+	}
+
+	// Column list to use in the SELECT clause of the queries this mapper reads
+	public String getColumns() {
+		return columns;
+	}
+
+	// 1-based position of the column in the select list, 0 when it is not selected
+	protected int position(String column) {
+		return columnNames.indexOf(column.toUpperCase()) + 1;
+	}
+
+	public abstract T mapRow(ResultSet rs) throws SQLException;
+
+	// Name of the station whose id is in the column, an unknown id is looked up on the connection the
+	// row came from rather than a second one borrowed while this one is held
+	protected static String stationName(ResultSet rs, int column) throws SQLException {
+		Statement st = rs.getStatement();
+		Connection con = st == null ? null : st.getConnection();
+		return StationDirectory.getInstance().nameOf(con, rs.getInt(column));
+	}
+
+	public List<T> mapAll(ResultSet rs) throws SQLException {
+		List<T> rows = new ArrayList<T>();
+		while (rs.next()) {
+			rows.add(mapRow(rs));
+		}
+		return rows;
+	}
+
+	// Hands each row to the action as soon as it is read, without collecting them
+	public int forEach(ResultSet rs, Consumer<? super T> action) throws SQLException {
+		int count = 0;
+		while (rs.next()) {
+			action.accept(mapRow(rs));
+			count++;
+		}
+		return count;
+	}
+}
@@ -0,0 +1,501 @@
+package com.shashi.utility;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.shashi.beans.HistoryBean;
+import com.shashi.beans.TrainBean;
+import com.shashi.beans.TrainException;
+import com.shashi.constant.QueryType;
+import com.shashi.constant.SeatClass;
+
+//Optional in-memory seat inventory for flash sales. The seats left per train, journey date and class are
+//counters taken with a compare-and-set, so a booking is confirmed without waiting on the database. The
+//bookings are written behind in batches: each flush commits the HISTORY rows and the SEAT_INVENTORY
+//decrements of its batch together, so the table always matches the committed bookings and a restarted node
+//rebuilds its counters from it. Bookings confirmed after the last flush are lost if the node dies. The
+//counters are only right while this node takes every booking, so it stays off with the cluster change log.
+//A batch that keeps failing is written one booking at a time after maxRetries attempts, and a booking the
+//database still refuses is logged as a dead letter and dropped from the queue with its seats kept taken.
+public class SeatAllocator {
+
+	private static final SeatAllocator INSTANCE = new SeatAllocator(
+			Boolean.parseBoolean(AppConfig.getString("booking.allocator.enabled", "false"))
+					&& !TrainChangeLog.getInstance().isEnabled(),
+			AppConfig.getLong("booking.allocator.flushIntervalMs", 200),
+			AppConfig.getInt("booking.allocator.batchSize", 500),
+			AppConfig.getInt("booking.allocator.maxRetries", 5));
+
+	private static final String SEATS_QUERY = "SELECT SEATS FROM SEAT_INVENTORY WHERE TR_NO=? AND JOURNEY_DATE=? AND SEAT_CLASS=?";
+	private static final String HISTORY_QUERY = "INSERT INTO HISTORY (TRANSID, MAILID, TR_NO, \"DATE\", FROM_STN_ID, "
+			+ "TO_STN_ID, SEATS, AMOUNT) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+	private static final String OPEN_BUCKET_QUERY = "INSERT INTO SEAT_INVENTORY (TR_NO, JOURNEY_DATE, SEAT_CLASS, SEATS) "
+			+ "SELECT TR_NO, ?, ?, FLOOR(SEATS * ? / 100) FROM TRAIN WHERE TR_NO=? AND NOT EXISTS "
+			+ "(SELECT 1 FROM SEAT_INVENTORY WHERE TR_NO=? AND JOURNEY_DATE=? AND SEAT_CLASS=?)";
+	private static final String WRITTEN_QUERY = "SELECT TRANSID FROM HISTORY WHERE TRANSID IN ";
+	// Bookings per lookup of a retried batch, Oracle takes at most 1000 values in an IN list
+	private static final int MAX_IN_LIST = 500;
+	// The counters already refused what does not fit, the batch only catches the table up
+	private static final String TAKE_SEATS_QUERY = "UPDATE SEAT_INVENTORY SET SEATS = SEATS - ? "
+			+ "WHERE TR_NO=? AND JOURNEY_DATE=? AND SEAT_CLASS=?";
+
+	public static SeatAllocator getInstance() {
+		return INSTANCE;
+	}
+
+	private final boolean enabled;
+	private final long flushIntervalMs;
+	private final int batchSize;
+	private final int maxRetries;
+
+	private final ConcurrentHashMap<Bucket, AtomicInteger> counters = new ConcurrentHashMap<Bucket, AtomicInteger>();
+	// Callers booking a bucket nobody loaded yet share one read of it
+	private final SingleFlight<Bucket, Integer> loads = new SingleFlight<Bucket, Integer>();
+	private final ConcurrentLinkedQueue<Booking> pending = new ConcurrentLinkedQueue<Booking>();
+	// Confirmed and not written yet, queued or in the batch being retried
+	private final AtomicInteger unwritten = new AtomicInteger();
+	// Batch whose write failed, written again as it is before anything newer. Only touched by flush
+	private List<Booking> retry = new ArrayList<Booking>();
+	// Failed attempts at the batch in retry, also only touched by flush
+	private int retries;
+	private final AtomicLong confirmed = new AtomicLong();
+	private final AtomicLong persisted = new AtomicLong();
+	private final AtomicLong failedFlushes = new AtomicLong();
+	private final AtomicLong deadLettered = new AtomicLong();
+	// Guards starting and stopping the writer, flush has its own monitor so stop can wait for the writer
+	private final Object lifecycle = new Object();
+	private ScheduledExecutorService writer;
+	// Day the counters of past journeys were last dropped, only touched by the writer
+	private LocalDate evictedOn;
+
+	SeatAllocator(boolean enabled, long flushIntervalMs, int batchSize, int maxRetries) {
+		this.enabled = enabled;
+		this.flushIntervalMs = flushIntervalMs;
+		this.batchSize = batchSize;
+		this.maxRetries = Math.max(1, maxRetries);
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	// Starts writing the confirmed bookings in the background
+	public void start() {
+		synchronized (lifecycle) {
+			if (!enabled || writer != null) {
+				return;
+			}
+			writer = Executors.newSingleThreadScheduledExecutor(r -> {
+				Thread t = new Thread(r, "seat-allocator-writer");
+				t.setDaemon(true);
+				return t;
+			});
+			writer.scheduleWithFixedDelay(() -> {
+				LocalDate today = LocalDate.now();
+				if (!today.equals(evictedOn)) {
+					evictBefore(today);
+					evictedOn = today;
+				}
+				if (!ConnectionManager.getInstance().isReady()) {
+					return;
+				}
+				flushAll();
+			}, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	// Stops the writer and writes what is still queued, so an orderly shutdown loses no booking
+	public void stop() {
+		ScheduledExecutorService stopping;
+		synchronized (lifecycle) {
+			stopping = writer;
+			writer = null;
+		}
+		if (stopping == null) {
+			return;
+		}
+		// A flush still running finishes on its own, nothing held here keeps it waiting
+		stopping.shutdown();
+		try {
+			stopping.awaitTermination(flushIntervalMs + 30000, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		flushAll();
+		if (getPending() > 0) {
+			System.out.println("Seat allocator stopped with " + getPending() + " bookings not written");
+		}
+	}
+
+	// Takes the seats from the counter of the train, journey date (yyyy-mm-dd) and class and queues the
+	// booking to be written, null when fewer seats are left
+	public HistoryBean reserve(String customerEmailId, TrainBean train, String journeyDate, SeatClass seatClass,
+			int seats) throws TrainException {
+		LocalDate date;
+		try {
+			date = LocalDate.parse(journeyDate.trim());
+		} catch (RuntimeException e) {
+			throw new TrainException("Invalid journey date " + journeyDate);
+		}
+		Bucket bucket = new Bucket(train.getTr_no(), date, seatClass);
+		AtomicInteger counter = counter(bucket, train.getSeats());
+		int left;
+		do {
+			left = counter.get();
+			if (left < seats) {
+				return null;
+			}
+		} while (!counter.compareAndSet(left, left - seats));
+
+		HistoryBean booking = new HistoryBean();
+		booking.setTransId(UUID.randomUUID().toString());
+		booking.setMailId(customerEmailId);
+		booking.setTr_no(String.valueOf(train.getTr_no()));
+		booking.setDate(journeyDate.trim());
+		booking.setFrom_stn(train.getFrom_stn());
+		booking.setTo_stn(train.getTo_stn());
+		booking.setSeats(seats);
+		booking.setAmount(train.getFare() * seats);
+		// Counted before it is queued, so the writer never takes it below zero
+		unwritten.incrementAndGet();
+		pending.add(new Booking(bucket, booking));
+		confirmed.incrementAndGet();
+		return booking;
+	}
+
+	// Replaces the seats read from the table with the counters of the buckets held here, which are ahead of it
+	public void overlay(Map<Long, Map<SeatClass, Integer>> available, String journeyDate) {
+		if (counters.isEmpty()) {
+			return;
+		}
+		LocalDate date = LocalDate.parse(journeyDate.trim());
+		for (Map.Entry<Long, Map<SeatClass, Integer>> train : available.entrySet()) {
+			for (SeatClass seatClass : SeatClass.values()) {
+				AtomicInteger counter = counters.get(new Bucket(train.getKey(), date, seatClass));
+				if (counter != null) {
+					train.getValue().put(seatClass, counter.get());
+				}
+			}
+		}
+	}
+
+	// Drops the counters of journeys before the given day, nobody books them any more. Their queued bookings
+	// carry their own bucket and are still written
+	void evictBefore(LocalDate day) {
+		counters.keySet().removeIf(bucket -> bucket.date.isBefore(day));
+	}
+
+	// Writes the queued bookings in batches until none are left or a write fails
+	public void flushAll() {
+		while (flush() > 0) {
+		}
+	}
+
+	// Writes the next batch in one transaction, returns how many bookings left the queue. A failed batch is
+	// retried on its own while new bookings wait, and only its bookings without a HISTORY row are written
+	// again: the last attempt may have committed and only its answer been lost
+	public synchronized int flush() {
+		boolean retrying = !retry.isEmpty();
+		List<Booking> batch = retry;
+		if (!retrying) {
+			batch = new ArrayList<Booking>();
+			while (batch.size() < batchSize) {
+				Booking booking = pending.poll();
+				if (booking == null) {
+					break;
+				}
+				batch.add(booking);
+			}
+		}
+		if (batch.isEmpty()) {
+			return 0;
+		}
+		try {
+			List<Booking> missing = retrying ? notWritten(batch) : batch;
+			if (missing.size() < batch.size()) {
+				System.out.println("Seat allocator found " + (batch.size() - missing.size()) + " of " + batch.size()
+						+ " bookings already written");
+			}
+			if (!missing.isEmpty()) {
+				write(missing);
+			}
+		} catch (SQLException | TrainException e) {
+			failedFlushes.incrementAndGet();
+			retry = batch;
+			if (++retries < maxRetries) {
+				System.out.println("Seat allocator flush failed, retrying: " + e.getMessage());
+				return 0;
+			}
+			System.out.println("Seat allocator flush failed " + retries + " times, writing the bookings one by one: "
+					+ e.getMessage());
+			return writeOneByOne();
+		}
+		retry = new ArrayList<Booking>();
+		retries = 0;
+		unwritten.addAndGet(-batch.size());
+		persisted.addAndGet(batch.size());
+		return batch.size();
+	}
+
+	// Writes the batch in retry one booking per transaction, so a booking the database keeps refusing only
+	// holds up itself. Losing the connection is not the booking's fault, what is left waits for the next flush
+	private int writeOneByOne() {
+		List<Booking> batch = retry;
+		List<Booking> missing;
+		try {
+			missing = notWritten(batch);
+		} catch (SQLException | TrainException e) {
+			return 0;
+		}
+		Set<Booking> left = Collections.newSetFromMap(new IdentityHashMap<Booking, Boolean>());
+		left.addAll(missing);
+		int written = batch.size() - missing.size();
+		int dropped = 0;
+		for (Booking booking : missing) {
+			try {
+				write(Collections.singletonList(booking));
+				written++;
+			} catch (SQLException e) {
+				if (isConnectionLost(e)) {
+					break;
+				}
+				deadLetter(booking, e);
+				dropped++;
+			} catch (TrainException e) {
+				break;
+			}
+			left.remove(booking);
+		}
+		List<Booking> remaining = new ArrayList<Booking>();
+		for (Booking booking : batch) {
+			if (left.contains(booking)) {
+				remaining.add(booking);
+			}
+		}
+		retry = remaining;
+		if (remaining.isEmpty()) {
+			retries = 0;
+		}
+		unwritten.addAndGet(-(written + dropped));
+		persisted.addAndGet(written);
+		deadLettered.addAndGet(dropped);
+		return written + dropped;
+	}
+
+	private static boolean isConnectionLost(SQLException e) {
+		String state = e.getSQLState();
+		return e instanceof SQLRecoverableException || e instanceof SQLTransientException
+				|| state != null && state.startsWith("08");
+	}
+
+	// Everything needed to enter the booking by hand, its seats stay taken in the counter
+	private static void deadLetter(Booking booking, SQLException e) {
+		HistoryBean details = booking.history;
+		System.out.println("Seat allocator dead letter, booking not written: transId=" + details.getTransId()
+				+ " mailId=" + details.getMailId() + " trainNo=" + booking.bucket.trainNo + " date="
+				+ booking.bucket.date + " class=" + booking.bucket.seatClass.getCode() + " from="
+				+ details.getFrom_stn() + " to=" + details.getTo_stn() + " seats=" + details.getSeats()
+				+ " amount=" + details.getAmount() + " error=" + e.getMessage());
+	}
+
+	// Bookings of the batch without a HISTORY row. A booking's row and its seats commit together, so these
+	// are exactly the ones still to write
+	private List<Booking> notWritten(List<Booking> batch) throws SQLException, TrainException {
+		Set<String> written = new HashSet<String>();
+		try (Connection con = DBUtil.getConnection()) {
+			for (int from = 0; from < batch.size(); from += MAX_IN_LIST) {
+				List<Booking> chunk = batch.subList(from, Math.min(from + MAX_IN_LIST, batch.size()));
+				StringBuilder query = new StringBuilder(WRITTEN_QUERY).append('(');
+				for (int i = 0; i < chunk.size(); i++) {
+					query.append(i == 0 ? "?" : ", ?");
+				}
+				query.append(')');
+				try (PreparedStatement ps = con.prepareStatement(query.toString())) {
+					QueryTimeouts.apply(ps, QueryType.BOOKING);
+					for (int i = 0; i < chunk.size(); i++) {
+						ps.setString(i + 1, chunk.get(i).history.getTransId());
+					}
+					ResultSet rs = ps.executeQuery();
+					while (rs.next()) {
+						written.add(rs.getString(1));
+					}
+				}
+			}
+		}
+		List<Booking> missing = new ArrayList<Booking>();
+		for (Booking booking : batch) {
+			if (!written.contains(booking.history.getTransId())) {
+				missing.add(booking);
+			}
+		}
+		return missing;
+	}
+
+	private void write(List<Booking> batch) throws SQLException, TrainException {
+		// Seats taken per bucket, one decrement each
+		Map<Bucket, Integer> taken = new LinkedHashMap<Bucket, Integer>();
+		for (Booking booking : batch) {
+			taken.merge(booking.bucket, booking.history.getSeats(), Integer::sum);
+		}
+		// Resolved before borrowing, adding a station takes a connection of its own
+		StationDirectory stations = StationDirectory.getInstance();
+		Map<String, Integer> stationIds = new HashMap<String, Integer>();
+		for (Booking booking : batch) {
+			for (String station : new String[] { booking.history.getFrom_stn(), booking.history.getTo_stn() }) {
+				if (!stationIds.containsKey(station)) {
+					stationIds.put(station, stations.resolve(station));
+				}
+			}
+		}
+		try (Connection con = DBUtil.getConnection();
+				PreparedStatement history = con.prepareStatement(HISTORY_QUERY);
+				PreparedStatement open = con.prepareStatement(OPEN_BUCKET_QUERY);
+				PreparedStatement take = con.prepareStatement(TAKE_SEATS_QUERY)) {
+			QueryTimeouts.apply(history, QueryType.BOOKING);
+			QueryTimeouts.apply(open, QueryType.BOOKING);
+			QueryTimeouts.apply(take, QueryType.BOOKING);
+			con.setAutoCommit(false);
+			for (Booking booking : batch) {
+				HistoryBean details = booking.history;
+				history.setString(1, details.getTransId());
+				history.setString(2, details.getMailId());
+				history.setLong(3, booking.bucket.trainNo);
+				history.setDate(4, Date.valueOf(booking.bucket.date));
+				history.setInt(5, stationIds.get(details.getFrom_stn()));
+				history.setInt(6, stationIds.get(details.getTo_stn()));
+				history.setInt(7, details.getSeats());
+				history.setDouble(8, details.getAmount());
+				history.addBatch();
+			}
+			for (Map.Entry<Bucket, Integer> bucket : taken.entrySet()) {
+				Bucket key = bucket.getKey();
+				Date date = Date.valueOf(key.date);
+				open.setDate(1, date);
+				open.setString(2, key.seatClass.getCode());
+				open.setInt(3, key.seatClass.getShare());
+				open.setLong(4, key.trainNo);
+				open.setLong(5, key.trainNo);
+				open.setDate(6, date);
+				open.setString(7, key.seatClass.getCode());
+				open.addBatch();
+				take.setInt(1, bucket.getValue());
+				take.setLong(2, key.trainNo);
+				take.setDate(3, date);
+				take.setString(4, key.seatClass.getCode());
+				take.addBatch();
+			}
+			history.executeBatch();
+			open.executeBatch();
+			take.executeBatch();
+			con.commit();
+		}
+	}
+
+	private AtomicInteger counter(Bucket bucket, Integer trainSeats) throws TrainException {
+		AtomicInteger counter = counters.get(bucket);
+		if (counter != null) {
+			return counter;
+		}
+		int seats = loads.execute(bucket, () -> load(bucket, trainSeats == null ? 0 : trainSeats));
+		// A caller that loaded the bucket before may have installed it and booked from it since
+		AtomicInteger loaded = counters.putIfAbsent(bucket, new AtomicInteger(seats));
+		return loaded == null ? counters.get(bucket) : loaded;
+	}
+
+	// Seats left in the table, which holds every committed booking, or the full quota of an unbooked bucket
+	private static int load(Bucket bucket, int trainSeats) throws TrainException {
+		try (Connection con = DBUtil.getConnection(); PreparedStatement ps = con.prepareStatement(SEATS_QUERY)) {
+			QueryTimeouts.apply(ps, QueryType.LOOKUP);
+			ps.setLong(1, bucket.trainNo);
+			ps.setDate(2, Date.valueOf(bucket.date));
+			ps.setString(3, bucket.seatClass.getCode());
+			ResultSet rs = ps.executeQuery();
+			return rs.next() ? rs.getInt(1) : bucket.seatClass.quota(trainSeats);
+		} catch (SQLException e) {
+			System.out.println(e.getMessage());
+			throw QueryTimeouts.toTrainException(e);
+		}
+	}
+
+	public int getPending() {
+		return unwritten.get();
+	}
+
+	public long getConfirmed() {
+		return confirmed.get();
+	}
+
+	public long getPersisted() {
+		return persisted.get();
+	}
+
+	public long getFailedFlushes() {
+		return failedFlushes.get();
+	}
+
+	public long getDeadLettered() {
+		return deadLettered.get();
+	}
+
+	private static final class Bucket {
+
+		private final long trainNo;
+		private final LocalDate date;
+		private final SeatClass seatClass;
+
+		private Bucket(long trainNo, LocalDate date, SeatClass seatClass) {
+			this.trainNo = trainNo;
+			this.date = date;
+			this.seatClass = seatClass;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Bucket)) {
+				return false;
+			}
+			Bucket other = (Bucket) o;
+			return trainNo == other.trainNo && date.equals(other.date) && seatClass == other.seatClass;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(trainNo, date, seatClass);
+		}
+	}
+
+	private static final class Booking {
+
+		private final Bucket bucket;
+		private final HistoryBean history;
+
+		private Booking(Bucket bucket, HistoryBean history) {
+			this.bucket = bucket;
+			this.history = history;
+		}
+	}
+}
@@ -0,0 +1,79 @@
+package com.shashi.utility;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.shashi.beans.TrainException;
+import com.shashi.constant.ResponseCode;
+
+//Collapses concurrent calls for the same key into one: the first caller runs the load and the ones
+//arriving while it is in flight wait for it and get the same result or the same exception.
+//The result is shared, callers that hand it out must copy anything mutable.
+public class SingleFlight<K, V> {
+
+	public interface Call<V> {
+		V call() throws TrainException;
+	}
+
+	private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<K, CompletableFuture<V>>();
+	private final AtomicLong calls = new AtomicLong();
+	private final AtomicLong shared = new AtomicLong();
+
+	public V execute(K key, Call<V> call) throws TrainException {
+		CompletableFuture<V> flight = new CompletableFuture<V>();
+		CompletableFuture<V> running = inFlight.putIfAbsent(key, flight);
+		if (running != null) {
+			shared.incrementAndGet();
+			return await(running);
+		}
+		calls.incrementAndGet();
+		try {
+			V value = call.call();
+			flight.complete(value);
+			return value;
+		} catch (TrainException | RuntimeException | Error e) {
+			flight.completeExceptionally(e);
+			throw e;
+		} finally {
+			inFlight.remove(key, flight);
+		}
+	}
+
+	// Callers arriving after this start a new load, used when a write made the running one stale
+	public void forget(K key) {
+		if (key != null) {
+			inFlight.remove(key);
+		}
+	}
+
+	// Loads actually run
+	public long getCalls() {
+		return calls.get();
+	}
+
+	// Calls answered by a load another caller had already started
+	public long getShared() {
+		return shared.get();
+	}
+
+	private V await(CompletableFuture<V> running) throws TrainException {
+		try {
+			return running.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new TrainException(ResponseCode.SERVICE_UNAVAILABLE);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof TrainException) {
+				throw (TrainException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw (RuntimeException) cause;
+		}
+	}
+}
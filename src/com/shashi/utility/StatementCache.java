@@ -0,0 +1,189 @@
+package com.shashi.utility;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+//LRU cache of prepared statements for one physical connection, keyed by the SQL text
+//Closing a cached statement closes its result set and undoes per-use settings instead of the statement,
+//so the next prepare of the same SQL reuses it
+public class StatementCache {
+
+	private final Connection physical;
+	private final int maxSize;
+	private final AtomicLong hits;
+	private final AtomicLong misses;
+	private final LinkedHashMap<String, CachedStatement> statements;
+
+	public StatementCache(Connection physical, int maxSize, AtomicLong hits, AtomicLong misses) {
+		this.physical = physical;
+		this.maxSize = maxSize;
+		this.hits = hits;
+		this.misses = misses;
+		this.statements = new LinkedHashMap<String, CachedStatement>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+				if (size() <= StatementCache.this.maxSize) {
+					return false;
+				}
+				eldest.getValue().evict();
+				return true;
+			}
+		};
+	}
+
+	// Only ever called by the thread that currently holds the connection
+	public PreparedStatement prepareStatement(String sql) throws SQLException {
+		CachedStatement cached = statements.get(sql);
+		if (cached != null && cached.evicted && !cached.inUse) {
+			// Closed because it could not be reset, prepare it again
+			statements.remove(sql);
+			cached = null;
+		}
+		if (cached != null && !cached.inUse) {
+			hits.incrementAndGet();
+			return cached.lend();
+		}
+		misses.incrementAndGet();
+		PreparedStatement ps = physical.prepareStatement(sql);
+		if (cached != null) {
+			// Same SQL already open on this connection, hand out a plain statement
+			return ps;
+		}
+		try {
+			cached = new CachedStatement(ps);
+		} catch (SQLException e) {
+			ps.close();
+			throw e;
+		}
+		statements.put(sql, cached);
+		return cached.lend();
+	}
+
+	public int size() {
+		return statements.size();
+	}
+
+	public void clear() {
+		for (CachedStatement cached : statements.values()) {
+			cached.evict();
+		}
+		statements.clear();
+	}
+
+	private static class CachedStatement implements InvocationHandler {
+
+		private final PreparedStatement statement;
+		// Driver defaults, put back when a borrower changed them
+		private final int fetchSize;
+		private final int maxRows;
+		private PreparedStatement proxy;
+		private boolean inUse;
+		private boolean evicted;
+
+		CachedStatement(PreparedStatement statement) throws SQLException {
+			this.statement = statement;
+			this.fetchSize = statement.getFetchSize();
+			this.maxRows = statement.getMaxRows();
+		}
+
+		PreparedStatement lend() {
+			inUse = true;
+			proxy = (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+					new Class<?>[] { PreparedStatement.class }, this);
+			return proxy;
+		}
+
+		void evict() {
+			evicted = true;
+			if (!inUse) {
+				closeQuietly();
+			}
+		}
+
+		@Override
+		public Object invoke(Object proxyInstance, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+			switch (name) {
+			case "equals":
+				return proxyInstance == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxyInstance);
+			case "toString":
+				return "Cached" + statement.toString();
+			default:
+				break;
+			}
+			if (proxyInstance != proxy) {
+				if ("close".equals(name)) {
+					return null;
+				}
+				if ("isClosed".equals(name)) {
+					return Boolean.TRUE;
+				}
+				throw new SQLException("Statement has already been closed");
+			}
+			switch (name) {
+			case "close":
+				proxy = null;
+				inUse = false;
+				if (evicted) {
+					closeQuietly();
+				} else {
+					try {
+						reset();
+					} catch (SQLException e) {
+						evicted = true;
+						closeQuietly();
+					}
+				}
+				return null;
+			case "isClosed":
+				return Boolean.FALSE;
+			default:
+				try {
+					return method.invoke(statement, args);
+				} catch (InvocationTargetException e) {
+					throw e.getCause();
+				}
+			}
+		}
+
+		// Leaves the statement as a fresh prepare would, the next borrower may run the same SQL differently
+		private void reset() throws SQLException {
+			ResultSet rs = statement.getResultSet();
+			if (rs != null) {
+				rs.close();
+			}
+			// Max rows first, some drivers refuse a fetch size above it
+			if (statement.getMaxRows() != maxRows) {
+				statement.setMaxRows(maxRows);
+			}
+			if (statement.getFetchSize() != fetchSize) {
+				statement.setFetchSize(fetchSize);
+			}
+			statement.clearParameters();
+			statement.clearBatch();
+			statement.clearWarnings();
+		}
+
+		private void closeQuietly() {
+			try {
+				statement.close();
+			} catch (SQLException e) {
+				// nothing left to release
+			}
+		}
+	}
+}
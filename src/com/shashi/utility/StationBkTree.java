@@ -0,0 +1,151 @@
+package com.shashi.utility;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import com.shashi.beans.TrainBean;
+
+//BK-tree of the distinct station names under Levenshtein distance, for searches with a typo in them.
+//Every child sits at its distance from the parent, so a lookup within d of a name only follows the
+//children whose distance is within d of the parent's, skipping most of the names.
+public class StationBkTree extends CatalogIndex {
+
+	private static final StationBkTree INSTANCE = attach(new StationBkTree());
+
+	private final Map<String, Node> nodes = new HashMap<String, Node>();
+	private Node root;
+
+	StationBkTree() {
+	}
+
+	public static StationBkTree getInstance() {
+		return INSTANCE;
+	}
+
+	// Station names in use at most maxDistance edits away from the given name, case insensitive
+	public Set<String> within(String station, int maxDistance) {
+		Set<String> names = new TreeSet<String>();
+		if (station == null) {
+			return names;
+		}
+		String name = StationIndex.normalize(station.trim());
+		lock.readLock().lock();
+		try {
+			if (root == null) {
+				return names;
+			}
+			Deque<Node> pending = new ArrayDeque<Node>();
+			pending.push(root);
+			while (!pending.isEmpty()) {
+				Node node = pending.pop();
+				int distance = distance(name, node.name);
+				if (distance <= maxDistance && node.uses > 0) {
+					names.add(node.name);
+				}
+				// Triangle inequality: a match below this child is between distance - d and distance + d from here
+				for (Map.Entry<Integer, Node> child : node.children.entrySet()) {
+					if (Math.abs(child.getKey() - distance) <= maxDistance) {
+						pending.push(child.getValue());
+					}
+				}
+			}
+			return names;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	protected void clear() {
+		nodes.clear();
+		root = null;
+	}
+
+	@Override
+	protected void add(TrainBean train) {
+		increment(train.getFrom_stn());
+		increment(train.getTo_stn());
+	}
+
+	@Override
+	protected void remove(TrainBean train) {
+		decrement(train.getFrom_stn());
+		decrement(train.getTo_stn());
+	}
+
+	private void increment(String station) {
+		if (station == null) {
+			return;
+		}
+		// Not trimmed, the names have to match the ones StationIndex and TrainColumns look up
+		String name = StationIndex.normalize(station);
+		Node node = nodes.get(name);
+		if (node != null) {
+			node.uses++;
+			return;
+		}
+		node = new Node(name);
+		nodes.put(name, node);
+		if (root == null) {
+			root = node;
+			return;
+		}
+		Node parent = root;
+		while (true) {
+			int distance = distance(name, parent.name);
+			Node child = parent.children.get(distance);
+			if (child == null) {
+				parent.children.put(distance, node);
+				return;
+			}
+			parent = child;
+		}
+	}
+
+	// Unused names stay in the tree to keep it connected and are skipped, the next load drops them
+	private void decrement(String station) {
+		if (station == null) {
+			return;
+		}
+		Node node = nodes.get(StationIndex.normalize(station));
+		if (node != null && node.uses > 0) {
+			node.uses--;
+		}
+	}
+
+	// Levenshtein distance with two rows
+	static int distance(String a, String b) {
+		int[] previous = new int[b.length() + 1];
+		int[] current = new int[b.length() + 1];
+		for (int j = 0; j <= b.length(); j++) {
+			previous[j] = j;
+		}
+		for (int i = 1; i <= a.length(); i++) {
+			current[0] = i;
+			for (int j = 1; j <= b.length(); j++) {
+				int substitution = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+				current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+			}
+			int[] swap = previous;
+			previous = current;
+			current = swap;
+		}
+		return previous[b.length()];
+	}
+
+	private static class Node {
+
+		private final String name;
+		private final Map<Integer, Node> children = new HashMap<Integer, Node>();
+		// Trains starting or ending at the station
+		private int uses = 1;
+
+		private Node(String name) {
+			this.name = name;
+		}
+	}
+}
@@ -0,0 +1,185 @@
+package com.shashi.utility;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.shashi.beans.TrainException;
+import com.shashi.constant.QueryType;
+
+//Both directions of the STATION dictionary: station id to canonical name, and canonical name or alias
+//to station id. TRAIN and HISTORY store only the ids, rows are turned back into names through here.
+//Loaded on first use; ids come from a sequence, so an id above the highest one seen means another node
+//added a station and the tables are read again. Callers that already hold a connection pass it in, a
+//second connection borrowed while the first is held can wait forever on an exhausted pool.
+public class StationDirectory {
+
+	private static final StationDirectory INSTANCE = new StationDirectory();
+
+	private static final String STATIONS_QUERY = "SELECT STN_ID, STN_NAME FROM STATION";
+	private static final String ALIASES_QUERY = "SELECT ALIAS, STN_ID FROM STATION_ALIAS";
+	private static final String NEXT_ID_QUERY = "SELECT STATION_SEQ.NEXTVAL FROM DUAL";
+	private static final String INSERT_QUERY = "INSERT INTO STATION (STN_ID, STN_NAME) VALUES (?, ?)";
+
+	// Replaced as a whole with a single volatile write, readers never see a half loaded directory
+	private volatile Stations current;
+
+	// Instances other than the shared one are only for tests
+	StationDirectory() {
+	}
+
+	public static StationDirectory getInstance() {
+		return INSTANCE;
+	}
+
+	// Canonical name of the station, null for an id that does not exist
+	public String nameOf(int id) throws SQLException {
+		return nameOf(null, id);
+	}
+
+	// Same as nameOf(id), reading the tables through con when they have to be read, null borrows one
+	public String nameOf(Connection con, int id) throws SQLException {
+		Stations stations = loaded(con);
+		String name = stations.names.get(id);
+		if (name == null && id > stations.maxId) {
+			refresh(con);
+			name = current.names.get(id);
+		}
+		return name;
+	}
+
+	// Id of the station with this name or alias, case insensitive, null when there is none
+	public Integer find(String station) throws SQLException {
+		Stations stations = loaded(null);
+		return station == null ? null : stations.ids.get(normalize(station));
+	}
+
+	// Id of the station with this name or alias, adding the station when nobody knows it yet
+	// Borrows connections of its own, so writers call it before taking theirs
+	public int resolve(String station) throws SQLException {
+		if (station == null || station.trim().isEmpty()) {
+			throw new SQLException("Station name is required");
+		}
+		Integer id = find(station);
+		if (id != null) {
+			return id;
+		}
+		// Another node may have added it or an alias may have been defined since the last read
+		refresh();
+		id = find(station);
+		if (id != null) {
+			return id;
+		}
+		// Own connection and commit: the caller's write may roll back, a station row may not
+		try (Connection con = DBUtil.getConnection();
+				PreparedStatement next = con.prepareStatement(NEXT_ID_QUERY);
+				PreparedStatement insert = con.prepareStatement(INSERT_QUERY)) {
+			QueryTimeouts.apply(next, QueryType.ADMIN);
+			QueryTimeouts.apply(insert, QueryType.ADMIN);
+			ResultSet rs = next.executeQuery();
+			rs.next();
+			int newId = rs.getInt(1);
+			insert.setInt(1, newId);
+			insert.setString(2, normalize(station));
+			insert.executeUpdate();
+			if (!con.getAutoCommit()) {
+				con.commit();
+			}
+		} catch (SQLException e) {
+			if (!Dialect.current().isUniqueViolation(e)) {
+				throw e;
+			}
+			// Added by another node at the same moment, use theirs
+		} catch (TrainException e) {
+			throw new SQLException(e.getMessage(), e);
+		}
+		refresh();
+		id = find(station);
+		if (id == null) {
+			throw new SQLException("Unable to add station " + station);
+		}
+		return id;
+	}
+
+	// Reads the STATION and STATION_ALIAS tables again
+	public void refresh() throws SQLException {
+		refresh(null);
+	}
+
+	// Reads the tables through con, which is left open, or through a borrowed connection when con is null
+	public void refresh(Connection con) throws SQLException {
+		if (con == null) {
+			try (Connection own = DBUtil.getConnection()) {
+				refresh(own);
+			} catch (TrainException e) {
+				throw new SQLException(e.getMessage(), e);
+			}
+			return;
+		}
+		Map<Integer, String> stations = new HashMap<Integer, String>();
+		Map<String, Integer> aliases = new HashMap<String, Integer>();
+		try (PreparedStatement ps = con.prepareStatement(STATIONS_QUERY);
+				PreparedStatement aliasPs = con.prepareStatement(ALIASES_QUERY)) {
+			QueryTimeouts.apply(ps, QueryType.LOOKUP);
+			QueryTimeouts.apply(aliasPs, QueryType.LOOKUP);
+			ResultSet rs = ps.executeQuery();
+			while (rs.next()) {
+				stations.put(rs.getInt(1), rs.getString(2));
+			}
+			rs = aliasPs.executeQuery();
+			while (rs.next()) {
+				aliases.put(rs.getString(1), rs.getInt(2));
+			}
+		}
+		load(stations, aliases);
+	}
+
+	// Replaces the directory with the given stations by id and aliases to station ids
+	public synchronized void load(Map<Integer, String> stations, Map<String, Integer> aliases) {
+		Map<String, Integer> byName = new HashMap<String, Integer>();
+		int highest = 0;
+		for (Map.Entry<Integer, String> station : stations.entrySet()) {
+			byName.put(normalize(station.getValue()), station.getKey());
+			highest = Math.max(highest, station.getKey());
+		}
+		for (Map.Entry<String, Integer> alias : aliases.entrySet()) {
+			// A canonical name always wins over an alias spelled the same
+			byName.putIfAbsent(normalize(alias.getKey()), alias.getValue());
+		}
+		current = new Stations(new HashMap<Integer, String>(stations), byName, highest);
+	}
+
+	private Stations loaded(Connection con) throws SQLException {
+		Stations stations = current;
+		if (stations == null) {
+			synchronized (this) {
+				if (current == null) {
+					refresh(con);
+				}
+				stations = current;
+			}
+		}
+		return stations;
+	}
+
+	private static String normalize(String station) {
+		return StationIndex.normalize(station.trim());
+	}
+
+	// One loaded directory, never changed after it is published
+	private static final class Stations {
+
+		private final Map<Integer, String> names;
+		private final Map<String, Integer> ids;
+		private final int maxId;
+
+		private Stations(Map<Integer, String> names, Map<String, Integer> ids, int maxId) {
+			this.names = names;
+			this.ids = ids;
+			this.maxId = maxId;
+		}
+	}
+}
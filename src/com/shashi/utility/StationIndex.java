@@ -0,0 +1,205 @@
+package com.shashi.utility;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import com.shashi.beans.TrainBean;
+
+//Answers "trains whose FROM_STN contains x and TO_STN contains y" without scanning every train.
+//Distinct station names are indexed by their trigrams, a fragment is matched against the names
+//sharing all of its trigrams and the trains of the matching names are intersected.
+public class StationIndex extends CatalogIndex {
+
+	private static final int GRAM = 3;
+
+	private static final StationIndex INSTANCE = attach(new StationIndex());
+
+	// Normalized station name to the trains leaving from / arriving at it
+	private final Map<String, Set<Long>> departures = new HashMap<String, Set<Long>>();
+	private final Map<String, Set<Long>> arrivals = new HashMap<String, Set<Long>>();
+	// Trigram to the station names containing it
+	private final Map<String, Set<String>> grams = new HashMap<String, Set<String>>();
+	// Trains using each name, a name leaves the trigram index when this drops to zero
+	private final Map<String, Integer> nameUses = new HashMap<String, Integer>();
+
+	StationIndex() {
+	}
+
+	public static StationIndex getInstance() {
+		return INSTANCE;
+	}
+
+	// Train numbers in ascending order, matching is case insensitive like UPPER(..) LIKE UPPER('%x%')
+	public Set<Long> findBetween(String fromFragment, String toFragment) {
+		lock.readLock().lock();
+		try {
+			Set<Long> from = trainsMatching(departures, fromFragment);
+			if (from.isEmpty()) {
+				return from;
+			}
+			Set<Long> to = trainsMatching(arrivals, toFragment);
+			from.retainAll(to);
+			return from;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	// Train numbers in ascending order for trains between any of the given normalized station names
+	public Set<Long> findBetweenStations(Collection<String> fromStations, Collection<String> toStations) {
+		lock.readLock().lock();
+		try {
+			Set<Long> from = trainsOf(departures, fromStations);
+			if (from.isEmpty()) {
+				return from;
+			}
+			from.retainAll(trainsOf(arrivals, toStations));
+			return from;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	// Distinct station names containing the fragment
+	public Set<String> findStations(String fragment) {
+		lock.readLock().lock();
+		try {
+			return new TreeSet<String>(namesContaining(normalize(fragment)));
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	protected void clear() {
+		departures.clear();
+		arrivals.clear();
+		grams.clear();
+		nameUses.clear();
+	}
+
+	private Set<Long> trainsMatching(Map<String, Set<Long>> stations, String fragment) {
+		return trainsOf(stations, namesContaining(normalize(fragment)));
+	}
+
+	private Set<Long> trainsOf(Map<String, Set<Long>> stations, Collection<String> names) {
+		Set<Long> result = new TreeSet<Long>();
+		for (String name : names) {
+			Set<Long> trains = stations.get(name);
+			if (trains != null) {
+				result.addAll(trains);
+			}
+		}
+		return result;
+	}
+
+	private Collection<String> namesContaining(String fragment) {
+		if (fragment.length() < GRAM) {
+			// Too short to have a trigram, the set of station names is small enough to check directly
+			List<String> names = new ArrayList<String>();
+			for (String name : nameUses.keySet()) {
+				if (name.contains(fragment)) {
+					names.add(name);
+				}
+			}
+			return names;
+		}
+		Set<String> candidates = null;
+		for (int i = 0; i + GRAM <= fragment.length(); i++) {
+			Set<String> names = grams.get(fragment.substring(i, i + GRAM));
+			if (names == null) {
+				return new ArrayList<String>();
+			}
+			if (candidates == null || names.size() < candidates.size()) {
+				Set<String> smaller = new HashSet<String>(names);
+				if (candidates != null) {
+					smaller.retainAll(candidates);
+				}
+				candidates = smaller;
+			} else {
+				candidates.retainAll(names);
+			}
+		}
+		// Sharing every trigram does not guarantee they are contiguous, confirm the substring
+		List<String> names = new ArrayList<String>();
+		for (String name : candidates) {
+			if (name.contains(fragment)) {
+				names.add(name);
+			}
+		}
+		return names;
+	}
+
+	@Override
+	protected void add(TrainBean train) {
+		link(departures, normalize(train.getFrom_stn()), train.getTr_no());
+		link(arrivals, normalize(train.getTo_stn()), train.getTr_no());
+	}
+
+	@Override
+	protected void remove(TrainBean train) {
+		unlink(departures, normalize(train.getFrom_stn()), train.getTr_no());
+		unlink(arrivals, normalize(train.getTo_stn()), train.getTr_no());
+	}
+
+	private void link(Map<String, Set<Long>> stations, String name, Long trainNo) {
+		Set<Long> trains = stations.get(name);
+		if (trains == null) {
+			trains = new HashSet<Long>();
+			stations.put(name, trains);
+		}
+		if (!trains.add(trainNo)) {
+			return;
+		}
+		Integer uses = nameUses.get(name);
+		nameUses.put(name, uses == null ? 1 : uses + 1);
+		if (uses == null) {
+			for (int i = 0; i + GRAM <= name.length(); i++) {
+				String gram = name.substring(i, i + GRAM);
+				Set<String> names = grams.get(gram);
+				if (names == null) {
+					names = new HashSet<String>();
+					grams.put(gram, names);
+				}
+				names.add(name);
+			}
+		}
+	}
+
+	private void unlink(Map<String, Set<Long>> stations, String name, Long trainNo) {
+		Set<Long> trains = stations.get(name);
+		if (trains == null || !trains.remove(trainNo)) {
+			return;
+		}
+		if (trains.isEmpty()) {
+			stations.remove(name);
+		}
+		int uses = nameUses.get(name) - 1;
+		if (uses > 0) {
+			nameUses.put(name, uses);
+			return;
+		}
+		nameUses.remove(name);
+		for (int i = 0; i + GRAM <= name.length(); i++) {
+			String gram = name.substring(i, i + GRAM);
+			Set<String> names = grams.get(gram);
+			if (names != null) {
+				names.remove(name);
+				if (names.isEmpty()) {
+					grams.remove(gram);
+				}
+			}
+		}
+	}
+
+	static String normalize(String station) {
+		return String.valueOf(station).toUpperCase(Locale.ROOT);
+	}
+}
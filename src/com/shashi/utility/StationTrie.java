@@ -0,0 +1,163 @@
+package com.shashi.utility;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import com.shashi.beans.TrainBean;
+
+//Prefix trie of the distinct FROM_STN / TO_STN names for station autocomplete.
+//Each name counts the trains starting or ending there, completions are ranked by that count.
+public class StationTrie extends CatalogIndex {
+
+	private static final StationTrie INSTANCE = attach(new StationTrie());
+
+	// Most used stations first, ties in alphabetical order
+	private static final Comparator<Node> RANK = (a, b) -> a.count != b.count ? Integer.compare(b.count, a.count)
+			: a.name.compareTo(b.name);
+
+	private final Node root = new Node();
+
+	StationTrie() {
+	}
+
+	public static StationTrie getInstance() {
+		return INSTANCE;
+	}
+
+	// Up to limit station names starting with the prefix, case insensitive
+	public List<String> complete(String prefix, int limit) {
+		if (limit < 1) {
+			return new ArrayList<String>();
+		}
+		String key = prefix == null ? "" : StationIndex.normalize(prefix.trim());
+		lock.readLock().lock();
+		try {
+			Node node = find(key);
+			if (node == null) {
+				return new ArrayList<String>();
+			}
+			// Keep the best limit names seen so far, the worst of them on top
+			PriorityQueue<Node> best = new PriorityQueue<Node>(limit + 1, RANK.reversed());
+			Deque<Node> pending = new ArrayDeque<Node>();
+			pending.push(node);
+			while (!pending.isEmpty()) {
+				Node current = pending.pop();
+				if (current.count > 0) {
+					best.offer(current);
+					if (best.size() > limit) {
+						best.poll();
+					}
+				}
+				for (Node child : current.children.values()) {
+					pending.push(child);
+				}
+			}
+			List<Node> ranked = new ArrayList<Node>(best);
+			Collections.sort(ranked, RANK);
+			List<String> names = new ArrayList<String>(ranked.size());
+			for (Node match : ranked) {
+				names.add(match.name);
+			}
+			return names;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	// Trains starting or ending at the station, 0 when unknown
+	public int getCount(String station) {
+		lock.readLock().lock();
+		try {
+			Node node = find(StationIndex.normalize(station));
+			return node == null ? 0 : node.count;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	protected void clear() {
+		root.children.clear();
+	}
+
+	@Override
+	protected void add(TrainBean train) {
+		increment(train.getFrom_stn());
+		increment(train.getTo_stn());
+	}
+
+	@Override
+	protected void remove(TrainBean train) {
+		decrement(train.getFrom_stn());
+		decrement(train.getTo_stn());
+	}
+
+	private void increment(String station) {
+		if (station == null) {
+			return;
+		}
+		String name = StationIndex.normalize(station.trim());
+		if (name.isEmpty()) {
+			return;
+		}
+		Node node = root;
+		for (int i = 0; i < name.length(); i++) {
+			Node child = node.children.get(name.charAt(i));
+			if (child == null) {
+				child = new Node();
+				node.children.put(name.charAt(i), child);
+			}
+			node = child;
+		}
+		node.name = name;
+		node.count++;
+	}
+
+	private void decrement(String station) {
+		if (station == null) {
+			return;
+		}
+		String name = StationIndex.normalize(station.trim());
+		Node node = find(name);
+		if (node == null || node.count == 0) {
+			return;
+		}
+		List<Node> path = new ArrayList<Node>(name.length() + 1);
+		path.add(root);
+		for (int i = 0; i < name.length(); i++) {
+			path.add(path.get(i).children.get(name.charAt(i)));
+		}
+		node.count--;
+		// Drop the branch back to the last node still leading somewhere
+		for (int i = name.length(); i > 0; i--) {
+			Node current = path.get(i);
+			if (current.count > 0 || !current.children.isEmpty()) {
+				break;
+			}
+			path.get(i - 1).children.remove(name.charAt(i - 1));
+		}
+	}
+
+	private Node find(String name) {
+		Node node = root;
+		for (int i = 0; i < name.length() && node != null; i++) {
+			node = node.children.get(name.charAt(i));
+		}
+		return node;
+	}
+
+	private static class Node {
+
+		private final Map<Character, Node> children = new HashMap<Character, Node>();
+		// Set once a station ends at this node
+		private String name;
+		private int count;
+	}
+}
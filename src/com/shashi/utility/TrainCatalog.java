@@ -0,0 +1,128 @@
+package com.shashi.utility;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.shashi.beans.TrainBean;
+
+//In-memory copy of the TRAIN table, loaded once and then kept current by the service writes.
+//Indexes built from it register as listeners and are told about every change. The trains are held as
+//an immutable CatalogSnapshot: readers take the current one with a single volatile read and never lock,
+//writers copy it, apply their change and publish the copy as the next version.
+public class TrainCatalog {
+
+	private static final TrainCatalog INSTANCE = new TrainCatalog();
+
+	private final List<CatalogListener> listeners = new CopyOnWriteArrayList<CatalogListener>();
+	// Replaced as a whole by the writers, who serialize on this catalog
+	private volatile CatalogSnapshot current = CatalogSnapshot.EMPTY;
+
+	public static TrainCatalog getInstance() {
+		return INSTANCE;
+	}
+
+	// The current version, stays the same for the caller however many writes follow
+	public CatalogSnapshot getSnapshot() {
+		return current;
+	}
+
+	// Registers the listener and replays the current catalog to it when already loaded
+	public synchronized void addListener(CatalogListener listener) {
+		listeners.add(listener);
+		if (current.isLoaded()) {
+			listener.catalogLoaded(new ArrayList<TrainBean>(current.trains()));
+		}
+	}
+
+	public boolean isLoaded() {
+		return current.isLoaded();
+	}
+
+	// Taken before reading the trains from the database and handed back to load
+	public long stamp() {
+		return current.getVersion();
+	}
+
+	// Replaces the catalog unless a write happened since the stamp was taken, the caller then reads again
+	public synchronized boolean load(Collection<TrainBean> all, long stamp) {
+		if (stamp != current.getVersion()) {
+			return false;
+		}
+		NavigableMap<Long, TrainBean> trains = new TreeMap<Long, TrainBean>();
+		for (TrainBean train : all) {
+			trains.put(train.getTr_no(), copyOf(train));
+		}
+		current = current.next(true, trains);
+		List<TrainBean> loaded = new ArrayList<TrainBean>(trains.values());
+		for (CatalogListener listener : listeners) {
+			listener.catalogLoaded(loaded);
+		}
+		return true;
+	}
+
+	// Forgets everything, the next reader loads the catalog again
+	public synchronized void clear() {
+		current = current.next(false, new TreeMap<Long, TrainBean>());
+		for (CatalogListener listener : listeners) {
+			listener.catalogLoaded(new ArrayList<TrainBean>());
+		}
+	}
+
+	public synchronized void put(TrainBean train) {
+		if (!current.isLoaded() || train == null || train.getTr_no() == null) {
+			// Still a new version, a load that read the table before this write must not be kept
+			current = current.touch();
+			return;
+		}
+		TrainBean saved = copyOf(train);
+		NavigableMap<Long, TrainBean> trains = current.copyTrains();
+		TrainBean previous = trains.put(saved.getTr_no(), saved);
+		current = current.next(true, trains);
+		for (CatalogListener listener : listeners) {
+			listener.trainSaved(previous, saved);
+		}
+	}
+
+	public synchronized void remove(Long trainNo) {
+		if (!current.isLoaded() || trainNo == null || !current.contains(trainNo)) {
+			current = current.touch();
+			return;
+		}
+		NavigableMap<Long, TrainBean> trains = current.copyTrains();
+		TrainBean previous = trains.remove(trainNo);
+		current = current.next(true, trains);
+		for (CatalogListener listener : listeners) {
+			listener.trainRemoved(previous);
+		}
+	}
+
+	// Copy of the train, null when unknown
+	public TrainBean getTrain(Long trainNo) {
+		return current.getTrain(trainNo);
+	}
+
+	// Copies of the trains in the order given, unknown numbers are skipped
+	public List<TrainBean> getTrains(Collection<Long> trainNos) {
+		return current.getTrains(trainNos);
+	}
+
+	public int size() {
+		return current.size();
+	}
+
+	// Callers modify the beans they get, so the catalog never hands out its own copy
+	public static TrainBean copyOf(TrainBean train) {
+		TrainBean copy = new TrainBean();
+		copy.setTr_no(train.getTr_no());
+		copy.setTr_name(train.getTr_name());
+		copy.setFrom_stn(train.getFrom_stn());
+		copy.setTo_stn(train.getTo_stn());
+		copy.setSeats(train.getSeats());
+		copy.setFare(train.getFare());
+		return copy;
+	}
+}
@@ -0,0 +1,184 @@
+package com.shashi.utility;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import com.shashi.beans.TrainException;
+import com.shashi.constant.QueryType;
+
+//Invalidation bus between application nodes sharing one database. Every train write adds a row to
+//TRAIN_CHANGE in the same transaction, each node polls the table and refreshes the trains changed
+//elsewhere. The change id comes from a sequence and is the version of that train.
+public class TrainChangeLog {
+
+	private static final String RECORD_QUERY = "INSERT INTO TRAIN_CHANGE (CHANGE_ID, TR_NO, CHANGED_AT) VALUES (TRAIN_CHANGE_SEQ.NEXTVAL, ?, SYSTIMESTAMP)";
+	private static final String POLL_QUERY = "SELECT CHANGE_ID, TR_NO, CHANGED_AT FROM TRAIN_CHANGE WHERE CHANGED_AT > ? ORDER BY CHANGE_ID";
+	private static final String PURGE_QUERY = "DELETE FROM TRAIN_CHANGE WHERE CHANGED_AT < ?";
+
+	private static final TrainChangeLog INSTANCE = new TrainChangeLog(
+			Boolean.parseBoolean(AppConfig.getString("cluster.changeLog.enabled", "false")),
+			AppConfig.getLong("cluster.changeLog.pollIntervalMs", 1000),
+			AppConfig.getLong("cluster.changeLog.overlapMs", 60000),
+			AppConfig.getLong("cluster.changeLog.retentionMs", 86400000));
+
+	private final boolean enabled;
+	private final long pollIntervalMs;
+	private final long overlapMs;
+	private final long retentionMs;
+
+	// Newest version applied per train, forgotten once older than the overlap window
+	private final Map<Long, Applied> applied = new HashMap<Long, Applied>();
+	private Timestamp highWater;
+	private boolean caughtUp;
+	private long lastPurge;
+	private ScheduledExecutorService poller;
+
+	TrainChangeLog(boolean enabled, long pollIntervalMs, long overlapMs, long retentionMs) {
+		this.enabled = enabled;
+		this.pollIntervalMs = pollIntervalMs;
+		this.overlapMs = overlapMs;
+		this.retentionMs = retentionMs;
+	}
+
+	public static TrainChangeLog getInstance() {
+		return INSTANCE;
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	// Called before the train write so it and its change row commit together
+	public void begin(Connection con) throws SQLException {
+		if (enabled) {
+			con.setAutoCommit(false);
+		}
+	}
+
+	// Adds the change row for the train and commits the transaction started by begin
+	public void commit(Connection con, Long trainNo) throws SQLException {
+		if (!enabled) {
+			return;
+		}
+		if (trainNo == null) {
+			con.commit();
+			return;
+		}
+		try (PreparedStatement ps = con.prepareStatement(RECORD_QUERY)) {
+			QueryTimeouts.apply(ps, QueryType.ADMIN);
+			ps.setLong(1, trainNo);
+			ps.executeUpdate();
+		}
+		con.commit();
+	}
+
+	// Polls the change log in the background and hands every train changed since to the refresher
+	public synchronized void start(Consumer<Long> refresher) {
+		if (!enabled || poller != null) {
+			return;
+		}
+		poller = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "train-change-poller");
+			t.setDaemon(true);
+			return t;
+		});
+		poller.scheduleWithFixedDelay(() -> {
+			if (!ConnectionManager.getInstance().isReady()) {
+				return;
+			}
+			try {
+				poll(refresher);
+			} catch (SQLException | TrainException | RuntimeException e) {
+				System.out.println("Train change log poll failed: " + e.getMessage());
+			}
+		}, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+	}
+
+	public synchronized void stop() {
+		if (poller != null) {
+			poller.shutdownNow();
+			poller = null;
+		}
+	}
+
+	// Applies the changes not seen yet, returns how many trains were refreshed
+	// A change committed late can carry an older timestamp than ones already read, so every poll reads
+	// the overlap window again and the per train versions skip what was applied before
+	public synchronized int poll(Consumer<Long> refresher) throws SQLException, TrainException {
+		Set<Long> changed = new HashSet<Long>();
+		Timestamp newest = highWater;
+		try (Connection con = DBUtil.getConnection(); PreparedStatement ps = con.prepareStatement(POLL_QUERY)) {
+			QueryTimeouts.apply(ps, QueryType.LOOKUP);
+			ps.setTimestamp(1, new Timestamp(highWater == null ? 0 : highWater.getTime() - overlapMs));
+			ResultSet rs = ps.executeQuery();
+			while (rs.next()) {
+				long version = rs.getLong(1);
+				long trainNo = rs.getLong(2);
+				Timestamp changedAt = rs.getTimestamp(3);
+				if (newest == null || changedAt.after(newest)) {
+					newest = changedAt;
+				}
+				Applied known = applied.get(trainNo);
+				if (known == null || version > known.version) {
+					applied.put(trainNo, new Applied(version, changedAt.getTime()));
+					changed.add(trainNo);
+				}
+			}
+			purge(con, newest);
+		}
+		highWater = newest;
+		if (!caughtUp) {
+			// Everything up to the first poll is already in the database this node loads from
+			caughtUp = true;
+			return 0;
+		}
+		for (Long trainNo : changed) {
+			refresher.accept(trainNo);
+		}
+		return changed.size();
+	}
+
+	private void purge(Connection con, Timestamp newest) throws SQLException {
+		if (newest == null) {
+			return;
+		}
+		for (Iterator<Applied> it = applied.values().iterator(); it.hasNext();) {
+			if (it.next().changedAt < newest.getTime() - overlapMs) {
+				it.remove();
+			}
+		}
+		long now = System.currentTimeMillis();
+		if (retentionMs <= 0 || now - lastPurge < Math.max(retentionMs / 24, overlapMs)) {
+			return;
+		}
+		lastPurge = now;
+		try (PreparedStatement ps = con.prepareStatement(PURGE_QUERY)) {
+			QueryTimeouts.apply(ps, QueryType.ADMIN);
+			ps.setTimestamp(1, new Timestamp(newest.getTime() - Math.max(retentionMs, overlapMs)));
+			ps.executeUpdate();
+		}
+	}
+
+	private static class Applied {
+
+		private final long version;
+		private final long changedAt;
+
+		Applied(long version, long changedAt) {
+			this.version = version;
+			this.changedAt = changedAt;
+		}
+	}
+}
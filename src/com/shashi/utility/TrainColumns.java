@@ -0,0 +1,167 @@
+package com.shashi.utility;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import com.shashi.beans.TrainBean;
+
+//Immutable column-per-field copy of the train catalog ordered by train number. Numbers, seats and fares
+//sit in primitive arrays and stations are ids into one dictionary, so a search walks a few flat arrays
+//and hands back row numbers instead of building a TrainBean per train.
+public final class TrainColumns {
+
+	private static final int[] NO_ROWS = new int[0];
+
+	private final long[] trainNos;
+	private final String[] names;
+	private final int[] fromIds;
+	private final int[] toIds;
+	private final int[] seats;
+	private final double[] fares;
+	// Station names as stored and upper cased for matching, indexed by station id
+	private final String[] stations;
+	private final String[] normalizedStations;
+
+	private TrainColumns(int size, int stationCount) {
+		trainNos = new long[size];
+		names = new String[size];
+		fromIds = new int[size];
+		toIds = new int[size];
+		seats = new int[size];
+		fares = new double[size];
+		stations = new String[stationCount];
+		normalizedStations = new String[stationCount];
+	}
+
+	// The trains must be in ascending train number order, as the catalog keeps them
+	public static TrainColumns of(Collection<TrainBean> trains) {
+		Map<String, Integer> stationIds = new HashMap<String, Integer>();
+		for (TrainBean train : trains) {
+			idOf(stationIds, train.getFrom_stn());
+			idOf(stationIds, train.getTo_stn());
+		}
+		TrainColumns columns = new TrainColumns(trains.size(), stationIds.size());
+		for (Map.Entry<String, Integer> station : stationIds.entrySet()) {
+			columns.stations[station.getValue()] = station.getKey();
+			columns.normalizedStations[station.getValue()] = StationIndex.normalize(station.getKey());
+		}
+		int row = 0;
+		for (TrainBean train : trains) {
+			columns.trainNos[row] = train.getTr_no();
+			columns.names[row] = train.getTr_name();
+			columns.fromIds[row] = stationIds.get(train.getFrom_stn());
+			columns.toIds[row] = stationIds.get(train.getTo_stn());
+			columns.seats[row] = train.getSeats() == null ? 0 : train.getSeats();
+			columns.fares[row] = train.getFare() == null ? 0 : train.getFare();
+			row++;
+		}
+		return columns;
+	}
+
+	public int size() {
+		return trainNos.length;
+	}
+
+	public long getTrainNo(int row) {
+		return trainNos[row];
+	}
+
+	public String getName(int row) {
+		return names[row];
+	}
+
+	public String getFromStation(int row) {
+		return stations[fromIds[row]];
+	}
+
+	public String getToStation(int row) {
+		return stations[toIds[row]];
+	}
+
+	public int getSeats(int row) {
+		return seats[row];
+	}
+
+	public double getFare(int row) {
+		return fares[row];
+	}
+
+	// Rows whose stations contain the fragments, case insensitive like StationIndex, by train number
+	public int[] findBetween(String fromFragment, String toFragment) {
+		return rowsBetween(stationsContaining(fromFragment), stationsContaining(toFragment));
+	}
+
+	// Rows running between any of the given upper cased station names, by train number
+	public int[] findBetween(Set<String> fromStations, Set<String> toStations) {
+		return rowsBetween(stationsIn(fromStations), stationsIn(toStations));
+	}
+
+	// First row with a train number above the given one, size() when there is none
+	public int rowAfter(long trainNo) {
+		int row = Arrays.binarySearch(trainNos, trainNo);
+		return row >= 0 ? row + 1 : -row - 1;
+	}
+
+	// First row with a train number at or above the given one, the rows before it come before the number
+	public int rowFrom(long trainNo) {
+		int row = Arrays.binarySearch(trainNos, trainNo);
+		return row >= 0 ? row : -row - 1;
+	}
+
+	private int[] rowsBetween(boolean[] from, boolean[] to) {
+		if (from == null || to == null) {
+			return NO_ROWS;
+		}
+		// Count first so the result is the only array sized by the number of trains
+		int count = 0;
+		for (int row = 0; row < trainNos.length; row++) {
+			if (from[fromIds[row]] && to[toIds[row]]) {
+				count++;
+			}
+		}
+		int[] rows = new int[count];
+		int next = 0;
+		for (int row = 0; next < count; row++) {
+			if (from[fromIds[row]] && to[toIds[row]]) {
+				rows[next++] = row;
+			}
+		}
+		return rows;
+	}
+
+	// Station ids whose name contains the fragment, null when none does
+	private boolean[] stationsContaining(String fragment) {
+		String normalized = StationIndex.normalize(fragment);
+		boolean[] matches = new boolean[stations.length];
+		boolean any = false;
+		for (int id = 0; id < stations.length; id++) {
+			if (normalizedStations[id].contains(normalized)) {
+				matches[id] = true;
+				any = true;
+			}
+		}
+		return any ? matches : null;
+	}
+
+	// Station ids of the given names, null when none is known
+	private boolean[] stationsIn(Set<String> names) {
+		boolean[] matches = new boolean[stations.length];
+		boolean any = false;
+		for (int id = 0; id < stations.length; id++) {
+			if (names.contains(normalizedStations[id])) {
+				matches[id] = true;
+				any = true;
+			}
+		}
+		return any ? matches : null;
+	}
+
+	private static void idOf(Map<String, Integer> stationIds, String station) {
+		if (!stationIds.containsKey(station)) {
+			stationIds.put(station, stationIds.size());
+		}
+	}
+}
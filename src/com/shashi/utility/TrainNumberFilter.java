@@ -0,0 +1,174 @@
+package com.shashi.utility;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.shashi.beans.TrainBean;
+
+//Counting Bloom filter of the train numbers in the catalog. A number it has never seen cannot be in
+//TRAIN, so lookups for it skip the database. Counters instead of bits let deleted trains be taken out.
+public class TrainNumberFilter implements CatalogListener {
+
+	private static final TrainNumberFilter INSTANCE = new TrainNumberFilter(
+			AppConfig.getInt("filter.train.expectedTrains", 10000),
+			Double.parseDouble(AppConfig.getString("filter.train.falsePositiveRate", "0.01")));
+
+	static {
+		TrainCatalog.getInstance().addListener(INSTANCE);
+	}
+
+	private static final int SATURATED = 0xFF;
+
+	private final int expectedTrains;
+	private final double falsePositiveRate;
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private final AtomicLong rejected = new AtomicLong();
+	private final AtomicLong passed = new AtomicLong();
+	private final AtomicLong falsePositives = new AtomicLong();
+
+	private byte[] counters;
+	private int hashes;
+	private int trains;
+
+	TrainNumberFilter(int expectedTrains, double falsePositiveRate) {
+		this.expectedTrains = Math.max(1, expectedTrains);
+		this.falsePositiveRate = falsePositiveRate;
+		size(this.expectedTrains);
+	}
+
+	public static TrainNumberFilter getInstance() {
+		return INSTANCE;
+	}
+
+	// False means the train certainly does not exist, true that it probably does
+	public boolean mightContain(long trainNo) {
+		boolean found = true;
+		lock.readLock().lock();
+		try {
+			long hash = mix(trainNo);
+			for (int i = 0; i < hashes && found; i++) {
+				found = counters[slot(hash, i)] != 0;
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		(found ? passed : rejected).incrementAndGet();
+		return found;
+	}
+
+	// Called when a number the filter let through turned out not to exist
+	public void falsePositive() {
+		falsePositives.incrementAndGet();
+	}
+
+	public long getRejected() {
+		return rejected.get();
+	}
+
+	public long getPassed() {
+		return passed.get();
+	}
+
+	public long getFalsePositives() {
+		return falsePositives.get();
+	}
+
+	// Share of lookups for missing numbers that still went to the database
+	public double getObservedFalsePositiveRate() {
+		long missing = falsePositives.get() + rejected.get();
+		return missing == 0 ? 0 : (double) falsePositives.get() / missing;
+	}
+
+	// Expected false positive rate for the trains currently in the filter, (1 - e^(-kn/m))^k
+	public double getEstimatedFalsePositiveRate() {
+		lock.readLock().lock();
+		try {
+			return Math.pow(1 - Math.exp(-(double) hashes * trains / counters.length), hashes);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public void catalogLoaded(Collection<TrainBean> all) {
+		lock.writeLock().lock();
+		try {
+			// Leave room to grow so adds between reloads keep the rate near the target
+			size(Math.max(expectedTrains, all.size() * 2));
+			for (TrainBean train : all) {
+				add(train);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void trainSaved(TrainBean previous, TrainBean train) {
+		if (previous != null) {
+			// The number never changes on update
+			return;
+		}
+		lock.writeLock().lock();
+		try {
+			add(train);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void trainRemoved(TrainBean previous) {
+		lock.writeLock().lock();
+		try {
+			long hash = mix(previous.getTr_no());
+			for (int i = 0; i < hashes; i++) {
+				int slot = slot(hash, i);
+				int count = counters[slot] & 0xFF;
+				// A saturated counter has lost track of its count and stays set
+				if (count != 0 && count != SATURATED) {
+					counters[slot] = (byte) (count - 1);
+				}
+			}
+			trains--;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private void add(TrainBean train) {
+		long hash = mix(train.getTr_no());
+		for (int i = 0; i < hashes; i++) {
+			int slot = slot(hash, i);
+			int count = counters[slot] & 0xFF;
+			if (count != SATURATED) {
+				counters[slot] = (byte) (count + 1);
+			}
+		}
+		trains++;
+	}
+
+	// m = -n ln(p) / ln(2)^2 counters and k = m/n ln(2) hash functions
+	private void size(int capacity) {
+		double ln2 = Math.log(2);
+		int slots = (int) Math.ceil(-capacity * Math.log(falsePositiveRate) / (ln2 * ln2));
+		counters = new byte[Math.max(64, slots)];
+		hashes = Math.max(1, (int) Math.round((double) counters.length / capacity * ln2));
+		trains = 0;
+	}
+
+	// The i-th slot from two halves of one 64 bit hash, h1 + i * h2
+	private int slot(long hash, int i) {
+		int combined = (int) hash + i * (int) (hash >>> 32);
+		return (combined & Integer.MAX_VALUE) % counters.length;
+	}
+
+	private static long mix(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		h ^= h >>> 32;
+		h *= 0xBF58476D1CE4E5B9L;
+		return h ^ (h >>> 29);
+	}
+}
@@ -0,0 +1,47 @@
+package com.shashi.utility;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import com.shashi.beans.TrainBean;
+
+public class TrainRowMapper extends RowMapper<TrainBean> {
+
+	// Stations are stored as ids and named through the StationDirectory
+	public static final TrainRowMapper ALL = new TrainRowMapper("TR_NO, TR_NAME, FROM_STN_ID, TO_STN_ID, SEATS, FARE");
+
+	private final int trNo;
+	private final int trName;
+	private final int fromStn;
+	private final int toStn;
+	private final int seats;
+	private final int fare;
+
+	public TrainRowMapper(String columns) {
+		super(columns);
+		this.trNo = position("TR_NO");
+		this.trName = position("TR_NAME");
+		this.fromStn = position("FROM_STN_ID");
+		this.toStn = position("TO_STN_ID");
+		this.seats = position("SEATS");
+		this.fare = position("FARE");
+	}
+
+	@Override
+	public TrainBean mapRow(ResultSet rs) throws SQLException {
+		TrainBean train = new TrainBean();
+		if (trNo > 0)
+			train.setTr_no(rs.getLong(trNo));
+		if (trName > 0)
+			train.setTr_name(rs.getString(trName));
+		if (fromStn > 0)
+			train.setFrom_stn(stationName(rs, fromStn));
+		if (toStn > 0)
+			train.setTo_stn(stationName(rs, toStn));
+		if (seats > 0)
+			train.setSeats(rs.getInt(seats));
+		if (fare > 0)
+			train.setFare(rs.getDouble(fare));
+		return train;
+	}
+}
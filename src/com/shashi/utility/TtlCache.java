@@ -0,0 +1,112 @@
+package com.shashi.utility;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Bounded in-process cache, least recently used entries are evicted once maxSize is reached
+//and entries older than ttlMs are treated as missing
+public class TtlCache<K, V> {
+
+	private final int maxSize;
+	private final long ttlMs;
+	private final LinkedHashMap<K, Entry<V>> entries;
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+
+	// Bumped by every invalidation so a load that raced with a write is not cached
+	private long generation;
+
+	public TtlCache(int maxSize, long ttlMs) {
+		if (maxSize < 1) {
+			throw new IllegalArgumentException("Invalid cache size " + maxSize);
+		}
+		this.maxSize = maxSize;
+		this.ttlMs = ttlMs;
+		this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+				if (size() <= TtlCache.this.maxSize) {
+					return false;
+				}
+				evictions.incrementAndGet();
+				return true;
+			}
+		};
+	}
+
+	// Cached value or null when absent or expired
+	public synchronized V get(K key) {
+		Entry<V> entry = entries.get(key);
+		if (entry != null && ttlMs > 0 && System.currentTimeMillis() - entry.loadedAt > ttlMs) {
+			entries.remove(key);
+			evictions.incrementAndGet();
+			entry = null;
+		}
+		if (entry == null) {
+			misses.incrementAndGet();
+			return null;
+		}
+		hits.incrementAndGet();
+		return entry.value;
+	}
+
+	// Taken before loading a value from the database and handed back to putIfCurrent
+	public synchronized long stamp() {
+		return generation;
+	}
+
+	// Caches the value unless something was invalidated since the stamp was taken
+	public synchronized boolean putIfCurrent(K key, V value, long stamp) {
+		if (stamp != generation) {
+			return false;
+		}
+		entries.put(key, new Entry<V>(value));
+		return true;
+	}
+
+	public synchronized void put(K key, V value) {
+		entries.put(key, new Entry<V>(value));
+	}
+
+	public synchronized void invalidate(K key) {
+		generation++;
+		entries.remove(key);
+	}
+
+	public synchronized void clear() {
+		generation++;
+		entries.clear();
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	public long getHits() {
+		return hits.get();
+	}
+
+	public long getMisses() {
+		return misses.get();
+	}
+
+	// Entries dropped for size or age, invalidations are not counted
+	public long getEvictions() {
+		return evictions.get();
+	}
+
+	private static class Entry<V> {
+
+		private final V value;
+		private final long loadedAt = System.currentTimeMillis();
+
+		Entry(V value) {
+			this.value = value;
+		}
+	}
+}
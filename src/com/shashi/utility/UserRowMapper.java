@@ -0,0 +1,49 @@
+package com.shashi.utility;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import com.shashi.beans.UserBean;
+
+public class UserRowMapper extends RowMapper<UserBean> {
+
+	// Profile pages and listings never need the password column
+	public static final UserRowMapper PROFILE = new UserRowMapper("MAILID, FNAME, LNAME, ADDR, PHNO");
+
+	public static final UserRowMapper LOGIN = new UserRowMapper("MAILID, FNAME, LNAME, ADDR, PHNO, PWORD");
+
+	private final int mailId;
+	private final int fName;
+	private final int lName;
+	private final int addr;
+	private final int phNo;
+	private final int pWord;
+
+	public UserRowMapper(String columns) {
+		super(columns);
+		this.mailId = position("MAILID");
+		this.fName = position("FNAME");
+		this.lName = position("LNAME");
+		this.addr = position("ADDR");
+		this.phNo = position("PHNO");
+		this.pWord = position("PWORD");
+	}
+
+	@Override
+	public UserBean mapRow(ResultSet rs) throws SQLException {
+		UserBean user = new UserBean();
+		if (mailId > 0)
+			user.setMailId(rs.getString(mailId));
+		if (fName > 0)
+			user.setFName(rs.getString(fName));
+		if (lName > 0)
+			user.setLName(rs.getString(lName));
+		if (addr > 0)
+			user.setAddr(rs.getString(addr));
+		if (phNo > 0)
+			user.setPhNo(rs.getLong(phNo));
+		if (pWord > 0)
+			user.setPWord(rs.getString(pWord));
+		return user;
+	}
+}
@@ -0,0 +1,93 @@
+package com.shashi.service.impl;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.shashi.beans.TrainBean;
+import com.shashi.beans.TrainException;
+import com.shashi.service.TrainService;
+
+public class AsyncTrainServiceImplTest {
+
+	private TrainService trainService;
+	private AsyncTrainServiceImpl asyncTrainService;
+
+	@Before
+	public void setUp() {
+		trainService = mock(TrainService.class);
+		asyncTrainService = new AsyncTrainServiceImpl(trainService);
+	}
+
+	/**
+	 * Verifies that the lookup runs on the catalog executor rather than the
+	 * calling thread and completes with the blocking service's result.
+	 */
+	@Test
+	public void getTrainByIdCompletesOnCatalogExecutor() throws Exception {
+		// Arrange
+		TrainBean train = new TrainBean();
+		train.setTr_no(10001L);
+		String[] threadName = new String[1];
+		when(trainService.getTrainById("10001")).thenAnswer(invocation -> {
+			threadName[0] = Thread.currentThread().getName();
+			return train;
+		});
+
+		// Act
+		TrainBean result = asyncTrainService.getTrainById("10001").get();
+
+		// Assert
+		assertSame(train, result);
+		assertTrue(threadName[0].startsWith("async-catalog-"));
+	}
+
+	/**
+	 * Verifies that two lookups can be composed concurrently and joined.
+	 */
+	@Test
+	public void lookupsComposeConcurrently() throws Exception {
+		// Arrange
+		TrainBean first = new TrainBean();
+		TrainBean second = new TrainBean();
+		when(trainService.getTrainById("10001")).thenReturn(first);
+		when(trainService.getTrainById("10002")).thenReturn(second);
+
+		// Act
+		CompletableFuture<TrainBean> a = asyncTrainService.getTrainById("10001");
+		CompletableFuture<TrainBean> b = asyncTrainService.getTrainById("10002");
+		List<TrainBean> both = a.thenCombine(b, Arrays::asList).get();
+
+		// Assert
+		assertEquals(Arrays.asList(first, second), both);
+	}
+
+	/**
+	 * Verifies that a TrainException thrown by the blocking service fails the
+	 * future with that same exception.
+	 */
+	@Test
+	public void serviceFailureCompletesExceptionally() throws Exception {
+		// Arrange
+		TrainException failure = new TrainException("Database error");
+		when(trainService.getTrainsBetweenStations("A", "B")).thenThrow(failure);
+
+		// Act
+		CompletableFuture<List<TrainBean>> future = asyncTrainService.getTrainsBetweenStations("A", "B");
+
+		// Assert
+		try {
+			future.get();
+			fail("Expected the future to fail");
+		} catch (ExecutionException e) {
+			assertSame(failure, e.getCause());
+		}
+	}
+}
@@ -1,8 +1,12 @@
 package com.shashi.service.impl;
 
 import com.shashi.beans.HistoryBean;
+import com.shashi.beans.TrainBean;
 import com.shashi.beans.TrainException;
+import com.shashi.constant.SeatClass;
 import com.shashi.utility.DBUtil;
+import com.shashi.utility.Dialect;
+import com.shashi.utility.StationDirectory;
 import org.junit.*;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
@@ -12,11 +16,18 @@ import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import java.sql.CallableStatement;
 import java.sql.Connection;
+import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static org.junit.Assert.*;
@@ -34,11 +45,19 @@ public class BookingServiceImplTest {
 	@Mock
 	private ResultSet mockResultSet;
 
+	@Mock
+	private CallableStatement mockCallableStatement;
+
 	@InjectMocks
 	private BookingServiceImpl bookingService;
 
 	private static MockedStatic<DBUtil> mockedDBUtil;
 
+	private TrainBean train;
+
+	// Station ids in the directory are the position in this list plus one
+	private static final List<String> STATIONS = Arrays.asList("StationA", "StationB", "Station A", "Station B", "Station C", "Station D");
+
 	@BeforeClass
 	public static void setUpClass() {
 		mockedDBUtil = Mockito.mockStatic(DBUtil.class);
@@ -47,11 +66,24 @@ public class BookingServiceImplTest {
 	@Before
 	public void setUp() throws Exception {
 		MockitoAnnotations.openMocks(this);
+		Map<Integer, String> stations = new HashMap<Integer, String>();
+		for (String name : STATIONS) {
+			stations.put(station(name), name);
+		}
+		StationDirectory.getInstance().load(stations, new HashMap<String, Integer>());
 		mockedDBUtil.when(DBUtil::getConnection).thenReturn(mockConnection);
+		mockedDBUtil.when(DBUtil::getReadConnection).thenReturn(mockConnection);
 
 		when(mockConnection.prepareStatement(anyString())).thenReturn(mockPreparedStatement);
 		when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
 		when(mockResultSet.next()).thenReturn(true);
+		train = new TrainBean();
+		train.setTr_no(10001L);
+		train.setTr_name("Express");
+		train.setFrom_stn("StationA");
+		train.setTo_stn("StationB");
+		train.setSeats(100);
+		train.setFare(100.0);
 	}
 
 	@AfterClass
@@ -61,7 +93,8 @@ public class BookingServiceImplTest {
 
 	@After
 	public void tearDown() {
-		reset(mockConnection, mockPreparedStatement, mockResultSet);
+		reset(mockConnection, mockPreparedStatement, mockResultSet, mockCallableStatement);
+		mockedDBUtil.reset();
 	}
 
 	/**
@@ -104,14 +137,14 @@ public class BookingServiceImplTest {
 		when(mockResultSet.next()).thenReturn(true, true, false); // Return true twice for two records, then false
 
 		// Mock the ResultSet data for each column
-		when(mockResultSet.getString("transid")).thenReturn("TRANS123", "TRANS124");
-		when(mockResultSet.getString("mailid")).thenReturn(validCustomerEmail, validCustomerEmail);
-		when(mockResultSet.getString("trainno")).thenReturn("TR123", "TR124");
-		when(mockResultSet.getString("journey_date")).thenReturn("2023-07-15", "2023-07-16");
-		when(mockResultSet.getString("from_stn")).thenReturn("Station A", "Station C");
-		when(mockResultSet.getString("to_stn")).thenReturn("Station B", "Station D");
-		when(mockResultSet.getLong("seats")).thenReturn(2L, 1L);
-		when(mockResultSet.getDouble("amount")).thenReturn(100.0, 50.0);
+		when(mockResultSet.getString(1)).thenReturn("TRANS123", "TRANS124");
+		when(mockResultSet.getString(2)).thenReturn(validCustomerEmail, validCustomerEmail);
+		when(mockResultSet.getString(3)).thenReturn("TR123", "TR124");
+		when(mockResultSet.getString(4)).thenReturn("2023-07-15", "2023-07-16");
+		when(mockResultSet.getInt(5)).thenReturn(station("Station A"), station("Station C"));
+		when(mockResultSet.getInt(6)).thenReturn(station("Station B"), station("Station D"));
+		when(mockResultSet.getInt(7)).thenReturn(2, 1);
+		when(mockResultSet.getDouble(8)).thenReturn(100.0, 50.0);
 
 		// Act
 		List<HistoryBean> result = bookingService.getAllBookingsByCustomerId(validCustomerEmail);
@@ -120,14 +153,68 @@ public class BookingServiceImplTest {
 		assertNotNull("The returned list should not be null", result);
 		assertFalse("The returned list should not be empty", result.isEmpty());
 		assertEquals("Should return 2 bookings", 2, result.size());
+		assertEquals("TRANS123", result.get(0).getTransId());
+		assertEquals("TR124", result.get(1).getTr_no());
+		assertEquals("2023-07-16", result.get(1).getDate());
+		assertEquals(2, result.get(0).getSeats());
+		assertEquals(Double.valueOf(50.0), result.get(1).getAmount());
 
 		// Verify database interactions
+		verify(mockConnection).prepareStatement(
+				"SELECT TRANSID, MAILID, TR_NO, \"DATE\", FROM_STN_ID, TO_STN_ID, SEATS, AMOUNT FROM HISTORY WHERE MAILID=?");
 		verify(mockPreparedStatement).setString(1, validCustomerEmail);
 		verify(mockPreparedStatement).executeQuery();
 		verify(mockResultSet, times(3)).next(); // Called 3 times (twice true, once false)
 
 	}
 	
+	/**
+	 * Verifies that a history page after a (journey date, transaction id) key
+	 * binds both parts of the key and the page size.
+	 */
+	@Test
+	public void getBookingsAfterSeeksPastKey() throws Exception {
+		// Arrange
+		String customerEmail = "test@example.com";
+		when(mockResultSet.next()).thenReturn(true, false);
+		when(mockResultSet.getString(1)).thenReturn("TRANS100");
+
+		// Act
+		List<HistoryBean> result = bookingService.getBookingsAfter(customerEmail, "2024-02-02 00:00:00", "TRANS123",
+				10);
+
+		// Assert
+		assertEquals(1, result.size());
+		assertEquals("TRANS100", result.get(0).getTransId());
+		verify(mockPreparedStatement).setString(1, customerEmail);
+		verify(mockPreparedStatement).setDate(2, Date.valueOf("2024-02-02"));
+		verify(mockPreparedStatement).setDate(3, Date.valueOf("2024-02-02"));
+		verify(mockPreparedStatement).setString(4, "TRANS123");
+		verify(mockPreparedStatement).setInt(5, 10);
+	}
+
+	/**
+	 * Verifies that a page after a booking without a journey date, passed as an
+	 * empty key date, seeks by transaction id among the undated bookings.
+	 */
+	@Test
+	public void getBookingsAfterUndatedKey() throws Exception {
+		// Arrange
+		String customerEmail = "test@example.com";
+		when(mockResultSet.next()).thenReturn(false);
+
+		// Act
+		List<HistoryBean> result = bookingService.getBookingsAfter(customerEmail, "", "TRANS123", 10);
+
+		// Assert
+		assertTrue(result.isEmpty());
+		verify(mockConnection).prepareStatement(contains("\"DATE\" IS NULL AND TRANSID < ? OR \"DATE\" IS NOT NULL"));
+		verify(mockPreparedStatement).setString(1, customerEmail);
+		verify(mockPreparedStatement).setString(2, "TRANS123");
+		verify(mockPreparedStatement).setInt(3, 10);
+		verify(mockPreparedStatement, never()).setDate(anyInt(), any());
+	}
+
 	/**
 	 *  Test ensures that the getAllBookingsByCustomerId method throws a TrainException 
 	 *  when a database error occurs. It mocks an SQLException during executeQuery()
@@ -242,11 +329,142 @@ public class BookingServiceImplTest {
 		verify(mockPreparedStatement).setString(2, details.getMailId());
 		verify(mockPreparedStatement).setString(3, details.getTr_no());
 		verify(mockPreparedStatement).setString(4, details.getDate());
-		verify(mockPreparedStatement).setString(5, details.getFrom_stn());
-		verify(mockPreparedStatement).setString(6, details.getTo_stn());
+		verify(mockPreparedStatement).setInt(5, station(details.getFrom_stn()));
+		verify(mockPreparedStatement).setInt(6, station(details.getTo_stn()));
 		verify(mockPreparedStatement).setLong(7, details.getSeats());
 		verify(mockPreparedStatement).setDouble(8, details.getAmount());
 		verify(mockPreparedStatement).executeUpdate();
 		verify(mockPreparedStatement).close();
 	}
+
+	/**
+	 * Test verifies that reserveSeats records the booking and takes the seats
+	 * from the class's bucket for the date in a single committed transaction.
+	 */
+	@Test
+	public void reserveSeatsCommitsBookingAndSeats() throws SQLException, TrainException {
+		when(mockPreparedStatement.executeUpdate()).thenReturn(1);
+
+		HistoryBean result = bookingService.reserveSeats("test@example.com", train, "2023-07-15",
+				SeatClass.AC_TWO_TIER, 2);
+
+		assertNotNull(result);
+		assertEquals("10001", result.getTr_no());
+		assertEquals("StationA", result.getFrom_stn());
+		assertEquals(200.0, result.getAmount(), 0.001);
+		assertEquals("2023-07-15", result.getDate());
+		// Built from the cached train, nothing is read back
+		verify(mockPreparedStatement).setInt(5, station("StationA"));
+		verify(mockPreparedStatement).setInt(6, station("StationB"));
+		verify(mockPreparedStatement).setDouble(8, 200.0);
+		verify(mockPreparedStatement, never()).executeQuery();
+		// The decrement only applies while the seats are still there
+		verify(mockConnection).prepareStatement("UPDATE SEAT_INVENTORY SET SEATS = SEATS - ? "
+				+ "WHERE TR_NO=? AND JOURNEY_DATE=? AND SEAT_CLASS=? AND SEATS >= ?");
+		verify(mockPreparedStatement).setString(4, "2A");
+		verify(mockPreparedStatement).setDate(4, Date.valueOf("2023-07-15"));
+		verify(mockPreparedStatement).setDate(3, Date.valueOf("2023-07-15"));
+		verify(mockConnection).setAutoCommit(false);
+		verify(mockConnection).commit();
+		verify(mockConnection, never()).rollback();
+	}
+
+	/**
+	 * Test verifies that the first booking of a train, date and class opens its
+	 * bucket with the class's share of the train's seats.
+	 */
+	@Test
+	public void reserveSeatsOpensTheBucketOnFirstBooking() throws SQLException, TrainException {
+		// Booking row in, no bucket to decrement, bucket opened, decrement again
+		when(mockPreparedStatement.executeUpdate()).thenReturn(1, 0, 1, 1);
+
+		assertNotNull(bookingService.reserveSeats("test@example.com", train, "2023-07-15", SeatClass.SLEEPER, 2));
+
+		verify(mockPreparedStatement).setInt(3, SeatClass.SLEEPER.getShare());
+		verify(mockPreparedStatement, times(4)).executeUpdate();
+		verify(mockConnection).commit();
+	}
+
+	/**
+	 * Test verifies that reserveSeats rolls the booking back and returns null
+	 * when the bucket no longer has the seats asked for.
+	 */
+	@Test
+	public void reserveSeatsRollsBackWhenSeatsRunOut() throws SQLException, TrainException {
+		// The booking row goes in, the conditional decrement finds too few seats and the bucket exists
+		when(mockPreparedStatement.executeUpdate()).thenReturn(1, 0);
+
+		assertNull(bookingService.reserveSeats("test@example.com", train, "2023-07-15", SeatClass.SLEEPER, 5));
+
+		verify(mockConnection).rollback();
+		verify(mockConnection, never()).commit();
+	}
+
+	/**
+	 * Test verifies that on Oracle the whole booking is one anonymous block run
+	 * in a single round trip.
+	 */
+	@Test
+	public void reserveSeatsRunsOneBlockOnOracle() throws SQLException, TrainException {
+		mockedDBUtil.when(DBUtil::getDialect).thenReturn(Dialect.ORACLE);
+		when(mockConnection.prepareCall(anyString())).thenReturn(mockCallableStatement);
+		when(mockConnection.getAutoCommit()).thenReturn(true);
+		when(mockCallableStatement.getInt(11)).thenReturn(1);
+
+		HistoryBean result = bookingService.reserveSeats("test@example.com", train, "2023-07-15",
+				SeatClass.AC_TWO_TIER, 2);
+
+		assertNotNull(result);
+		assertEquals(200.0, result.getAmount(), 0.001);
+		verify(mockCallableStatement).setLong(2, 10001L);
+		verify(mockCallableStatement).setDate(3, Date.valueOf("2023-07-15"));
+		verify(mockCallableStatement).setString(4, "2A");
+		verify(mockCallableStatement).setInt(8, station("StationA"));
+		verify(mockCallableStatement).registerOutParameter(11, Types.INTEGER);
+		verify(mockCallableStatement).execute();
+		verify(mockConnection, never()).prepareStatement(anyString());
+		verify(mockConnection, never()).commit();
+	}
+
+	/**
+	 * Test verifies that the Oracle block reports a sold out class as no booking.
+	 */
+	@Test
+	public void reserveSeatsOnOracleReturnsNullWhenSeatsRunOut() throws SQLException, TrainException {
+		mockedDBUtil.when(DBUtil::getDialect).thenReturn(Dialect.ORACLE);
+		when(mockConnection.prepareCall(anyString())).thenReturn(mockCallableStatement);
+		when(mockConnection.getAutoCommit()).thenReturn(true);
+		when(mockCallableStatement.getInt(11)).thenReturn(0);
+
+		assertNull(bookingService.reserveSeats("test@example.com", train, "2023-07-15", SeatClass.SLEEPER, 5));
+	}
+
+	/**
+	 * Test verifies that availability comes from the stored buckets, and that
+	 * classes nobody booked yet still hold their full share of the train.
+	 */
+	@Test
+	public void getAvailableSeatsFillsInUnbookedClasses() throws SQLException, TrainException {
+		when(mockResultSet.next()).thenReturn(true, false);
+		when(mockResultSet.getLong(1)).thenReturn(10001L);
+		when(mockResultSet.getString(2)).thenReturn("2A");
+		when(mockResultSet.getInt(3)).thenReturn(3);
+		Map<Long, Integer> trainSeats = new LinkedHashMap<Long, Integer>();
+		trainSeats.put(10001L, 100);
+		trainSeats.put(10002L, 40);
+
+		Map<Long, Map<SeatClass, Integer>> result = bookingService.getAvailableSeats(trainSeats, "2024-01-20");
+
+		assertEquals(Integer.valueOf(50), result.get(10001L).get(SeatClass.SLEEPER));
+		assertEquals(Integer.valueOf(3), result.get(10001L).get(SeatClass.AC_TWO_TIER));
+		assertEquals(Integer.valueOf(4), result.get(10002L).get(SeatClass.AC_FIRST));
+		verify(mockConnection).prepareStatement(
+				"SELECT TR_NO, SEAT_CLASS, SEATS FROM SEAT_INVENTORY WHERE JOURNEY_DATE=? AND TR_NO IN (?, ?)");
+		verify(mockPreparedStatement).setDate(1, Date.valueOf("2024-01-20"));
+		verify(mockPreparedStatement).setLong(3, 10002L);
+	}
+
+	private static int station(String name) {
+		return STATIONS.indexOf(name) + 1;
+	}
 }
@@ -2,13 +2,23 @@ package com.shashi.service.impl;
 
 import com.shashi.beans.TrainBean;
 import com.shashi.beans.TrainException;
+import com.shashi.constant.QueryType;
 import com.shashi.constant.ResponseCode;
 import com.shashi.utility.DBUtil;
+import com.shashi.utility.QueryTimeouts;
+import com.shashi.utility.StationDirectory;
+import com.shashi.utility.TrainCatalog;
+import com.shashi.utility.TrainChangeLog;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.After;
 import org.junit.AfterClass;
@@ -38,11 +48,17 @@ public class TrainServiceImplTest {
 	@Mock
 	private ResultSet mockResultSet;
 
+	@Mock
+	private TrainChangeLog mockChangeLog;
+
 	@InjectMocks
 	private TrainServiceImpl trainService;
 
 	private static MockedStatic<DBUtil> mockedDBUtil;
 
+	// Station ids in the directory are the position in this list plus one
+	private static final List<String> STATIONS = Arrays.asList("Station A", "Station B", "Station C", "Station D", "HOWRAH", "HAWRAH", "JODHPUR", "JODHPUR CITY", "MUMBAI", "Mumbai Central", "Mumbai CST", "New Delhi", "Delhi Cantt", "Start Station", "End Station", "New Start", "New End");
+
 	@BeforeClass
 	public static void setUpClass() {
 		// Mock static DBUtil.getConnection() once globally
@@ -52,7 +68,16 @@ public class TrainServiceImplTest {
 	@Before
 	public void setUp() throws Exception {
 		MockitoAnnotations.openMocks(this);
+		TrainServiceImpl.getTrainCache().clear();
+		TrainServiceImpl.forgetRecentWrites();
+		TrainCatalog.getInstance().clear();
+		Map<Integer, String> stations = new HashMap<Integer, String>();
+		for (String name : STATIONS) {
+			stations.put(station(name), name);
+		}
+		StationDirectory.getInstance().load(stations, new HashMap<String, Integer>());
 		mockedDBUtil.when(DBUtil::getConnection).thenReturn(mockConnection);
+		mockedDBUtil.when(DBUtil::getReadConnection).thenReturn(mockConnection);
 
 		when(mockConnection.prepareStatement(anyString())).thenReturn(mockPreparedStatement);
 		when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
@@ -83,12 +108,12 @@ public class TrainServiceImplTest {
 		String trainNo = "12345";
 
 		// Setup mock result set data
-		when(mockResultSet.getDouble("fare")).thenReturn(100.0);
-		when(mockResultSet.getString("from_stn")).thenReturn("Station A");
-		when(mockResultSet.getString("to_stn")).thenReturn("Station B");
-		when(mockResultSet.getString("tr_name")).thenReturn("Test Train");
-		when(mockResultSet.getLong("tr_no")).thenReturn(12345L);
-		when(mockResultSet.getInt("seats")).thenReturn(50);
+		when(mockResultSet.getDouble(6)).thenReturn(100.0);
+		when(mockResultSet.getInt(3)).thenReturn(station("Station A"));
+		when(mockResultSet.getInt(4)).thenReturn(station("Station B"));
+		when(mockResultSet.getString(2)).thenReturn("Test Train");
+		when(mockResultSet.getLong(1)).thenReturn(12345L);
+		when(mockResultSet.getInt(5)).thenReturn(50);
 
 		// Act
 		TrainBean result = trainService.getTrainById(trainNo);
@@ -103,19 +128,122 @@ public class TrainServiceImplTest {
 		assertEquals(50, (int) result.getSeats());
 
 		// Verify
-		verify(mockConnection).prepareStatement("SELECT * FROM TRAIN WHERE TR_NO=?");
+		verify(mockConnection).prepareStatement("SELECT TR_NO, TR_NAME, FROM_STN_ID, TO_STN_ID, SEATS, FARE FROM TRAIN WHERE TR_NO=?");
 		verify(mockPreparedStatement).setString(1, trainNo);
 		verify(mockPreparedStatement).executeQuery();
 		verify(mockPreparedStatement).close();
+		verify(mockConnection).close();
 
 		// Verify ResultSet interactions
 		verify(mockResultSet).next();
-		verify(mockResultSet).getDouble("fare");
-		verify(mockResultSet).getString("from_stn");
-		verify(mockResultSet).getString("to_stn");
-		verify(mockResultSet).getString("tr_name");
-		verify(mockResultSet).getLong("tr_no");
-		verify(mockResultSet).getInt("seats");
+		verify(mockResultSet).getDouble(6);
+		verify(mockResultSet).getInt(3);
+		verify(mockResultSet).getInt(4);
+		verify(mockResultSet).getString(2);
+		verify(mockResultSet).getLong(1);
+		verify(mockResultSet).getInt(5);
+	}
+
+	/**
+	 * Verifies that a repeated getTrainById is answered from the train cache
+	 * without another query, and that the cached bean is not shared with callers.
+	 */
+	@Test
+	public void getTrainByIdServesRepeatLookupsFromCache() throws Exception {
+		when(mockResultSet.next()).thenReturn(true, false);
+		when(mockResultSet.getLong(1)).thenReturn(12345L);
+		when(mockResultSet.getString(2)).thenReturn("Test Train");
+		when(mockResultSet.getInt(5)).thenReturn(50);
+
+		TrainBean first = trainService.getTrainById("12345");
+		first.setSeats(10);
+		TrainBean second = trainService.getTrainById("12345");
+
+		assertEquals("Test Train", second.getTr_name());
+		assertEquals(50, (int) second.getSeats());
+		verify(mockPreparedStatement, times(1)).executeQuery();
+		assertEquals(1, TrainServiceImpl.getTrainCache().size());
+	}
+
+	/**
+	 * Verifies that once the catalog is loaded, numbers that are not in the
+	 * train number filter are answered without a query.
+	 */
+	@Test
+	public void getTrainByIdSkipsTheQueryForUnknownNumbers() throws Exception {
+		when(mockResultSet.next()).thenReturn(true, false);
+		when(mockResultSet.getLong(1)).thenReturn(10001L);
+		when(mockResultSet.getInt(3)).thenReturn(station("HOWRAH"));
+		when(mockResultSet.getInt(4)).thenReturn(station("JODHPUR"));
+		trainService.getTrainsBetweenStations("HOWRAH", "JODHPUR");
+		clearInvocations(mockConnection);
+
+		assertNull(trainService.getTrainById("99999"));
+
+		verify(mockConnection, never()).prepareStatement(anyString());
+	}
+
+	/**
+	 * Verifies that updating a train replaces its cached copy with the values
+	 * just written, so the next lookup sees them without a query.
+	 */
+	@Test
+	public void updateTrainCachesWrittenTrain() throws Exception {
+		when(mockResultSet.next()).thenReturn(true, true);
+		when(mockResultSet.getLong(1)).thenReturn(12345L);
+		when(mockResultSet.getInt(5)).thenReturn(50, 49);
+		trainService.getTrainById("12345");
+
+		TrainBean train = new TrainBean();
+		train.setTr_no(12345L);
+		train.setTr_name("Test Train");
+		train.setFrom_stn("Station A");
+		train.setTo_stn("Station B");
+		train.setSeats(49);
+		train.setFare(100.0);
+		when(mockPreparedStatement.executeUpdate()).thenReturn(1);
+		trainService.updateTrain(train);
+
+		assertEquals(49, (int) trainService.getTrainById("12345").getSeats());
+		verify(mockPreparedStatement, times(1)).executeQuery();
+	}
+
+	/**
+	 * Verifies that a lookup right after a train was written reads from the
+	 * primary, since the replica may still return the old row.
+	 */
+	@Test
+	public void lookupAfterWriteReadsFromPrimary() throws Exception {
+		when(mockResultSet.next()).thenReturn(false);
+		when(mockPreparedStatement.executeUpdate()).thenReturn(1);
+		trainService.deleteTrainById("12345");
+		mockedDBUtil.clearInvocations();
+
+		assertNull(trainService.getTrainById("12345"));
+		trainService.getTrainById("12346");
+
+		mockedDBUtil.verify(DBUtil::getConnection, times(1));
+		mockedDBUtil.verify(DBUtil::getReadConnection, times(1));
+	}
+
+	/**
+	 * Verifies that catalog lookups borrow a read connection, so they are served
+	 * by the replica when one is configured, while admin writes stay on the
+	 * primary.
+	 */
+	@Test
+	public void catalogReadsUseReadConnection() throws Exception {
+		mockedDBUtil.clearInvocations();
+		when(mockResultSet.next()).thenReturn(false);
+		when(mockPreparedStatement.executeUpdate()).thenReturn(1);
+
+		trainService.getTrainById("12345");
+		trainService.getAllTrains();
+		trainService.getTrainsBetweenStations("Mumbai", "Delhi");
+		trainService.deleteTrainById("12345");
+
+		mockedDBUtil.verify(DBUtil::getReadConnection, times(3));
+		mockedDBUtil.verify(DBUtil::getConnection, times(1));
 	}
 
 	/**
@@ -140,7 +268,7 @@ public class TrainServiceImplTest {
 		assertNull("Result should be null when no train is found", result);
 
 		// Verify
-		verify(mockConnection).prepareStatement("SELECT * FROM TRAIN WHERE TR_NO=?");
+		verify(mockConnection).prepareStatement("SELECT TR_NO, TR_NAME, FROM_STN_ID, TO_STN_ID, SEATS, FARE FROM TRAIN WHERE TR_NO=?");
 		verify(mockPreparedStatement).setString(1, trainNo);
 		verify(mockPreparedStatement).executeQuery();
 		verify(mockPreparedStatement).close();
@@ -183,12 +311,12 @@ public class TrainServiceImplTest {
 
 		// Arrange
 		when(mockResultSet.next()).thenReturn(true, true, false);
-		when(mockResultSet.getDouble("fare")).thenReturn(100.0, 200.0);
-		when(mockResultSet.getString("from_stn")).thenReturn("Station A", "Station C");
-		when(mockResultSet.getString("to_stn")).thenReturn("Station B", "Station D");
-		when(mockResultSet.getString("tr_name")).thenReturn("Train 1", "Train 2");
-		when(mockResultSet.getLong("tr_no")).thenReturn(1001L, 1002L);
-		when(mockResultSet.getInt("seats")).thenReturn(100, 200);
+		when(mockResultSet.getDouble(6)).thenReturn(100.0, 200.0);
+		when(mockResultSet.getInt(3)).thenReturn(station("Station A"), station("Station C"));
+		when(mockResultSet.getInt(4)).thenReturn(station("Station B"), station("Station D"));
+		when(mockResultSet.getString(2)).thenReturn("Train 1", "Train 2");
+		when(mockResultSet.getLong(1)).thenReturn(1001L, 1002L);
+		when(mockResultSet.getInt(5)).thenReturn(100, 200);
 
 		// Act
 		List<TrainBean> result = trainService.getAllTrains();
@@ -199,6 +327,30 @@ public class TrainServiceImplTest {
 	}
 
 	
+	/**
+	 * Verifies that forEachTrain hands every row to the callback while the cursor
+	 * is open, uses the configured fetch size and returns the number of trains.
+	 */
+	@Test
+	public void forEachTrainStreamsRows() throws Exception {
+		// Arrange
+		mockedDBUtil.when(DBUtil::getFetchSize).thenReturn(200);
+		when(mockResultSet.next()).thenReturn(true, true, false);
+		when(mockResultSet.getString(2)).thenReturn("Train 1", "Train 2");
+		when(mockResultSet.getLong(1)).thenReturn(1001L, 1002L);
+		List<String> names = new ArrayList<String>();
+
+		// Act
+		int count = trainService.forEachTrain(train -> names.add(train.getTr_name()));
+
+		// Assert
+		assertEquals(2, count);
+		assertEquals(Arrays.asList("Train 1", "Train 2"), names);
+		verify(mockPreparedStatement).setFetchSize(200);
+		verify(mockPreparedStatement).close();
+		verify(mockConnection).close();
+	}
+
 	/**
 	 * Tests getAllTrains method when a SQLException occurs during database operation.
 	 * This test verifies that the method throws a TrainException with the appropriate
@@ -222,7 +374,7 @@ public class TrainServiceImplTest {
 	    assertEquals(400, thrown.getStatusCode());
 
 	    // Verify interactions
-	    verify(mockConnection).prepareStatement("SELECT * FROM TRAIN");
+	    verify(mockConnection).prepareStatement("SELECT TR_NO, TR_NAME, FROM_STN_ID, TO_STN_ID, SEATS, FARE FROM TRAIN");
 	}
 
 	/**
@@ -245,7 +397,7 @@ public class TrainServiceImplTest {
 	    assertEquals("BAD_REQUEST", thrown.getErrorCode());
 
 	    // Verify interactions
-	    verify(mockConnection).prepareStatement("SELECT * FROM TRAIN");
+	    verify(mockConnection).prepareStatement("SELECT TR_NO, TR_NAME, FROM_STN_ID, TO_STN_ID, SEATS, FARE FROM TRAIN");
 	}
 	
 	
@@ -266,12 +418,12 @@ public class TrainServiceImplTest {
 	    when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
 	    // Mock two trains in result set
 	    when(mockResultSet.next()).thenReturn(true, true, false);
-	    when(mockResultSet.getDouble("fare")).thenReturn(1000.0, 1200.0);
-	    when(mockResultSet.getString("from_stn")).thenReturn("Mumbai Central", "Mumbai CST");
-	    when(mockResultSet.getString("to_stn")).thenReturn("New Delhi", "Delhi Cantt");
-	    when(mockResultSet.getString("tr_name")).thenReturn("Rajdhani Express", "Duronto Express");
-	    when(mockResultSet.getLong("tr_no")).thenReturn(12345L, 12346L);
-	    when(mockResultSet.getInt("seats")).thenReturn(500, 450);
+	    when(mockResultSet.getDouble(6)).thenReturn(1000.0, 1200.0);
+	    when(mockResultSet.getInt(3)).thenReturn(station("Mumbai Central"), station("Mumbai CST"));
+	    when(mockResultSet.getInt(4)).thenReturn(station("New Delhi"), station("Delhi Cantt"));
+	    when(mockResultSet.getString(2)).thenReturn("Rajdhani Express", "Duronto Express");
+	    when(mockResultSet.getLong(1)).thenReturn(12345L, 12346L);
+	    when(mockResultSet.getInt(5)).thenReturn(500, 450);
 
 	    // Act
 	    List<TrainBean> result = trainService.getTrainsBetweenStations(fromStation, toStation);
@@ -293,14 +445,65 @@ public class TrainServiceImplTest {
 	    TrainBean secondTrain = result.get(1);
 	    assertEquals("Duronto Express", secondTrain.getTr_name());
 	    
-	    // Verify interactions
-	    verify(mockPreparedStatement).setString(1, "%Mumbai%");
-	    verify(mockPreparedStatement).setString(2, "%Delhi%");
+	    // Verify interactions, the catalog is loaded with one full read and matched in memory
+	    verify(mockConnection).prepareStatement("SELECT TR_NO, TR_NAME, FROM_STN_ID, TO_STN_ID, SEATS, FARE FROM TRAIN");
 	    verify(mockPreparedStatement).executeQuery();
 	    verify(mockPreparedStatement).close();
 	}
 
 	
+	/**
+	 * Verifies that a station name with a typo finds the trains of the stations
+	 * a letter away once nothing matches the name as typed.
+	 */
+	@Test
+	public void getTrainsBetweenStationsToleratesTypos() throws Exception {
+	    when(mockResultSet.next()).thenReturn(true, true, false);
+	    when(mockResultSet.getLong(1)).thenReturn(10001L, 10008L);
+	    when(mockResultSet.getInt(3)).thenReturn(station("HOWRAH"), station("HAWRAH"));
+	    when(mockResultSet.getInt(4)).thenReturn(station("JODHPUR"), station("MUMBAI"));
+
+	    List<TrainBean> result = trainService.getTrainsBetweenStations("Howrah", "Mumbai");
+
+	    assertEquals(1, result.size());
+	    assertEquals(Long.valueOf(10008L), result.get(0).getTr_no());
+	    assertTrue(trainService.getTrainsBetweenStations("Gaya", "Mumbai").isEmpty());
+	}
+	
+	/**
+	 * Verifies that trains added or deleted after the catalog was loaded are
+	 * reflected in station searches without reading the TRAIN table again.
+	 */
+	@Test
+	public void getTrainsBetweenStationsFollowsWrites() throws Exception {
+	    when(mockResultSet.next()).thenReturn(true, false);
+	    when(mockResultSet.getLong(1)).thenReturn(10001L);
+	    when(mockResultSet.getInt(3)).thenReturn(station("HOWRAH"));
+	    when(mockResultSet.getInt(4)).thenReturn(station("JODHPUR"));
+	    assertEquals(1, trainService.getTrainsBetweenStations("how", "jodh").size());
+
+	    TrainBean train = new TrainBean();
+	    train.setTr_no(10009L);
+	    train.setTr_name("HOWRAH MAIL");
+	    train.setFrom_stn("HOWRAH");
+	    train.setTo_stn("JODHPUR CITY");
+	    train.setSeats(100);
+	    train.setFare(700.0);
+	    when(mockPreparedStatement.executeUpdate()).thenReturn(1);
+	    trainService.addTrain(train);
+
+	    List<TrainBean> result = trainService.getTrainsBetweenStations("how", "jodh");
+	    assertEquals(2, result.size());
+	    assertEquals(Long.valueOf(10009L), result.get(1).getTr_no());
+
+	    trainService.deleteTrainById("10001");
+
+	    result = trainService.getTrainsBetweenStations("how", "jodh");
+	    assertEquals(1, result.size());
+	    assertEquals("JODHPUR CITY", result.get(0).getTo_stn());
+	    verify(mockPreparedStatement, times(1)).executeQuery();
+	}
+
 	@Test
 	public void getTrainsBetweenStationsWhenNoTrainsFound() throws Exception {
 	    // Arrange
@@ -319,8 +522,7 @@ public class TrainServiceImplTest {
 	    assertTrue(result.isEmpty());
 
 	    // Verify interactions
-	    verify(mockPreparedStatement).setString(1, "%Invalid%");
-	    verify(mockPreparedStatement).setString(2, "%Station%");
+	    verify(mockConnection).prepareStatement("SELECT TR_NO, TR_NAME, FROM_STN_ID, TO_STN_ID, SEATS, FARE FROM TRAIN");
 	    verify(mockPreparedStatement).executeQuery();
 	    verify(mockPreparedStatement).close();
 	}
@@ -343,8 +545,7 @@ public class TrainServiceImplTest {
 	    assertTrue(result.isEmpty());
 
 	    // Verify interactions
-	    verify(mockPreparedStatement).setString(1, "%null%");
-	    verify(mockPreparedStatement).setString(2, "%null%");
+	    verify(mockConnection).prepareStatement("SELECT TR_NO, TR_NAME, FROM_STN_ID, TO_STN_ID, SEATS, FARE FROM TRAIN");
 	    verify(mockPreparedStatement).executeQuery();
 	    verify(mockPreparedStatement).close();
 	}
@@ -371,9 +572,44 @@ public class TrainServiceImplTest {
 	    }
 
 	    // Verify interactions
-	    verify(mockPreparedStatement).setString(1, "%Mumbai%");
-	    verify(mockPreparedStatement).setString(2, "%Delhi%");
 	    verify(mockPreparedStatement).executeQuery();
+	    // The statement and the pooled connection are released even when the query fails
+	    verify(mockPreparedStatement).close();
+	    verify(mockConnection).close();
+	}
+
+	@Test
+	public void getTrainsBetweenStationsWhenQueryTimesOut() throws Exception {
+		when(mockPreparedStatement.executeQuery()).thenThrow(new SQLTimeoutException("ORA-01013: user requested cancel"));
+
+		try {
+			trainService.getTrainsBetweenStations("Mumbai", "Delhi");
+			fail("Expected TrainException was not thrown");
+		} catch (TrainException e) {
+			assertEquals(ResponseCode.QUERY_TIMEOUT.name(), e.getErrorCode());
+			assertEquals(ResponseCode.QUERY_TIMEOUT.getCode(), e.getStatusCode());
+		}
+
+		verify(mockPreparedStatement).setQueryTimeout(QueryTimeouts.getTimeout(QueryType.SEARCH));
+		verify(mockPreparedStatement).close();
+		verify(mockConnection).close();
+	}
+
+	@Test
+	public void addTrainWhenQueryTimesOut() throws Exception {
+		TrainBean train = new TrainBean();
+		train.setTr_no(12345L);
+		train.setTr_name("Test Train");
+		train.setFrom_stn("Start Station");
+		train.setTo_stn("End Station");
+		train.setSeats(100);
+		train.setFare(50.0);
+		when(mockPreparedStatement.executeUpdate()).thenThrow(new SQLException("Statement was canceled", "57014"));
+
+		String result = trainService.addTrain(train);
+
+		assertEquals(ResponseCode.QUERY_TIMEOUT.toString() + " : Statement was canceled", result);
+		verify(mockPreparedStatement).setQueryTimeout(QueryTimeouts.getTimeout(QueryType.ADMIN));
 	}
 
 	@Test
@@ -383,7 +619,7 @@ public class TrainServiceImplTest {
 	    String toStation = "Delhi";
 	    String errorMessage = "Unable to establish connection";
 	    
-	    when(DBUtil.getConnection()).thenThrow(new TrainException(errorMessage));
+	    when(DBUtil.getReadConnection()).thenThrow(new TrainException(errorMessage));
 
 	    try {
 	        // Act
@@ -401,7 +637,7 @@ public class TrainServiceImplTest {
 	/**
 	 * Test case for addTrain method when a new train is successfully added. This
 	 * test verifies that the method returns SUCCESS response code when the database
-	 * operation is successful and the result set has a next row.
+	 * operation is successful and a row is inserted.
 	 */
 
 	@Test
@@ -415,7 +651,7 @@ public class TrainServiceImplTest {
 		train.setSeats(100);
 		train.setFare(50.0);
 
-		when(mockResultSet.next()).thenReturn(true);
+		when(mockPreparedStatement.executeUpdate()).thenReturn(1);
 
 		// Act
 		String result = trainService.addTrain(train);
@@ -423,8 +659,11 @@ public class TrainServiceImplTest {
 		// Assert
 		assertEquals(ResponseCode.SUCCESS.toString(), result);
 
-		verify(mockPreparedStatement).executeQuery();
+		verify(mockPreparedStatement).executeUpdate();
 		verify(mockPreparedStatement).close();
+		// Logged for the other nodes in the same transaction
+		verify(mockChangeLog).begin(mockConnection);
+		verify(mockChangeLog).commit(mockConnection, 12345L);
 
 	}
 
@@ -434,14 +673,6 @@ public class TrainServiceImplTest {
 	 * returned.
 	 */
 
-	/* Unit test is verifying (mockPreparedStatement).close(); This is not getting executed because 
-	 * In TrainServiceImpl.addTrain(), have:ps.close(); but this is only executed if no exception occurs.
-	 * If an exception is thrown, the code jumps to the catch block:
-      catch (SQLException | TrainException e) {
-      responseCode += " : " + e.getMessage();} and skips ps.close().
-
-	 * Action Plan: Log a bug against TrainServiceImpl for
-	 * PreparedStatement is not closed on exception and suggest adding a finally block*/
 	
 
 	@Test
@@ -458,7 +689,7 @@ public class TrainServiceImplTest {
 		when(mockConnection.prepareStatement(anyString())).thenReturn(mockPreparedStatement);
 
 		// Simulate a database error when executing the query
-		when(mockPreparedStatement.executeQuery()).thenThrow(new SQLException("Database error"));
+		when(mockPreparedStatement.executeUpdate()).thenThrow(new SQLException("Database error"));
 
 		// Act
 		String result = trainService.addTrain(train);
@@ -470,18 +701,18 @@ public class TrainServiceImplTest {
 		// Verify interactions
 		verify(mockPreparedStatement).setLong(1, train.getTr_no());
 		verify(mockPreparedStatement).setString(2, train.getTr_name());
-		verify(mockPreparedStatement).setString(3, train.getFrom_stn());
-		verify(mockPreparedStatement).setString(4, train.getTo_stn());
+		verify(mockPreparedStatement).setInt(3, station(train.getFrom_stn()));
+		verify(mockPreparedStatement).setInt(4, station(train.getTo_stn()));
 		verify(mockPreparedStatement).setLong(5, train.getSeats());
 		verify(mockPreparedStatement).setDouble(6, train.getFare());
-		verify(mockPreparedStatement).executeQuery();
-		//verify(mockPreparedStatement).close();
+		verify(mockPreparedStatement).executeUpdate();
+		verify(mockPreparedStatement).close();
 	}
 
 	/**
 	 * Test case for addTrain method when database operation is executed 
 	 * but no rows are affected. This test verifies that the method returns 
-	 * FAILURE response code when ResultSet.next() returns false.
+	 * FAILURE response code when executeUpdate reports no rows.
 	 */
 	@Test
 	public void addTrainWhenNoRowsAffected() throws Exception {
@@ -494,8 +725,8 @@ public class TrainServiceImplTest {
 	    train.setSeats(100);
 	    train.setFare(50.0);
 
-	    // Mock ResultSet to return false for next()
-	    when(mockResultSet.next()).thenReturn(false);
+	    // No row was written
+	    when(mockPreparedStatement.executeUpdate()).thenReturn(0);
 
 	    // Act
 	    String result = trainService.addTrain(train);
@@ -506,13 +737,12 @@ public class TrainServiceImplTest {
 	    // Verify interactions
 	    verify(mockPreparedStatement).setLong(1, train.getTr_no());
 	    verify(mockPreparedStatement).setString(2, train.getTr_name());
-	    verify(mockPreparedStatement).setString(3, train.getFrom_stn());
-	    verify(mockPreparedStatement).setString(4, train.getTo_stn());
+	    verify(mockPreparedStatement).setInt(3, station(train.getFrom_stn()));
+	    verify(mockPreparedStatement).setInt(4, station(train.getTo_stn()));
 	    verify(mockPreparedStatement).setLong(5, train.getSeats());
 	    verify(mockPreparedStatement).setDouble(6, train.getFare());
-	    verify(mockPreparedStatement).executeQuery();
+	    verify(mockPreparedStatement).executeUpdate();
 	    verify(mockPreparedStatement).close();
-	    verify(mockResultSet).next();
 	}
 
 
@@ -618,8 +848,7 @@ public class TrainServiceImplTest {
 		train.setFare(75.0);
 
 		when(mockConnection.prepareStatement(anyString())).thenReturn(mockPreparedStatement);
-		when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
-		when(mockResultSet.next()).thenReturn(true); // Simulating a successful update
+		when(mockPreparedStatement.executeUpdate()).thenReturn(1); // Simulating a successful update
 
 		// Act
 		String result = trainService.updateTrain(train);
@@ -629,12 +858,12 @@ public class TrainServiceImplTest {
 
 		// Verify interactions
 		verify(mockPreparedStatement).setString(1, train.getTr_name());
-		verify(mockPreparedStatement).setString(2, train.getFrom_stn());
-		verify(mockPreparedStatement).setString(3, train.getTo_stn());
+		verify(mockPreparedStatement).setInt(2, station(train.getFrom_stn()));
+		verify(mockPreparedStatement).setInt(3, station(train.getTo_stn()));
 		verify(mockPreparedStatement).setLong(4, train.getSeats());
 		verify(mockPreparedStatement).setDouble(5, train.getFare());
 		verify(mockPreparedStatement).setDouble(6, train.getTr_no());
-		verify(mockPreparedStatement).executeQuery();
+		verify(mockPreparedStatement).executeUpdate();
 		verify(mockPreparedStatement).close();
 	}
 	
@@ -659,7 +888,7 @@ public class TrainServiceImplTest {
 	    // Assert
 	    assertEquals(ResponseCode.FAILURE.toString() + " : " + errorMessage, result);
 	    verify(mockConnection).prepareStatement(
-	        "UPDATE TRAIN SET TR_NAME=?, FROM_STN=?,TO_STN=?,SEATS=?,FARE=? WHERE TR_NO=?");
+	        "UPDATE TRAIN SET TR_NAME=?, FROM_STN_ID=?,TO_STN_ID=?,SEATS=?,FARE=? WHERE TR_NO=?");
 	}
 
 	@Test
@@ -687,7 +916,7 @@ public class TrainServiceImplTest {
 	/**
 	 * Test case for updateTrain method when train is not found in database.
 	 * This test verifies that the method returns FAILURE response code 
-	 * when ResultSet.next() returns false.
+	 * when executeUpdate reports no rows.
 	 */
 	@Test
 	public void updateTrainWhenTrainNotFound() throws Exception {
@@ -701,8 +930,7 @@ public class TrainServiceImplTest {
 	    train.setFare(75.0);
 
 	    when(mockConnection.prepareStatement(anyString())).thenReturn(mockPreparedStatement);
-	    when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
-	    when(mockResultSet.next()).thenReturn(false);
+	    when(mockPreparedStatement.executeUpdate()).thenReturn(0);
 
 	    // Act
 	    String result = trainService.updateTrain(train);
@@ -712,15 +940,16 @@ public class TrainServiceImplTest {
 
 	    // Verify interactions
 	    verify(mockPreparedStatement).setString(1, train.getTr_name());
-	    verify(mockPreparedStatement).setString(2, train.getFrom_stn());
-	    verify(mockPreparedStatement).setString(3, train.getTo_stn());
+	    verify(mockPreparedStatement).setInt(2, station(train.getFrom_stn()));
+	    verify(mockPreparedStatement).setInt(3, station(train.getTo_stn()));
 	    verify(mockPreparedStatement).setLong(4, train.getSeats());
 	    verify(mockPreparedStatement).setDouble(5, train.getFare());
 	    verify(mockPreparedStatement).setDouble(6, train.getTr_no());
-	    verify(mockPreparedStatement).executeQuery();
+	    verify(mockPreparedStatement).executeUpdate();
 	    verify(mockPreparedStatement).close();
-	    verify(mockResultSet).next();
 	}
-}
-
 
+	private static int station(String name) {
+		return STATIONS.indexOf(name) + 1;
+	}
+}
@@ -2,9 +2,12 @@ package com.shashi.service.impl;
 
 import com.shashi.beans.TrainException;
 import com.shashi.beans.UserBean;
+import com.shashi.constant.QueryType;
 import com.shashi.constant.ResponseCode;
 import com.shashi.constant.UserRole;
 import com.shashi.utility.DBUtil;
+import com.shashi.utility.Dialect;
+import com.shashi.utility.QueryTimeouts;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -57,6 +60,7 @@ public class UserServiceImplTest {
 
 		// Mock DBUtil.getConnection() to return the existing `mockConnection`
 		mockedDBUtil.when(DBUtil::getConnection).thenReturn(mockConnection);
+		mockedDBUtil.when(DBUtil::getDialect).thenReturn(Dialect.ORACLE);
 
 		when(mockConnection.prepareStatement(anyString())).thenReturn(mockPreparedStatement);
 		when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
@@ -98,9 +102,12 @@ public class UserServiceImplTest {
 			assertEquals("Invalid Credentials, Try Again", e.getMessage());
 
 			// Verify database interactions
+			verify(mockPreparedStatement).setQueryTimeout(QueryTimeouts.getTimeout(QueryType.LOOKUP));
 			verify(mockPreparedStatement).setString(1, invalidUsername);
 			verify(mockPreparedStatement).setString(2, invalidPassword);
 			verify(mockPreparedStatement).executeQuery();
+			verify(mockPreparedStatement).close();
+			verify(mockConnection).close();
 
 			// Verify no more interactions with PreparedStatement
 			verifyNoMoreInteractions(mockPreparedStatement);
@@ -121,12 +128,12 @@ public class UserServiceImplTest {
 		when(mockConnection.prepareStatement(anyString())).thenReturn(mockPreparedStatement);
 		when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
 		when(mockResultSet.next()).thenReturn(true);
-		when(mockResultSet.getString("fname")).thenReturn("John");
-		when(mockResultSet.getString("lname")).thenReturn("Doe");
-		when(mockResultSet.getString("addr")).thenReturn("123 Main St");
-		when(mockResultSet.getString("mailid")).thenReturn("john@example.com");
-		when(mockResultSet.getLong("phno")).thenReturn(1234567890L);
-		when(mockResultSet.getString("pword")).thenReturn("password123");
+		when(mockResultSet.getString(2)).thenReturn("John");
+		when(mockResultSet.getString(3)).thenReturn("Doe");
+		when(mockResultSet.getString(4)).thenReturn("123 Main St");
+		when(mockResultSet.getString(1)).thenReturn("john@example.com");
+		when(mockResultSet.getLong(5)).thenReturn(1234567890L);
+		when(mockResultSet.getString(6)).thenReturn("password123");
 
 		// Act
 		UserBean result = userService.loginUser(validUsername, validPassword);
@@ -187,8 +194,7 @@ public class UserServiceImplTest {
 		customer.setPhNo(1234567890L);
 
 		when(mockConnection.prepareStatement(anyString())).thenReturn(mockPreparedStatement);
-		when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
-		when(mockResultSet.next()).thenReturn(true);
+		when(mockPreparedStatement.executeUpdate()).thenReturn(1);
 
 		// Act
 		String result = userService.registerUser(customer);
@@ -203,7 +209,7 @@ public class UserServiceImplTest {
 		verify(mockPreparedStatement).setString(4, customer.getLName());
 		verify(mockPreparedStatement).setString(5, customer.getAddr());
 		verify(mockPreparedStatement).setLong(6, customer.getPhNo());
-		verify(mockPreparedStatement).executeQuery();
+		verify(mockPreparedStatement).executeUpdate();
 		verify(mockPreparedStatement).close();
 	}
 
@@ -227,7 +233,7 @@ public class UserServiceImplTest {
 		when(mockConnection.prepareStatement(anyString())).thenReturn(mockPreparedStatement);
 
 		// Simulate SQL constraint violation
-		when(mockPreparedStatement.executeQuery()).thenThrow(new SQLException("ORA-00001: unique constraint violated"));
+		when(mockPreparedStatement.executeUpdate()).thenThrow(new SQLException("ORA-00001: unique constraint violated"));
 
 		// Act
 		String result = userService.registerUser(existingUser);
@@ -243,11 +249,11 @@ public class UserServiceImplTest {
 		verify(mockPreparedStatement).setString(4, existingUser.getLName());
 		verify(mockPreparedStatement).setString(5, existingUser.getAddr());
 		verify(mockPreparedStatement).setLong(6, existingUser.getPhNo());
-		verify(mockPreparedStatement).executeQuery();
+		verify(mockPreparedStatement).executeUpdate();
 	}
 
 	/**
-	 * Test registerUser when ResultSet returns false
+	 * Test registerUser when no row is inserted
 	 */
 	@Test
 	public void registerUser_WhenResultSetHasNoNext_ShouldReturnFailure() throws Exception {
@@ -260,8 +266,7 @@ public class UserServiceImplTest {
 		customer.setAddr("123 Test St");
 		customer.setPhNo(1234567890L);
 
-		when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
-		when(mockResultSet.next()).thenReturn(false); // ResultSet has no next record
+		when(mockPreparedStatement.executeUpdate()).thenReturn(0); // No row was written
 
 		// Act
 		String result = userService.registerUser(customer);
@@ -276,8 +281,7 @@ public class UserServiceImplTest {
 		verify(mockPreparedStatement).setString(4, customer.getLName());
 		verify(mockPreparedStatement).setString(5, customer.getAddr());
 		verify(mockPreparedStatement).setLong(6, customer.getPhNo());
-		verify(mockPreparedStatement).executeQuery();
-		verify(mockResultSet).next();
+		verify(mockPreparedStatement).executeUpdate();
 		verify(mockPreparedStatement).close();
 	}
 
@@ -296,7 +300,7 @@ public class UserServiceImplTest {
 		customer.setPhNo(1234567890L);
 
 		// Simulate Oracle unique constraint violation
-		when(mockPreparedStatement.executeQuery()).thenThrow(new SQLException("ORA-00001: unique constraint violated"));
+		when(mockPreparedStatement.executeUpdate()).thenThrow(new SQLException("ORA-00001: unique constraint violated"));
 
 		// Act
 		String result = userService.registerUser(customer);
@@ -312,7 +316,34 @@ public class UserServiceImplTest {
 		verify(mockPreparedStatement).setString(4, customer.getLName());
 		verify(mockPreparedStatement).setString(5, customer.getAddr());
 		verify(mockPreparedStatement).setLong(6, customer.getPhNo());
-		verify(mockPreparedStatement).executeQuery();
+		verify(mockPreparedStatement).executeUpdate();
+	}
+
+	/**
+	 * Test registerUser when H2 reports a duplicate key
+	 */
+	@Test
+	public void registerUser_WhenH2UniqueConstraintViolation_ShouldReturnFailureWithUserExists() throws Exception {
+		// Arrange
+		UserBean customer = new UserBean();
+		customer.setMailId("existing@example.com");
+		customer.setPWord("password");
+		customer.setFName("John");
+		customer.setLName("Doe");
+		customer.setAddr("123 Test St");
+		customer.setPhNo(1234567890L);
+
+		mockedDBUtil.when(DBUtil::getDialect).thenReturn(Dialect.H2);
+		when(mockPreparedStatement.executeUpdate())
+				.thenThrow(new SQLException("Unique index or primary key violation", "23505", 23505));
+
+		// Act
+		String result = userService.registerUser(customer);
+
+		// Assert
+		assertEquals(ResponseCode.FAILURE.toString() + " : " + "User With Id: " + customer.getMailId()
+				+ " is already registered ", result);
+		verify(mockPreparedStatement).executeUpdate();
 	}
 
 	/**
@@ -331,7 +362,7 @@ public class UserServiceImplTest {
 
 		// Simulate general SQL exception
 		String errorMessage = "General database error";
-		when(mockPreparedStatement.executeQuery()).thenThrow(new SQLException(errorMessage));
+		when(mockPreparedStatement.executeUpdate()).thenThrow(new SQLException(errorMessage));
 
 		// Act
 		String result = userService.registerUser(customer);
@@ -348,7 +379,7 @@ public class UserServiceImplTest {
 		verify(mockPreparedStatement).setString(4, customer.getLName());
 		verify(mockPreparedStatement).setString(5, customer.getAddr());
 		verify(mockPreparedStatement).setLong(6, customer.getPhNo());
-		verify(mockPreparedStatement).executeQuery();
+		verify(mockPreparedStatement).executeUpdate();
 	}
 
 	/**
@@ -360,11 +391,11 @@ public class UserServiceImplTest {
 		String email = "test@example.com";
 		when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
 		when(mockResultSet.next()).thenReturn(true);
-		when(mockResultSet.getString("fname")).thenReturn("John");
-		when(mockResultSet.getString("lname")).thenReturn("Doe");
-		when(mockResultSet.getString("addr")).thenReturn("123 Street");
-		when(mockResultSet.getString("mailid")).thenReturn(email);
-		when(mockResultSet.getLong("phno")).thenReturn(1234567890L);
+		when(mockResultSet.getString(2)).thenReturn("John");
+		when(mockResultSet.getString(3)).thenReturn("Doe");
+		when(mockResultSet.getString(4)).thenReturn("123 Street");
+		when(mockResultSet.getString(1)).thenReturn(email);
+		when(mockResultSet.getLong(5)).thenReturn(1234567890L);
 
 		// Act
 		UserBean result = userService.getUserByEmailId(email);
@@ -435,11 +466,11 @@ public class UserServiceImplTest {
 		// Arrange
 		when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
 		when(mockResultSet.next()).thenReturn(true, true, false);
-		when(mockResultSet.getString("fname")).thenReturn("John", "Jane");
-		when(mockResultSet.getString("lname")).thenReturn("Doe", "Smith");
-		when(mockResultSet.getString("addr")).thenReturn("123 Street", "456 Ave");
-		when(mockResultSet.getString("mailid")).thenReturn("john@example.com", "jane@example.com");
-		when(mockResultSet.getLong("phno")).thenReturn(1234567890L, 9876543210L);
+		when(mockResultSet.getString(2)).thenReturn("John", "Jane");
+		when(mockResultSet.getString(3)).thenReturn("Doe", "Smith");
+		when(mockResultSet.getString(4)).thenReturn("123 Street", "456 Ave");
+		when(mockResultSet.getString(1)).thenReturn("john@example.com", "jane@example.com");
+		when(mockResultSet.getLong(5)).thenReturn(1234567890L, 9876543210L);
 
 		// Act
 		List<UserBean> results = userService.getAllUsers();
@@ -699,11 +730,11 @@ public class UserServiceImplTest {
 		userService = new UserServiceImpl(null); // Use the existing field
 		when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
 		when(mockResultSet.next()).thenReturn(true, false); // One iteration only
-		when(mockResultSet.getString("fname")).thenReturn("TestUser");
-		when(mockResultSet.getString("lname")).thenReturn("TestLast");
-		when(mockResultSet.getString("addr")).thenReturn("Test Address");
-		when(mockResultSet.getString("mailid")).thenReturn("test@example.com");
-		when(mockResultSet.getLong("phno")).thenReturn(1234567890L);
+		when(mockResultSet.getString(2)).thenReturn("TestUser");
+		when(mockResultSet.getString(3)).thenReturn("TestLast");
+		when(mockResultSet.getString(4)).thenReturn("Test Address");
+		when(mockResultSet.getString(1)).thenReturn("test@example.com");
+		when(mockResultSet.getLong(5)).thenReturn(1234567890L);
 
 		// Act
 		List<UserBean> users = userService.getAllUsers();
@@ -732,11 +763,11 @@ public class UserServiceImplTest {
 		userService = new UserServiceImpl(UserRole.ADMIN); // Use the existing field
 		when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
 		when(mockResultSet.next()).thenReturn(true, false); // One iteration only
-		when(mockResultSet.getString("fname")).thenReturn("AdminUser");
-		when(mockResultSet.getString("lname")).thenReturn("AdminLast");
-		when(mockResultSet.getString("addr")).thenReturn("Admin Address");
-		when(mockResultSet.getString("mailid")).thenReturn("admin@example.com");
-		when(mockResultSet.getLong("phno")).thenReturn(1234567890L);
+		when(mockResultSet.getString(2)).thenReturn("AdminUser");
+		when(mockResultSet.getString(3)).thenReturn("AdminLast");
+		when(mockResultSet.getString(4)).thenReturn("Admin Address");
+		when(mockResultSet.getString(1)).thenReturn("admin@example.com");
+		when(mockResultSet.getLong(5)).thenReturn(1234567890L);
 
 		// Act
 		List<UserBean> users = userService.getAllUsers();
@@ -12,6 +12,9 @@ import org.mockito.MockitoAnnotations;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
 
 import javax.servlet.RequestDispatcher;
 import javax.servlet.ServletContext;
@@ -22,6 +25,7 @@ import javax.servlet.http.HttpSession;
 
 import com.shashi.beans.TrainBean;
 import com.shashi.beans.HistoryBean;
+import com.shashi.constant.SeatClass;
 import com.shashi.constant.UserRole;
 import com.shashi.service.TrainService;
 import com.shashi.service.BookingService;
@@ -100,19 +104,23 @@ public class BookTrainsTest {
 		when(servletContext.getAttribute("seats")).thenReturn(2);
 		when(servletContext.getAttribute("trainnumber")).thenReturn("TR123");
 		when(servletContext.getAttribute("journeydate")).thenReturn("2024-01-20");
-		when(servletContext.getAttribute("class")).thenReturn("AC");
+		when(servletContext.getAttribute("class")).thenReturn("AC 2 Tier(2A)");
 
 		// Mock train service response
 		when(trainService.getTrainById("TR123")).thenReturn(mockTrain);
-		when(trainService.updateTrain(any(TrainBean.class))).thenReturn("SUCCESS");
 
 		// Mock booking service response
 		HistoryBean mockHistory = new HistoryBean();
 		mockHistory.setTransId("TXN123");
-		when(bookingService.createHistory(any(HistoryBean.class))).thenReturn(mockHistory);
+		when(bookingService.reserveSeats(any(), same(mockTrain), eq("2024-01-20"), eq(SeatClass.AC_TWO_TIER), eq(2)))
+				.thenReturn(mockHistory);
 
 		// Execute
 		bookTrains.doPost(request, response);
+
+		// Verify the seats were taken in the database, not written back from the train read
+		verify(trainService, never()).updateTrain(any(TrainBean.class));
+		assertTrue(stringWriter.toString().contains("Your Transaction Id is: TXN123"));
 	}
 
 	@Test
@@ -121,18 +129,23 @@ public class BookTrainsTest {
 		when(servletContext.getAttribute("seats")).thenReturn(10);
 		when(servletContext.getAttribute("trainnumber")).thenReturn("12345");
 		when(servletContext.getAttribute("journeydate")).thenReturn("2023-12-25");
-		when(servletContext.getAttribute("class")).thenReturn("AC");
+		when(servletContext.getAttribute("class")).thenReturn("SL");
 
 		TrainBean mockTrain = new TrainBean();
-		mockTrain.setSeats(5); // Only 5 seats available
+		mockTrain.setTr_no(12345L);
+		mockTrain.setSeats(100);
 		when(trainService.getTrainById("12345")).thenReturn(mockTrain);
+		// The sleeper seats for the date are down to 5, the inventory refuses the booking
+		when(bookingService.reserveSeats(any(), same(mockTrain), eq("2023-12-25"), eq(SeatClass.SLEEPER), eq(10)))
+				.thenReturn(null);
+		when(bookingService.getAvailableSeats(any(), eq("2023-12-25"))).thenReturn(available(12345L, SeatClass.SLEEPER, 5));
 
 		// Execute
 		bookTrains.doPost(request, response);
 
 		// Verify
 		verify(trainService, never()).updateTrain(any(TrainBean.class));
-		assertTrue(stringWriter.toString().contains("Only 5 Seats are Available"));
+		assertTrue(stringWriter.toString().contains("Only 5 Seats are Available in Sleeper(SL)"));
 	}
 
 	@Test
@@ -157,19 +170,51 @@ public class BookTrainsTest {
 	@Test
 	public void testFailedTransaction() throws Exception {
 		TrainBean mockTrain = new TrainBean();
+		mockTrain.setTr_no(10001L);
 		mockTrain.setSeats(10);
 
 		when(servletContext.getAttribute("seats")).thenReturn(2);
 		when(servletContext.getAttribute("trainnumber")).thenReturn("TR123");
 		when(servletContext.getAttribute("journeydate")).thenReturn("2024-01-20");
+		when(servletContext.getAttribute("class")).thenReturn("Second Sitting(2S)");
 		when(trainService.getTrainById("TR123")).thenReturn(mockTrain);
-		when(trainService.updateTrain(any(TrainBean.class))).thenReturn("FAILED");
+		// Someone else took the seats after the train was read
+		when(bookingService.reserveSeats(any(), any(TrainBean.class), anyString(), any(SeatClass.class), anyInt()))
+				.thenReturn(null);
+		when(bookingService.getAvailableSeats(any(), anyString()))
+				.thenReturn(available(10001L, SeatClass.SECOND_SITTING, 0));
 
 		// Execute
 		bookTrains.doPost(request, response);
 
 		// Verify booking was not created
 		verify(bookingService, never()).createHistory(any(HistoryBean.class));
+		assertTrue(stringWriter.toString().contains("Only 0 Seats are Available"));
+	}
+
+	@Test
+	public void testUnknownClass() throws Exception {
+		TrainBean mockTrain = new TrainBean();
+		mockTrain.setSeats(10);
+
+		when(servletContext.getAttribute("seats")).thenReturn(2);
+		when(servletContext.getAttribute("trainnumber")).thenReturn("TR123");
+		when(servletContext.getAttribute("journeydate")).thenReturn("2024-01-20");
+		when(servletContext.getAttribute("class")).thenReturn("AC");
+		when(trainService.getTrainById("TR123")).thenReturn(mockTrain);
+
+		// Execute
+		bookTrains.doPost(request, response);
+
+		// Verify nothing was booked
+		verify(bookingService, never()).reserveSeats(any(), any(), anyString(), any(), anyInt());
+		assertTrue(stringWriter.toString().contains("Invalid Class AC"));
+	}
+
+	private static Map<Long, Map<SeatClass, Integer>> available(long trainNo, SeatClass seatClass, int seats) {
+		Map<SeatClass, Integer> classes = new EnumMap<SeatClass, Integer>(SeatClass.class);
+		classes.put(seatClass, seats);
+		return Collections.singletonMap(trainNo, classes);
 	}
 
 }
@@ -0,0 +1,94 @@
+package com.shashi.utility;
+
+import static org.junit.Assert.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Exercises warm-up and reconnect backoff against an in-process H2 database
+ * that only exists while the test keeps it open.
+ */
+public class ConnectionPoolTest {
+
+	private static final String URL = "jdbc:h2:mem:pooltest;IFEXISTS=TRUE";
+
+	private ConnectionPool pool;
+	private Connection database;
+
+	@After
+	public void tearDown() throws Exception {
+		if (pool != null) {
+			pool.close();
+		}
+		if (database != null) {
+			database.close();
+		}
+	}
+
+	@Test
+	public void fillOpensMinimumSize() throws Exception {
+		startDatabase();
+		pool = new ConnectionPool(URL, "sa", "", 4, 8, 1000, 0, "SELECT 1", 10);
+
+		assertFalse(pool.isWarm());
+		pool.fill();
+
+		assertTrue(pool.isWarm());
+		assertEquals(4, pool.getTotalCount());
+		assertEquals(4, pool.getIdleCount());
+	}
+
+	@Test
+	public void connectsFailFastWhileBackingOff() throws Exception {
+		pool = new ConnectionPool(URL, "sa", "", 1, 2, 1000, 0, "SELECT 1", 10);
+		pool.setReconnectBackoff(60000, 60000);
+
+		try {
+			pool.fill();
+			fail("database is not up yet");
+		} catch (SQLException e) {
+			assertTrue(pool.isBackingOff());
+		}
+
+		startDatabase();
+		try {
+			pool.getConnection();
+			fail("connect should be refused until the backoff passes");
+		} catch (SQLException e) {
+			assertEquals("08001", e.getSQLState());
+		}
+		assertEquals(0, pool.getActiveCount());
+	}
+
+	@Test
+	public void reconnectsOnceBackoffPasses() throws Exception {
+		pool = new ConnectionPool(URL, "sa", "", 1, 2, 1000, 0, "SELECT 1", 10);
+		pool.setReconnectBackoff(50, 50);
+
+		try {
+			pool.fill();
+			fail("database is not up yet");
+		} catch (SQLException e) {
+			assertTrue(pool.isBackingOff());
+		}
+
+		startDatabase();
+		Thread.sleep(100);
+		pool.fill();
+
+		assertFalse(pool.isBackingOff());
+		assertTrue(pool.isWarm());
+		try (Connection con = pool.getConnection()) {
+			assertTrue(con.isValid(1));
+		}
+	}
+
+	private void startDatabase() throws SQLException {
+		database = DriverManager.getConnection("jdbc:h2:mem:pooltest", "sa", "");
+	}
+}
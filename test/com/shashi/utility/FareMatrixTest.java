@@ -0,0 +1,65 @@
+package com.shashi.utility;
+
+import static com.shashi.utility.Trains.train;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.shashi.beans.FareBean;
+
+public class FareMatrixTest {
+
+	private FareMatrix matrix;
+
+	@Before
+	public void setUp() {
+		matrix = new FareMatrix();
+		matrix.catalogLoaded(Arrays.asList(train(10002, "GAYA", "DELHI", 550.5), train(10003, "GAYA", "HOWRAH", 451),
+				train(10006, "PATNA", "DELHI", 1450.75), train(10011, "GAYA", "DELHI", 400),
+				train(10012, "GAYA", "DELHI", 900)));
+	}
+
+	@Test
+	public void summarizesTheTrainsOfAPair() {
+		FareBean fare = matrix.getFare("gaya", "Delhi");
+
+		assertEquals("GAYA", fare.getFrom_stn());
+		assertEquals(Integer.valueOf(3), fare.getTrains());
+		assertEquals(400, fare.getMinFare(), 0.001);
+		assertEquals(900, fare.getMaxFare(), 0.001);
+		assertEquals(616.83, fare.getAvgFare(), 0.001);
+		assertEquals(Long.valueOf(10011L), fare.getCheapestTrNo());
+		assertNull(matrix.getFare("DELHI", "GAYA"));
+		assertNull(matrix.getFare("RANCHI", "DELHI"));
+	}
+
+	@Test
+	public void followsSavedAndRemovedTrains() {
+		matrix.trainRemoved(train(10011, "GAYA", "DELHI", 400));
+		matrix.trainSaved(train(10012, "GAYA", "DELHI", 900), train(10012, "GAYA", "PATNA", 300));
+		matrix.trainRemoved(train(10003, "GAYA", "HOWRAH", 451));
+
+		FareBean fare = matrix.getFare("GAYA", "DELHI");
+		assertEquals(Integer.valueOf(1), fare.getTrains());
+		assertEquals(550.5, fare.getMaxFare(), 0.001);
+		assertEquals(Long.valueOf(10002L), fare.getCheapestTrNo());
+		assertEquals(Long.valueOf(10012L), matrix.getFare("GAYA", "PATNA").getCheapestTrNo());
+		assertNull(matrix.getFare("GAYA", "HOWRAH"));
+	}
+
+	@Test
+	public void looksUpEveryCombinationOfStations() {
+		List<FareBean> fares = matrix.getFares(Arrays.asList("GAYA", "PATNA", "RANCHI"),
+				Collections.singleton("DELHI"));
+		assertEquals(2, fares.size());
+
+		fares = matrix.getFares(Arrays.asList("GAYA", "PATNA", "RANCHI", "HOWRAH"),
+				Arrays.asList("DELHI", "HOWRAH", "GAYA"));
+		assertEquals(3, fares.size());
+	}
+}
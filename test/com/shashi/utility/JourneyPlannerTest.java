@@ -0,0 +1,71 @@
+package com.shashi.utility;
+
+import static com.shashi.utility.Trains.train;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.shashi.beans.JourneyBean;
+import com.shashi.beans.TrainBean;
+import com.shashi.constant.JourneySort;
+
+public class JourneyPlannerTest {
+
+	private JourneyPlanner planner;
+
+	@Before
+	public void setUp() {
+		planner = new JourneyPlanner();
+		planner.catalogLoaded(Arrays.asList(train(10001, "HOWRAH", "JODHPUR", 490.5),
+				train(10002, "GAYA", "DELHI", 550.5), train(10003, "GAYA", "HOWRAH", 451),
+				train(10004, "RANCHI", "PATNA", 550), train(10006, "PATNA", "DELHI", 1450.75),
+				train(10009, "RANCHI", "GAYA", 200), train(10010, "RANCHI", "DELHI", 2500)));
+	}
+
+	@Test
+	public void returnsCheaperJourneysWithMoreChanges() {
+		List<JourneyBean> journeys = planner.plan("ranchi", "Delhi", 3, JourneySort.TRANSFERS);
+
+		assertEquals(2, journeys.size());
+		assertEquals(Arrays.asList(10010L), trainNumbers(journeys.get(0)));
+		assertEquals(0, journeys.get(0).getTransfers());
+		// RANCHI-PATNA-DELHI also needs one change but costs more than going through GAYA
+		assertEquals(Arrays.asList(10009L, 10002L), trainNumbers(journeys.get(1)));
+		assertEquals(750.5, journeys.get(1).getFare(), 0.001);
+
+		journeys = planner.plan("RANCHI", "DELHI", 3, JourneySort.FARE);
+		assertEquals(Arrays.asList(10009L, 10002L), trainNumbers(journeys.get(0)));
+	}
+
+	@Test
+	public void limitsTheNumberOfChanges() {
+		assertEquals(Arrays.asList(10009L, 10003L, 10001L),
+				trainNumbers(planner.plan("RANCHI", "JODHPUR", 2, JourneySort.FARE).get(0)));
+		assertTrue(planner.plan("RANCHI", "JODHPUR", 1, JourneySort.FARE).isEmpty());
+		assertTrue(planner.plan("DELHI", "RANCHI", 3, JourneySort.FARE).isEmpty());
+		assertTrue(planner.plan("GAYA", "gaya", 3, JourneySort.FARE).isEmpty());
+	}
+
+	@Test
+	public void followsSavedAndRemovedTrains() {
+		planner.trainRemoved(train(10009, "RANCHI", "GAYA", 200));
+		planner.trainSaved(train(10006, "PATNA", "DELHI", 1450.75), train(10006, "PATNA", "DELHI", 500));
+
+		List<JourneyBean> journeys = planner.plan("RANCHI", "DELHI", 3, JourneySort.FARE);
+		assertEquals(Arrays.asList(10004L, 10006L), trainNumbers(journeys.get(0)));
+		assertEquals(1050, journeys.get(0).getFare(), 0.001);
+	}
+
+	private static List<Long> trainNumbers(JourneyBean journey) {
+		List<Long> trainNumbers = new ArrayList<Long>();
+		for (TrainBean leg : journey.getLegs()) {
+			trainNumbers.add(leg.getTr_no());
+		}
+		return trainNumbers;
+	}
+}
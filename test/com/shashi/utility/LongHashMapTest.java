@@ -0,0 +1,54 @@
+package com.shashi.utility;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class LongHashMapTest {
+
+	@Test
+	public void putGetAndRemove() {
+		LongHashMap<String> map = new LongHashMap<String>();
+		assertNull(map.put(1L << 32 | 7, "a"));
+		assertEquals("a", map.put(1L << 32 | 7, "b"));
+		map.put(-5L, "c");
+
+		assertEquals("b", map.get(1L << 32 | 7));
+		assertEquals("c", map.get(-5L));
+		assertNull(map.get(7L));
+		assertEquals(2, map.size());
+		assertEquals("c", map.remove(-5L));
+		assertNull(map.remove(-5L));
+		assertEquals(1, map.size());
+	}
+
+	@Test
+	public void agreesWithHashMapUnderRandomChanges() {
+		// Small key range so probe runs collide and removals shift entries back
+		Random random = new Random(42);
+		LongHashMap<Long> map = new LongHashMap<Long>();
+		Map<Long, Long> expected = new HashMap<Long, Long>();
+		for (int i = 0; i < 20000; i++) {
+			long key = random.nextInt(500);
+			if (random.nextInt(3) == 0) {
+				assertEquals(expected.remove(key), map.remove(key));
+			} else {
+				assertEquals(expected.put(key, (long) i), map.put(key, (long) i));
+			}
+		}
+		assertEquals(expected.size(), map.size());
+		for (long key = 0; key < 500; key++) {
+			assertEquals(expected.get(key), map.get(key));
+		}
+		int[] visited = new int[1];
+		map.forEach((key, value) -> {
+			assertEquals(expected.get(key), value);
+			visited[0]++;
+		});
+		assertEquals(expected.size(), visited[0]);
+	}
+}
@@ -0,0 +1,96 @@
+package com.shashi.utility;
+
+import static org.junit.Assert.*;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Exercises read/write routing against two in-process H2 databases standing in
+ * for the primary and the read replica.
+ */
+public class ReplicaRouterTest {
+
+	private ConnectionPool primary;
+	private ConnectionPool replica;
+	private ReplicaRouter router;
+
+	@Before
+	public void setUp() throws Exception {
+		primary = new ConnectionPool("jdbc:h2:mem:primary", "sa", "", 1, 2, 1000, 0, "SELECT 1", 10);
+		replica = new ConnectionPool("jdbc:h2:mem:replica", "sa", "", 1, 2, 1000, 0, "SELECT 1", 10);
+		primary.fill();
+		replica.fill();
+		createLagTable(primary, 0);
+		createLagTable(replica, 0);
+		router = new ReplicaRouter(primary, replica, "SELECT SECONDS FROM LAG", 30, 0);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		// The in-memory databases vanish once their last pooled connection is closed
+		router.close();
+		primary.close();
+		replica.close();
+	}
+
+	@Test
+	public void readsGoToReplicaAndWritesToPrimary() throws Exception {
+		assertEquals("REPLICA", databaseOf(router.getReadConnection()));
+		assertEquals("PRIMARY", databaseOf(router.getWriteConnection()));
+	}
+
+	@Test
+	public void readsFallBackToPrimaryWhenReplicaLags() throws Exception {
+		execute(replica, "UPDATE LAG SET SECONDS=120");
+
+		assertFalse(router.checkReplica());
+		assertEquals("PRIMARY", databaseOf(router.getReadConnection()));
+
+		execute(replica, "UPDATE LAG SET SECONDS=2");
+
+		assertTrue(router.checkReplica());
+		assertEquals("REPLICA", databaseOf(router.getReadConnection()));
+	}
+
+	@Test
+	public void readsFallBackToPrimaryWhenReplicaIsDown() throws Exception {
+		replica.close();
+
+		assertEquals("PRIMARY", databaseOf(router.getReadConnection()));
+		assertFalse(router.isReplicaHealthy());
+	}
+
+	@Test
+	public void readsUsePrimaryWithoutReplica() throws Exception {
+		ReplicaRouter primaryOnly = new ReplicaRouter(primary, null, null, 30, 0);
+
+		assertEquals("PRIMARY", databaseOf(primaryOnly.getReadConnection()));
+		assertFalse(primaryOnly.isReplicaConfigured());
+	}
+
+	private static void createLagTable(ConnectionPool pool, int seconds) throws SQLException {
+		execute(pool, "CREATE TABLE LAG(SECONDS INT)");
+		execute(pool, "INSERT INTO LAG VALUES(" + seconds + ")");
+	}
+
+	private static void execute(ConnectionPool pool, String sql) throws SQLException {
+		try (Connection con = pool.getConnection(); Statement st = con.createStatement()) {
+			st.execute(sql);
+		}
+	}
+
+	private static String databaseOf(Connection con) throws SQLException {
+		try (Connection c = con; Statement st = c.createStatement()) {
+			ResultSet rs = st.executeQuery("SELECT DATABASE()");
+			rs.next();
+			return rs.getString(1);
+		}
+	}
+}
@@ -0,0 +1,252 @@
+package com.shashi.utility;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.AdditionalAnswers;
+import org.mockito.MockedStatic;
+
+import com.shashi.beans.HistoryBean;
+import com.shashi.beans.TrainBean;
+import com.shashi.constant.SeatClass;
+
+/**
+ * Bookings go through in-memory counters and are written to an in-process H2
+ * database, a second allocator on the same database stands in for a restart.
+ */
+public class SeatAllocatorTest {
+
+	private static final String DATE = "2026-11-02";
+
+	private ConnectionPool database;
+	private MockedStatic<DBUtil> mockedDBUtil;
+	private SeatAllocator allocator;
+	private TrainBean train;
+
+	@Before
+	public void setUp() throws Exception {
+		database = new ConnectionPool("jdbc:h2:mem:allocator;MODE=Oracle", "sa", "", 1, 8, 1000, 0, "SELECT 1", 10);
+		database.fill();
+		try (Connection con = database.getConnection(); Statement st = con.createStatement()) {
+			st.execute("CREATE TABLE TRAIN (TR_NO NUMBER(10) PRIMARY KEY, SEATS NUMBER(4))");
+			st.execute("CREATE TABLE HISTORY (TRANSID VARCHAR2(36) PRIMARY KEY, MAILID VARCHAR2(40), "
+					+ "TR_NO NUMBER(10), \"DATE\" DATE, FROM_STN_ID NUMBER(10), TO_STN_ID NUMBER(10), "
+					+ "SEATS NUMBER(3), AMOUNT NUMBER(8,2))");
+			st.execute("CREATE TABLE SEAT_INVENTORY (TR_NO NUMBER(10), JOURNEY_DATE DATE, SEAT_CLASS VARCHAR2(2), "
+					+ "SEATS NUMBER(4), PRIMARY KEY (TR_NO, JOURNEY_DATE, SEAT_CLASS))");
+			st.execute("INSERT INTO TRAIN VALUES (10001, 100)");
+		}
+		mockedDBUtil = mockStatic(DBUtil.class);
+		mockedDBUtil.when(DBUtil::getConnection).thenAnswer(invocation -> database.getConnection());
+		Map<Integer, String> stations = new HashMap<Integer, String>();
+		stations.put(1, "HOWRAH");
+		stations.put(2, "JODHPUR");
+		StationDirectory.getInstance().load(stations, Collections.<String, Integer>emptyMap());
+
+		allocator = new SeatAllocator(true, 200, 4, 3);
+		train = new TrainBean();
+		train.setTr_no(10001L);
+		train.setTr_name("JODHPUR EXP");
+		train.setFrom_stn("HOWRAH");
+		train.setTo_stn("JODHPUR");
+		train.setSeats(100);
+		train.setFare(490.5);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		try (Connection con = database.getConnection(); Statement st = con.createStatement()) {
+			st.execute("DROP ALL OBJECTS");
+		}
+		mockedDBUtil.close();
+		database.close();
+	}
+
+	@Test
+	public void concurrentBookingsNeverOversell() throws Exception {
+		// The static DBUtil mock only answers on this thread, so the bucket is loaded here
+		assertNotNull(allocator.reserve("user@demo.com", train, DATE, SeatClass.AC_FIRST, 1));
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		List<Future<HistoryBean>> bookings = new ArrayList<Future<HistoryBean>>();
+		for (int i = 0; i < 24; i++) {
+			Callable<HistoryBean> booking = () -> allocator.reserve("user@demo.com", train, DATE, SeatClass.AC_FIRST,
+					1);
+			bookings.add(pool.submit(booking));
+		}
+		int confirmed = 0;
+		for (Future<HistoryBean> booking : bookings) {
+			if (booking.get() != null) {
+				confirmed++;
+			}
+		}
+		pool.shutdown();
+		assertEquals(9, confirmed);
+		assertEquals(10, allocator.getPending());
+
+		allocator.flushAll();
+		assertEquals(0, allocator.getPending());
+		assertEquals(10, allocator.getPersisted());
+		assertEquals(10, count("SELECT COUNT(*) FROM HISTORY WHERE SEATS = 1 AND AMOUNT = 490.5"));
+		assertEquals(0, count("SELECT SEATS FROM SEAT_INVENTORY WHERE SEAT_CLASS = '1A'"));
+	}
+
+	@Test
+	public void rebuildsCountersFromCommittedBookings() throws Exception {
+		HistoryBean booking = allocator.reserve("user@demo.com", train, DATE, SeatClass.AC_TWO_TIER, 4);
+		assertEquals("HOWRAH", booking.getFrom_stn());
+		assertEquals(1962.0, booking.getAmount(), 0.001);
+		allocator.flushAll();
+		assertEquals(11, count("SELECT SEATS FROM SEAT_INVENTORY WHERE SEAT_CLASS = '2A'"));
+
+		SeatAllocator restarted = new SeatAllocator(true, 200, 4, 3);
+		assertNull(restarted.reserve("user@demo.com", train, DATE, SeatClass.AC_TWO_TIER, 12));
+		assertNotNull(restarted.reserve("user@demo.com", train, DATE, SeatClass.AC_TWO_TIER, 11));
+		assertNotNull(restarted.reserve("user@demo.com", train, "2026-11-03", SeatClass.AC_TWO_TIER, 15));
+
+		Map<Long, Map<SeatClass, Integer>> available = new HashMap<Long, Map<SeatClass, Integer>>();
+		available.put(10001L, new EnumMap<SeatClass, Integer>(SeatClass.class));
+		available.get(10001L).put(SeatClass.AC_TWO_TIER, 11);
+		restarted.overlay(available, DATE);
+		assertEquals(Integer.valueOf(0), available.get(10001L).get(SeatClass.AC_TWO_TIER));
+		assertNull(available.get(10001L).get(SeatClass.SLEEPER));
+	}
+
+	@Test
+	public void keepsFailedBatchForRetry() throws Exception {
+		allocator.reserve("user@demo.com", train, DATE, SeatClass.SLEEPER, 2);
+		execute("ALTER TABLE HISTORY RENAME TO HISTORY_OFFLINE");
+
+		assertEquals(0, allocator.flush());
+		assertEquals(1, allocator.getFailedFlushes());
+		assertEquals(1, allocator.getPending());
+		assertEquals(0, count("SELECT COUNT(*) FROM SEAT_INVENTORY"));
+
+		execute("ALTER TABLE HISTORY_OFFLINE RENAME TO HISTORY");
+		assertEquals(1, allocator.flush());
+		assertEquals(0, allocator.getPending());
+		assertEquals(1, count("SELECT COUNT(*) FROM HISTORY"));
+		assertEquals(48, count("SELECT SEATS FROM SEAT_INVENTORY WHERE SEAT_CLASS = 'SL'"));
+	}
+
+	@Test
+	public void retriesOnlyTheBookingsTheLostCommitDidNotWrite() throws Exception {
+		allocator.reserve("user@demo.com", train, DATE, SeatClass.SLEEPER, 1);
+		allocator.reserve("user@demo.com", train, DATE, SeatClass.SLEEPER, 1);
+		// The batch commits, then the connection drops before the answer arrives
+		AtomicBoolean dropAfterCommit = new AtomicBoolean(true);
+		mockedDBUtil.when(DBUtil::getConnection).thenAnswer(invocation -> {
+			Connection con = database.getConnection();
+			if (!dropAfterCommit.getAndSet(false)) {
+				return con;
+			}
+			Connection dropping = mock(Connection.class, AdditionalAnswers.delegatesTo(con));
+			doAnswer(commit -> {
+				con.commit();
+				throw new SQLException("Connection reset");
+			}).when(dropping).commit();
+			return dropping;
+		});
+
+		assertEquals(0, allocator.flush());
+		assertEquals(1, allocator.getFailedFlushes());
+		assertEquals(2, count("SELECT COUNT(*) FROM HISTORY"));
+
+		// Booked while the batch waits for its retry, must not be taken for part of it
+		allocator.reserve("user@demo.com", train, DATE, SeatClass.SLEEPER, 3);
+		assertEquals(3, allocator.getPending());
+
+		assertEquals(2, allocator.flush());
+		assertEquals(1, allocator.getPending());
+		assertEquals(2, count("SELECT COUNT(*) FROM HISTORY"));
+		assertEquals(1, allocator.flush());
+		assertEquals(0, allocator.getPending());
+		assertEquals(3, allocator.getPersisted());
+		assertEquals(3, count("SELECT COUNT(*) FROM HISTORY"));
+		assertEquals(45, count("SELECT SEATS FROM SEAT_INVENTORY WHERE SEAT_CLASS = 'SL'"));
+	}
+
+	@Test
+	public void deadLettersBookingsTheDatabaseKeepsRefusing() throws Exception {
+		// Longer than the MAILID column, the row can never be written
+		String tooLong = "a-customer-with-a-very-long-address@demo-mail.com";
+		allocator.reserve(tooLong, train, DATE, SeatClass.SLEEPER, 2);
+		allocator.reserve("user@demo.com", train, DATE, SeatClass.SLEEPER, 1);
+
+		assertEquals(0, allocator.flush());
+		assertEquals(0, allocator.flush());
+		assertEquals(2, allocator.getPending());
+
+		// Third failure, the bookings go one by one and only the refused one is dropped
+		assertEquals(2, allocator.flush());
+		assertEquals(3, allocator.getFailedFlushes());
+		assertEquals(1, allocator.getDeadLettered());
+		assertEquals(1, allocator.getPersisted());
+		assertEquals(0, allocator.getPending());
+		assertEquals(1, count("SELECT COUNT(*) FROM HISTORY"));
+		assertEquals(49, count("SELECT SEATS FROM SEAT_INVENTORY WHERE SEAT_CLASS = 'SL'"));
+
+		// The dropped booking keeps its seats, later bookings are written as usual
+		assertNotNull(allocator.reserve("user@demo.com", train, DATE, SeatClass.SLEEPER, 1));
+		assertEquals(1, allocator.flush());
+		assertEquals(2, count("SELECT COUNT(*) FROM HISTORY"));
+		Map<Long, Map<SeatClass, Integer>> available = new HashMap<Long, Map<SeatClass, Integer>>();
+		available.put(10001L, new EnumMap<SeatClass, Integer>(SeatClass.class));
+		allocator.overlay(available, DATE);
+		assertEquals(Integer.valueOf(46), available.get(10001L).get(SeatClass.SLEEPER));
+	}
+
+	@Test
+	public void evictsCountersOfPastJourneys() throws Exception {
+		allocator.reserve("user@demo.com", train, DATE, SeatClass.SLEEPER, 1);
+		allocator.reserve("user@demo.com", train, "2026-11-03", SeatClass.SLEEPER, 1);
+
+		allocator.evictBefore(LocalDate.parse("2026-11-03"));
+
+		Map<Long, Map<SeatClass, Integer>> available = new HashMap<Long, Map<SeatClass, Integer>>();
+		available.put(10001L, new EnumMap<SeatClass, Integer>(SeatClass.class));
+		allocator.overlay(available, DATE);
+		assertNull(available.get(10001L).get(SeatClass.SLEEPER));
+		allocator.overlay(available, "2026-11-03");
+		assertEquals(Integer.valueOf(49), available.get(10001L).get(SeatClass.SLEEPER));
+
+		// Bookings already queued for the dropped day are still written
+		allocator.flushAll();
+		assertEquals(2, count("SELECT COUNT(*) FROM HISTORY"));
+	}
+
+	private void execute(String sql) throws Exception {
+		try (Connection con = database.getConnection(); Statement st = con.createStatement()) {
+			st.execute(sql);
+		}
+	}
+
+	private int count(String sql) throws Exception {
+		try (Connection con = database.getConnection(); Statement st = con.createStatement()) {
+			ResultSet rs = st.executeQuery(sql);
+			assertTrue(rs.next());
+			return rs.getInt(1);
+		}
+	}
+}
@@ -0,0 +1,100 @@
+package com.shashi.utility;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.shashi.beans.TrainException;
+
+public class SingleFlightTest {
+
+	@Test
+	public void concurrentCallersShareOneLoad() throws Exception {
+		SingleFlight<Long, String> flights = new SingleFlight<Long, String>();
+		AtomicInteger loads = new AtomicInteger();
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<String>> results = new ArrayList<Future<String>>();
+			for (int i = 0; i < 8; i++) {
+				results.add(pool.submit(() -> flights.execute(10001L, () -> {
+					loads.incrementAndGet();
+					await(release);
+					return "TRAIN 10001";
+				})));
+			}
+			// Let every caller reach the flight before the load finishes
+			while (flights.getCalls() + flights.getShared() < 8) {
+				Thread.sleep(5);
+			}
+			release.countDown();
+			for (Future<String> result : results) {
+				assertEquals("TRAIN 10001", result.get(5, TimeUnit.SECONDS));
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+		assertEquals(1, loads.get());
+		assertEquals(1, flights.getCalls());
+		assertEquals(7, flights.getShared());
+
+		// Finished flights are not reused
+		assertEquals("again", flights.execute(10001L, () -> "again"));
+	}
+
+	@Test
+	public void waitingCallersGetTheSameFailure() throws Exception {
+		SingleFlight<Long, String> flights = new SingleFlight<Long, String>();
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService pool = Executors.newSingleThreadExecutor();
+		try {
+			Future<String> leader = pool.submit(() -> flights.execute(10001L, () -> {
+				await(release);
+				throw new TrainException("No connection");
+			}));
+			while (flights.getCalls() == 0) {
+				Thread.sleep(5);
+			}
+			// Fail the load only once this thread is waiting on it
+			Thread releaser = new Thread(() -> {
+				while (flights.getShared() == 0) {
+					Thread.yield();
+				}
+				release.countDown();
+			});
+			releaser.start();
+			try {
+				flights.execute(10001L, () -> "not run");
+				fail();
+			} catch (TrainException e) {
+				assertEquals("No connection", e.getMessage());
+			}
+			try {
+				leader.get(5, TimeUnit.SECONDS);
+				fail();
+			} catch (ExecutionException e) {
+				assertTrue(e.getCause() instanceof TrainException);
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
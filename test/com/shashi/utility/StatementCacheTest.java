@@ -0,0 +1,140 @@
+package com.shashi.utility;
+
+import static org.junit.Assert.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Lends statements of one in-process H2 connection the way a pooled connection
+ * does, checking what a borrower gets back after the previous one closed it.
+ */
+public class StatementCacheTest {
+
+	private static final String SELECT = "SELECT ID FROM T ORDER BY ID";
+	private static final String COUNT = "SELECT COUNT(*) FROM T";
+
+	private Connection physical;
+	private AtomicLong hits;
+	private AtomicLong misses;
+	private StatementCache cache;
+
+	@Before
+	public void setUp() throws Exception {
+		physical = DriverManager.getConnection("jdbc:h2:mem:statements", "sa", "");
+		try (Statement st = physical.createStatement()) {
+			st.execute("CREATE TABLE T (ID INT PRIMARY KEY)");
+			st.execute("INSERT INTO T VALUES (1), (2), (3)");
+		}
+		hits = new AtomicLong();
+		misses = new AtomicLong();
+		cache = new StatementCache(physical, 1, hits, misses);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		cache.clear();
+		physical.close();
+	}
+
+	@Test
+	public void reusesClosedStatements() throws Exception {
+		PreparedStatement first = cache.prepareStatement(SELECT);
+		first.close();
+		PreparedStatement second = cache.prepareStatement(SELECT);
+
+		assertEquals(1, hits.get());
+		assertEquals(1, misses.get());
+		assertEquals(1, cache.size());
+		assertEquals(3, rows(second));
+		second.close();
+	}
+
+	@Test
+	public void staleHandleCannotReachTheNextBorrower() throws Exception {
+		PreparedStatement first = cache.prepareStatement(SELECT);
+		first.close();
+		PreparedStatement second = cache.prepareStatement(SELECT);
+
+		assertTrue(first.isClosed());
+		assertFalse(second.isClosed());
+		first.close();
+		try {
+			first.executeQuery();
+			fail("handle was closed");
+		} catch (SQLException e) {
+			assertEquals(3, rows(second));
+		}
+		second.close();
+	}
+
+	@Test
+	public void sameSqlOpenTwiceGetsAPlainStatement() throws Exception {
+		PreparedStatement cached = cache.prepareStatement(SELECT);
+		PreparedStatement plain = cache.prepareStatement(SELECT);
+
+		assertEquals(2, misses.get());
+		assertEquals(1, cache.size());
+		assertEquals(3, rows(plain));
+		plain.close();
+		assertTrue(plain.isClosed());
+		assertEquals(3, rows(cached));
+		cached.close();
+
+		cache.prepareStatement(SELECT).close();
+		assertEquals(1, hits.get());
+	}
+
+	@Test
+	public void evictedWhileInUseClosesOnReturn() throws Exception {
+		PreparedStatement lent = cache.prepareStatement(SELECT);
+		// Only room for one, the lent statement is pushed out but stays usable
+		PreparedStatement other = cache.prepareStatement(COUNT);
+		assertEquals(1, cache.size());
+		assertEquals(3, rows(lent));
+		lent.close();
+		other.close();
+
+		PreparedStatement again = cache.prepareStatement(SELECT);
+		assertEquals(3, misses.get());
+		assertEquals(0, hits.get());
+		again.close();
+	}
+
+	@Test
+	public void closeResetsResultSetAndPerUseSettings() throws Exception {
+		PreparedStatement first = cache.prepareStatement(SELECT);
+		int fetchSize = first.getFetchSize();
+		first.setFetchSize(fetchSize + 50);
+		first.setMaxRows(1);
+		ResultSet rs = first.executeQuery();
+		assertTrue(rs.next());
+		first.close();
+
+		assertTrue(rs.isClosed());
+		PreparedStatement second = cache.prepareStatement(SELECT);
+		assertEquals(fetchSize, second.getFetchSize());
+		assertEquals(0, second.getMaxRows());
+		assertEquals(3, rows(second));
+		second.close();
+	}
+
+	private static int rows(PreparedStatement ps) throws SQLException {
+		int rows = 0;
+		try (ResultSet rs = ps.executeQuery()) {
+			while (rs.next()) {
+				rows++;
+			}
+		}
+		return rows;
+	}
+}
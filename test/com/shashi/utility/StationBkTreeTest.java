@@ -0,0 +1,49 @@
+package com.shashi.utility;
+
+import static com.shashi.utility.Trains.train;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.TreeSet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class StationBkTreeTest {
+
+	private StationBkTree tree;
+
+	@Before
+	public void setUp() {
+		tree = new StationBkTree();
+		tree.catalogLoaded(Arrays.asList(train(10001, "HOWRAH", "JODHPUR"), train(10008, "HAWRAH", "MUMBAI"),
+				train(10002, "GAYA", "DELHI"), train(10003, "GAYA", "HOWRAH"), train(10006, "PATNA", "NEW DELHI")));
+	}
+
+	@Test
+	public void findsNamesWithinTheDistance() {
+		assertEquals(new TreeSet<String>(Arrays.asList("HAWRAH", "HOWRAH")), tree.within("howrah", 1));
+		assertEquals(Collections.singleton("HAWRAH"), tree.within("HAWRAH", 0));
+		assertEquals(Collections.singleton("DELHI"), tree.within("DEHLI", 2));
+		assertTrue(tree.within("CHENNAI", 2).isEmpty());
+	}
+
+	@Test
+	public void skipsStationsNoLongerInUse() {
+		tree.trainRemoved(train(10008, "HAWRAH", "MUMBAI"));
+		assertEquals(Collections.singleton("HOWRAH"), tree.within("HOWRAH", 1));
+
+		tree.trainSaved(null, train(10009, "HAWRAH", "PURI"));
+		assertEquals(new TreeSet<String>(Arrays.asList("HAWRAH", "HOWRAH")), tree.within("HOWRAH", 1));
+	}
+
+	@Test
+	public void measuresEditDistance() {
+		assertEquals(0, StationBkTree.distance("GAYA", "GAYA"));
+		assertEquals(1, StationBkTree.distance("HOWRAH", "HAWRAH"));
+		assertEquals(2, StationBkTree.distance("DELHI", "DEHLI"));
+		assertEquals(4, StationBkTree.distance("DELHI", "NEW DELHI"));
+		assertEquals(4, StationBkTree.distance("", "GAYA"));
+	}
+}
@@ -0,0 +1,118 @@
+package com.shashi.utility;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mockStatic;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.MockedStatic;
+
+import com.shashi.beans.TrainBean;
+
+/**
+ * Two directories on one in-process H2 database stand in for two application
+ * nodes sharing the STATION table.
+ */
+public class StationDirectoryTest {
+
+	private ConnectionPool database;
+	private MockedStatic<DBUtil> mockedDBUtil;
+	private StationDirectory nodeA;
+	private StationDirectory nodeB;
+
+	@Before
+	public void setUp() throws Exception {
+		database = new ConnectionPool("jdbc:h2:mem:stations;MODE=Oracle", "sa", "", 1, 4, 1000, 0, "SELECT 1", 10);
+		database.fill();
+		try (Connection con = database.getConnection(); Statement st = con.createStatement()) {
+			st.execute("CREATE TABLE STATION (STN_ID NUMBER(10) PRIMARY KEY, STN_NAME VARCHAR2(20) NOT NULL UNIQUE)");
+			st.execute("CREATE TABLE STATION_ALIAS (ALIAS VARCHAR2(20) PRIMARY KEY, "
+					+ "STN_ID NUMBER(10) NOT NULL REFERENCES STATION (STN_ID))");
+			st.execute("CREATE SEQUENCE STATION_SEQ START WITH 3");
+			st.execute("INSERT INTO STATION VALUES (1, 'HOWRAH')");
+			st.execute("INSERT INTO STATION VALUES (2, 'JODHPUR')");
+			st.execute("INSERT INTO STATION_ALIAS VALUES ('HAWRAH', 1)");
+		}
+		mockedDBUtil = mockStatic(DBUtil.class);
+		mockedDBUtil.when(DBUtil::getConnection).thenAnswer(invocation -> database.getConnection());
+		nodeA = new StationDirectory();
+		nodeB = new StationDirectory();
+	}
+
+	@After
+	public void tearDown() {
+		mockedDBUtil.close();
+		database.close();
+	}
+
+	@Test
+	public void findsStationsByNameOrAlias() throws Exception {
+		assertEquals(Integer.valueOf(1), nodeA.find("howrah"));
+		assertEquals(Integer.valueOf(1), nodeA.find(" Hawrah "));
+		assertEquals(Integer.valueOf(2), nodeA.find("JODHPUR"));
+		assertNull(nodeA.find("GAYA"));
+		assertEquals("HOWRAH", nodeA.nameOf(1));
+		assertNull(nodeA.nameOf(9));
+	}
+
+	@Test
+	public void addsUnknownStationsOnce() throws Exception {
+		assertEquals(Integer.valueOf(1), nodeB.find("HOWRAH"));
+
+		int gaya = nodeA.resolve("Gaya");
+		assertEquals(3, gaya);
+		assertEquals("GAYA", nodeA.nameOf(gaya));
+		assertEquals(gaya, nodeA.resolve("GAYA"));
+		assertEquals(1, nodeA.resolve("Hawrah"));
+
+		// The other node read the table before, the new id makes it read again
+		assertEquals("GAYA", nodeB.nameOf(gaya));
+		assertEquals(gaya, nodeB.resolve("gaya"));
+	}
+
+	@Test
+	public void readsNewStationsThroughTheCallersConnection() throws Exception {
+		assertEquals("HOWRAH", nodeB.nameOf(1));
+		Map<Integer, String> known = new HashMap<Integer, String>();
+		known.put(1, "HOWRAH");
+		known.put(2, "JODHPUR");
+		StationDirectory.getInstance().load(known, Collections.<String, Integer>emptyMap());
+		int gaya = nodeA.resolve("GAYA");
+
+		// The pool is exhausted, a second connection for the lookup would never come
+		List<Connection> held = new ArrayList<Connection>();
+		try {
+			for (int i = 0; i < 4; i++) {
+				held.add(database.getConnection());
+			}
+			assertEquals("GAYA", nodeB.nameOf(held.get(0), gaya));
+			try (Statement st = held.get(1).createStatement()) {
+				ResultSet rs = st.executeQuery("SELECT 10001, 'GAYA EXP', " + gaya + ", 1, 100, 490.5 FROM DUAL");
+				assertTrue(rs.next());
+				TrainBean train = TrainRowMapper.ALL.mapRow(rs);
+				assertEquals("GAYA", train.getFrom_stn());
+				assertEquals("HOWRAH", train.getTo_stn());
+			}
+		} finally {
+			for (Connection con : held) {
+				con.close();
+			}
+		}
+	}
+
+	@Test(expected = SQLException.class)
+	public void rejectsBlankNames() throws Exception {
+		nodeA.resolve("  ");
+	}
+}
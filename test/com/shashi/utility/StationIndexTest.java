@@ -0,0 +1,57 @@
+package com.shashi.utility;
+
+import static com.shashi.utility.Trains.train;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.shashi.beans.TrainBean;
+
+public class StationIndexTest {
+
+	private StationIndex index;
+
+	@Before
+	public void setUp() {
+		index = new StationIndex();
+		index.catalogLoaded(Arrays.asList(train(10001, "HOWRAH", "JODHPUR"), train(10002, "GAYA", "DELHI"),
+				train(10003, "GAYA", "HOWRAH"), train(10006, "PATNA", "NEW DELHI")));
+	}
+
+	@Test
+	public void matchesSubstringsCaseInsensitively() {
+		assertEquals(Arrays.asList(10002L, 10006L), list(index.findBetween("a", "delhi")));
+		assertEquals(Arrays.asList(10003L), list(index.findBetween("gaya", "WRA")));
+		assertEquals(Arrays.asList(10001L, 10002L, 10003L, 10006L), list(index.findBetween("", "")));
+		assertTrue(index.findBetween("HOWRAH", "DELHI").isEmpty());
+	}
+
+	@Test
+	public void trigramsMustBeContiguous() {
+		// GAYA has both GAY and AYA, GAYAYA would need them in a row
+		assertTrue(index.findBetween("GAYAYA", "").isEmpty());
+	}
+
+	@Test
+	public void followsSavedAndRemovedTrains() {
+		TrainBean previous = train(10002, "GAYA", "DELHI");
+		index.trainSaved(previous, train(10002, "GAYA", "KOLKATA"));
+		index.trainRemoved(train(10006, "PATNA", "NEW DELHI"));
+
+		assertTrue(index.findBetween("", "DELHI").isEmpty());
+		assertEquals(Arrays.asList(10002L), list(index.findBetween("GAY", "KOLK")));
+		assertEquals(Collections.singleton("GAYA"), index.findStations("ya"));
+		assertTrue(index.findStations("PAT").isEmpty());
+	}
+
+	private static List<Long> list(Set<Long> trains) {
+		return new ArrayList<Long>(trains);
+	}
+}
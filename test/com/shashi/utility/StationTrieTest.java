@@ -0,0 +1,41 @@
+package com.shashi.utility;
+
+import static com.shashi.utility.Trains.train;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class StationTrieTest {
+
+	private StationTrie trie;
+
+	@Before
+	public void setUp() {
+		trie = new StationTrie();
+		trie.catalogLoaded(Arrays.asList(train(10001, "HOWRAH", "JODHPUR"), train(10002, "GAYA", "DELHI"),
+				train(10003, "GAYA", "HOWRAH"), train(10006, "PATNA", "DELHI"), train(10008, "HAWRAH", "MUMBAI")));
+	}
+
+	@Test
+	public void ranksCompletionsByUse() {
+		assertEquals(Arrays.asList("HOWRAH", "HAWRAH"), trie.complete("h", 10));
+		assertEquals(Arrays.asList("DELHI", "GAYA", "HOWRAH"), trie.complete("", 3));
+		assertEquals(Arrays.asList("JODHPUR"), trie.complete(" jo", 10));
+		assertTrue(trie.complete("HOWRAHS", 10).isEmpty());
+		assertTrue(trie.complete("H", 0).isEmpty());
+	}
+
+	@Test
+	public void followsSavedAndRemovedTrains() {
+		trie.trainSaved(train(10008, "HAWRAH", "MUMBAI"), train(10008, "HOWRAH", "MUMBAI"));
+		trie.trainRemoved(train(10001, "HOWRAH", "JODHPUR"));
+
+		assertEquals(Arrays.asList("HOWRAH"), trie.complete("H", 10));
+		assertEquals(2, trie.getCount("howrah"));
+		assertEquals(0, trie.getCount("HAWRAH"));
+		assertTrue(trie.complete("J", 10).isEmpty());
+	}
+}
@@ -0,0 +1,63 @@
+package com.shashi.utility;
+
+import static com.shashi.utility.Trains.train;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.shashi.beans.TrainBean;
+
+public class TrainCatalogTest {
+
+	private TrainCatalog catalog;
+
+	@Before
+	public void setUp() {
+		catalog = new TrainCatalog();
+		catalog.load(Arrays.asList(train(10001, 550.5), train(10002, 400)), catalog.stamp());
+	}
+
+	@Test
+	public void snapshotStaysTheSameWhileWritersPublishNewVersions() {
+		CatalogSnapshot before = catalog.getSnapshot();
+
+		catalog.put(train(10003, 700));
+		catalog.put(train(10001, 600));
+		catalog.remove(10002L);
+
+		assertEquals(2, before.size());
+		assertEquals(550.5, before.getTrain(10001L).getFare(), 0.001);
+		assertTrue(before.contains(10002L));
+		assertFalse(before.contains(10003L));
+
+		CatalogSnapshot after = catalog.getSnapshot();
+		assertEquals(before.getVersion() + 3, after.getVersion());
+		assertEquals(Arrays.asList(10001L, 10003L),
+				Arrays.asList(after.trains().stream().map(TrainBean::getTr_no).toArray()));
+		assertEquals(600, after.getTrain(10001L).getFare(), 0.001);
+	}
+
+	@Test
+	public void refusesALoadThatRacedWithAWrite() {
+		catalog.clear();
+		long stamp = catalog.stamp();
+		catalog.remove(10001L);
+
+		assertFalse(catalog.load(Arrays.asList(train(10001, 550.5)), stamp));
+		assertFalse(catalog.isLoaded());
+		assertTrue(catalog.load(Arrays.asList(train(10002, 400)), catalog.stamp()));
+		assertEquals(1, catalog.size());
+		assertNull(catalog.getTrain(10001L));
+	}
+
+	@Test
+	public void handsOutCopies() {
+		catalog.getTrain(10001L).setFare(1.0);
+		catalog.getSnapshot().getTrains(Arrays.asList(10001L)).get(0).setFare(2.0);
+
+		assertEquals(550.5, catalog.getTrain(10001L).getFare(), 0.001);
+	}
+}
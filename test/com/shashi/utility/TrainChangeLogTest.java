@@ -0,0 +1,111 @@
+package com.shashi.utility;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mockStatic;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.MockedStatic;
+
+/**
+ * Two change logs on one in-process H2 database stand in for two application
+ * nodes sharing the primary.
+ */
+public class TrainChangeLogTest {
+
+	private ConnectionPool database;
+	private MockedStatic<DBUtil> mockedDBUtil;
+	private TrainChangeLog nodeA;
+	private TrainChangeLog nodeB;
+	private List<Long> refreshedOnB = new ArrayList<Long>();
+
+	@Before
+	public void setUp() throws Exception {
+		database = new ConnectionPool("jdbc:h2:mem:changelog;MODE=Oracle", "sa", "", 1, 4, 1000, 0, "SELECT 1", 10);
+		database.fill();
+		try (Connection con = database.getConnection(); Statement st = con.createStatement()) {
+			st.execute("CREATE TABLE TRAIN_CHANGE (CHANGE_ID NUMBER(19) PRIMARY KEY, TR_NO NUMBER(10) NOT NULL, "
+					+ "CHANGED_AT TIMESTAMP NOT NULL)");
+			st.execute("CREATE SEQUENCE TRAIN_CHANGE_SEQ");
+		}
+		mockedDBUtil = mockStatic(DBUtil.class);
+		mockedDBUtil.when(DBUtil::getConnection).thenAnswer(invocation -> database.getConnection());
+		nodeA = new TrainChangeLog(true, 1000, 60000, 0);
+		nodeB = new TrainChangeLog(true, 1000, 60000, 0);
+	}
+
+	@After
+	public void tearDown() {
+		mockedDBUtil.close();
+		database.close();
+	}
+
+	@Test
+	public void otherNodesRefreshChangedTrainsOnce() throws Exception {
+		record(nodeA, 10001L);
+		// The first poll only catches up with what is already in the database
+		assertEquals(0, nodeB.poll(refreshedOnB::add));
+
+		record(nodeA, 10002L);
+		record(nodeA, 10002L);
+		record(nodeA, 10003L);
+
+		assertEquals(2, nodeB.poll(refreshedOnB::add));
+		assertEquals(Arrays.asList(10002L, 10003L), sorted(refreshedOnB));
+		assertEquals(0, nodeB.poll(refreshedOnB::add));
+	}
+
+	@Test
+	public void picksUpChangesThatCommittedLate() throws Exception {
+		nodeB.poll(refreshedOnB::add);
+		record(nodeA, 10001L);
+		nodeB.poll(refreshedOnB::add);
+
+		// Stamped before the change already seen but only visible now
+		try (Connection con = database.getConnection();
+				PreparedStatement ps = con.prepareStatement("INSERT INTO TRAIN_CHANGE VALUES (TRAIN_CHANGE_SEQ.NEXTVAL, 10005, ?)")) {
+			ps.setTimestamp(1, new Timestamp(System.currentTimeMillis() - 5000));
+			ps.executeUpdate();
+		}
+
+		assertEquals(1, nodeB.poll(refreshedOnB::add));
+		assertEquals(Arrays.asList(10001L, 10005L), refreshedOnB);
+	}
+
+	@Test
+	public void uncommittedWritesAreNotLogged() throws Exception {
+		nodeB.poll(refreshedOnB::add);
+		try (Connection con = database.getConnection()) {
+			nodeA.begin(con);
+			// Closed before commit, the pool rolls the change back
+		}
+		try (Connection con = database.getConnection(); Statement st = con.createStatement()) {
+			nodeA.begin(con);
+			st.executeUpdate("INSERT INTO TRAIN_CHANGE VALUES (TRAIN_CHANGE_SEQ.NEXTVAL, 10009, SYSTIMESTAMP)");
+		}
+
+		assertEquals(0, nodeB.poll(refreshedOnB::add));
+	}
+
+	private void record(TrainChangeLog node, Long trainNo) throws Exception {
+		try (Connection con = database.getConnection()) {
+			node.begin(con);
+			node.commit(con, trainNo);
+		}
+	}
+
+	private static List<Long> sorted(List<Long> trainNos) {
+		List<Long> copy = new ArrayList<Long>(trainNos);
+		copy.sort(null);
+		return copy;
+	}
+}
@@ -0,0 +1,58 @@
+package com.shashi.utility;
+
+import static com.shashi.utility.Trains.train;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class TrainColumnsTest {
+
+	private TrainColumns columns;
+
+	@Before
+	public void setUp() {
+		columns = TrainColumns.of(Arrays.asList(train(10001, "Gaya", "DELHI", 550.5),
+				train(10003, "GAYA", "HOWRAH", 451), train(10006, "PATNA", "NEW DELHI", 1450.75),
+				train(10011, "BODH GAYA", "DELHI", 400)));
+	}
+
+	@Test
+	public void findsRowsBetweenStationsInTrainNumberOrder() {
+		int[] rows = columns.findBetween("gaya", "delhi");
+
+		assertEquals(2, rows.length);
+		assertEquals(10001, columns.getTrainNo(rows[0]));
+		assertEquals("Gaya", columns.getFromStation(rows[0]));
+		assertEquals(550.5, columns.getFare(rows[0]), 0.001);
+		assertEquals(10011, columns.getTrainNo(rows[1]));
+		assertEquals("BODH GAYA", columns.getFromStation(rows[1]));
+		assertEquals(0, columns.findBetween("RANCHI", "DELHI").length);
+		assertEquals(0, columns.findBetween("PATNA", "HOWRAH").length);
+	}
+
+	@Test
+	public void keepsEveryFieldOfARow() {
+		int row = columns.rowFrom(10006);
+
+		assertEquals(10006, columns.getTrainNo(row));
+		assertEquals("TRAIN 10006", columns.getName(row));
+		assertEquals("PATNA", columns.getFromStation(row));
+		assertEquals("NEW DELHI", columns.getToStation(row));
+		assertEquals(100, columns.getSeats(row));
+		assertEquals(1450.75, columns.getFare(row), 0.001);
+	}
+
+	@Test
+	public void locatesTrainNumbersForPaging() {
+		assertEquals(0, columns.rowAfter(0));
+		assertEquals(1, columns.rowAfter(10001));
+		assertEquals(2, columns.rowAfter(10004));
+		assertEquals(4, columns.rowAfter(10011));
+		assertEquals(1, columns.rowFrom(10003));
+		assertEquals(3, columns.rowFrom(10007));
+		assertEquals(4, columns.rowFrom(20000));
+	}
+}
@@ -0,0 +1,61 @@
+package com.shashi.utility;
+
+import static com.shashi.utility.Trains.train;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.shashi.beans.TrainBean;
+
+public class TrainNumberFilterTest {
+
+	private TrainNumberFilter filter;
+
+	@Before
+	public void setUp() {
+		filter = new TrainNumberFilter(1000, 0.01);
+		List<TrainBean> trains = new ArrayList<TrainBean>();
+		for (long trainNo = 10001; trainNo <= 11000; trainNo++) {
+			trains.add(train(trainNo));
+		}
+		filter.catalogLoaded(trains);
+	}
+
+	@Test
+	public void neverRejectsAKnownTrain() {
+		for (long trainNo = 10001; trainNo <= 11000; trainNo++) {
+			assertTrue(filter.mightContain(trainNo));
+		}
+		assertEquals(0, filter.getRejected());
+	}
+
+	@Test
+	public void rejectsMostUnknownNumbers() {
+		int passed = 0;
+		for (long trainNo = 20001; trainNo <= 30000; trainNo++) {
+			if (filter.mightContain(trainNo)) {
+				passed++;
+			}
+		}
+		// Sized for 2000 trains at 1%, so well under 1% with 1000 in it
+		assertTrue("passed " + passed, passed < 100);
+		assertEquals(10000 - passed, filter.getRejected());
+		assertTrue(filter.getEstimatedFalsePositiveRate() < 0.01);
+	}
+
+	@Test
+	public void followsAddedAndRemovedTrains() {
+		filter.trainSaved(null, train(55555));
+		assertTrue(filter.mightContain(55555));
+
+		filter.trainRemoved(train(55555));
+		filter.trainRemoved(train(10001));
+		assertFalse(filter.mightContain(55555));
+		assertFalse(filter.mightContain(10001));
+		assertTrue(filter.mightContain(10002));
+	}
+}
@@ -0,0 +1,36 @@
+package com.shashi.utility;
+
+import com.shashi.beans.TrainBean;
+
+/**
+ * Train beans for the catalog and index tests, 100 seats each and named after
+ * their number. Trains without stations run from GAYA to DELHI.
+ */
+public final class Trains {
+
+	private Trains() {
+	}
+
+	public static TrainBean train(long trainNo) {
+		return train(trainNo, "GAYA", "DELHI", 100.0);
+	}
+
+	public static TrainBean train(long trainNo, double fare) {
+		return train(trainNo, "GAYA", "DELHI", fare);
+	}
+
+	public static TrainBean train(long trainNo, String from, String to) {
+		return train(trainNo, from, to, 100.0);
+	}
+
+	public static TrainBean train(long trainNo, String from, String to, double fare) {
+		TrainBean train = new TrainBean();
+		train.setTr_no(trainNo);
+		train.setTr_name("TRAIN " + trainNo);
+		train.setFrom_stn(from);
+		train.setTo_stn(to);
+		train.setSeats(100);
+		train.setFare(fare);
+		return train;
+	}
+}
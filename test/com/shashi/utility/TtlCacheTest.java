@@ -0,0 +1,48 @@
+package com.shashi.utility;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class TtlCacheTest {
+
+	@Test
+	public void evictsLeastRecentlyUsedEntryWhenFull() {
+		TtlCache<Long, String> cache = new TtlCache<Long, String>(2, 0);
+		cache.put(1L, "one");
+		cache.put(2L, "two");
+		cache.get(1L);
+		cache.put(3L, "three");
+
+		assertEquals("one", cache.get(1L));
+		assertNull(cache.get(2L));
+		assertEquals("three", cache.get(3L));
+		assertEquals(1, cache.getEvictions());
+		assertEquals(3, cache.getHits());
+		assertEquals(1, cache.getMisses());
+	}
+
+	@Test
+	public void expiredEntriesAreMisses() throws Exception {
+		TtlCache<Long, String> cache = new TtlCache<Long, String>(10, 20);
+		cache.put(1L, "one");
+
+		Thread.sleep(40);
+
+		assertNull(cache.get(1L));
+		assertEquals(0, cache.size());
+		assertEquals(1, cache.getEvictions());
+	}
+
+	@Test
+	public void loadStartedBeforeInvalidationIsNotCached() {
+		TtlCache<Long, String> cache = new TtlCache<Long, String>(10, 0);
+		long stamp = cache.stamp();
+
+		cache.invalidate(1L);
+
+		assertFalse(cache.putIfCurrent(1L, "stale", stamp));
+		assertNull(cache.get(1L));
+		assertTrue(cache.putIfCurrent(1L, "fresh", cache.stamp()));
+	}
+}